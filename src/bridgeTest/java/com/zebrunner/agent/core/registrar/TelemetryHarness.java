@@ -0,0 +1,171 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.Status;
+import com.zebrunner.agent.core.registrar.descriptor.TestFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+import com.zebrunner.agent.core.telemetry.OpenTelemetryBinding;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.zebrunner.agent.core.telemetry.OpenTelemetryBinding;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checks that agent metrics and traces are bridged to Micrometer and OpenTelemetry when the libraries are present.
+ * A test run with a single test is reported to {@link StubZebrunnerServer}, with {@link SimpleMeterRegistry} added
+ * to {@code Metrics.globalRegistry} and OpenTelemetry SDK exporting to in-memory readers bound
+ * via {@link OpenTelemetryBinding}. Afterwards the harness checks that calls to Zebrunner are counted by the meters
+ * of both libraries, that spans of the calls are children of the spans of registrations which made them,
+ * and that the agent left {@code GlobalOpenTelemetry} to the application.
+ */
+public final class TelemetryHarness {
+
+    private static final String CALLS_METER = "zebrunner.agent.api.calls";
+    private static final String ENDPOINT_TAG = "endpoint";
+    private static final String TEST_START_ENDPOINT = AgentMetrics.Endpoint.TEST_START.getDisplayName();
+
+    private final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new TelemetryHarness().check() ? 0 : 1);
+    }
+
+    private boolean check() throws Exception {
+        // must be configured before the agent looks Micrometer up
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.globalRegistry.add(meterRegistry);
+
+        // must be bound before the test run is registered, so that registrations are traced
+        InMemorySpanExporter spanExporter = InMemorySpanExporter.create();
+        InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                                                            .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+                                                            .build();
+        SdkMeterProvider meterProvider = SdkMeterProvider.builder()
+                                                         .registerMetricReader(metricReader)
+                                                         .build();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                                                         .setTracerProvider(tracerProvider)
+                                                         .setMeterProvider(meterProvider)
+                                                         .build();
+        OpenTelemetryBinding.bind(openTelemetry);
+
+        StubZebrunnerServer server = new StubZebrunnerServer(4, 0, 0, 0, 0, true);
+        server.start();
+
+        System.setProperty("reporting.enabled", "true");
+        System.setProperty("reporting.projectKey", "TELEMETRY");
+        System.setProperty("reporting.server.hostname", server.getHostname());
+        System.setProperty("reporting.server.accessToken", "telemetry-test");
+
+        try {
+            reportTestRun();
+        } finally {
+            server.stop();
+        }
+
+        checkGlobalOpenTelemetryIsNotSet(openTelemetry);
+        checkMicrometer(meterRegistry);
+        checkOpenTelemetryMetrics(metricReader.collectAllMetrics());
+        checkSpans(spanExporter.getFinishedSpanItems());
+
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        if (failures.isEmpty()) {
+            System.out.println("PASSED");
+        }
+        return failures.isEmpty();
+    }
+
+    private static void reportTestRun() throws NoSuchMethodException {
+        TestRunRegistrar registrar = TestRunRegistrar.getInstance();
+        registrar.registerStart(
+                new TestRunStartDescriptor("Telemetry test", "telemetry-harness", OffsetDateTime.now(), null)
+        );
+
+        Method testMethod = TelemetryHarness.class.getDeclaredMethod("reportTestRun");
+        String testId = "telemetry";
+        registrar.registerTestStart(
+                testId, new TestStartDescriptor(testId, testId, TelemetryHarness.class, testMethod)
+        );
+        registrar.registerTestFinish(testId, new TestFinishDescriptor(Status.PASSED));
+        registrar.registerFinish(new TestRunFinishDescriptor(OffsetDateTime.now()));
+    }
+
+    /**
+     * The agent must not look up {@code GlobalOpenTelemetry}, otherwise a no-op instance is installed
+     * and the application can not register its own.
+     */
+    private void checkGlobalOpenTelemetryIsNotSet(OpenTelemetry openTelemetry) {
+        try {
+            GlobalOpenTelemetry.set(openTelemetry);
+        } catch (IllegalStateException e) {
+            failures.add("GlobalOpenTelemetry was set while reporting: " + e.getMessage());
+        }
+    }
+
+    private void checkMicrometer(SimpleMeterRegistry meterRegistry) {
+        FunctionTimer testStarts = meterRegistry.find(CALLS_METER)
+                                                .tag(ENDPOINT_TAG, TEST_START_ENDPOINT)
+                                                .functionTimer();
+        if (testStarts == null) {
+            failures.add("Micrometer timer '" + CALLS_METER + "' of '" + TEST_START_ENDPOINT + "' is not registered");
+        } else if (testStarts.count() != 1) {
+            failures.add("Micrometer timer '" + CALLS_METER + "' counted " + testStarts.count() + " test starts");
+        }
+        if (meterRegistry.find("zebrunner.agent.logs.queue.depth").gauge() == null) {
+            failures.add("Micrometer gauge of logs queue depth is not registered");
+        }
+    }
+
+    private void checkOpenTelemetryMetrics(Collection<MetricData> metrics) {
+        Optional<MetricData> calls = metrics.stream()
+                                            .filter(metric -> CALLS_METER.equals(metric.getName()))
+                                            .findFirst();
+        if (!calls.isPresent()) {
+            failures.add("OpenTelemetry metric '" + CALLS_METER + "' is not collected");
+        } else if (calls.get().getLongSumData().getPoints().isEmpty()) {
+            failures.add("OpenTelemetry metric '" + CALLS_METER + "' has no points");
+        }
+    }
+
+    private void checkSpans(List<SpanData> spans) {
+        Optional<SpanData> registration = findSpan(spans, "Zebrunner register test start");
+        Optional<SpanData> call = findSpan(spans, "Zebrunner " + TEST_START_ENDPOINT);
+        if (!registration.isPresent() || !call.isPresent()) {
+            failures.add("Spans of test start are not exported, exported spans: " + spans);
+            return;
+        }
+        if (!registration.get().getSpanId().equals(call.get().getParentSpanId())) {
+            failures.add("Span of test start call is not a child of test start registration");
+        }
+        spans.stream()
+             .filter(span -> span.getStatus().getStatusCode() == StatusCode.ERROR)
+             .forEach(span -> failures.add("Span '" + span.getName() + "' has error status"));
+    }
+
+    private static Optional<SpanData> findSpan(List<SpanData> spans, String name) {
+        return spans.stream()
+                    .filter(span -> name.equals(span.getName()))
+                    .findFirst();
+    }
+
+}
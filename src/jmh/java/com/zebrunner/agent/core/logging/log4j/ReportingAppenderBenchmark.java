@@ -0,0 +1,60 @@
+package com.zebrunner.agent.core.logging.log4j;
+
+import com.zebrunner.agent.core.logging.Log;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cost of conversion of a log4j event to {@link Log}. Events cache their rendered messages, so a new event
+ * is created on every invocation, and {@link #createEvent()} is the baseline to be subtracted.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ReportingAppenderBenchmark {
+
+    private final Logger logger = Logger.getLogger(ReportingAppenderBenchmark.class);
+
+    private Function<LoggingEvent, Log> converter;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        Field converterField = ReportingAppender.class.getDeclaredField("CONVERTER");
+        converterField.setAccessible(true);
+        converter = (Function<LoggingEvent, Log>) converterField.get(null);
+    }
+
+    @Benchmark
+    public LoggingEvent createEvent() {
+        return newEvent();
+    }
+
+    @Benchmark
+    public Log convert() {
+        return converter.apply(newEvent());
+    }
+
+    private LoggingEvent newEvent() {
+        return new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "Clicking on element 'submit' of form #42", null);
+    }
+
+}
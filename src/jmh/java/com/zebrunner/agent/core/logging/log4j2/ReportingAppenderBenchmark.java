@@ -0,0 +1,64 @@
+package com.zebrunner.agent.core.logging.log4j2;
+
+import com.zebrunner.agent.core.logging.Log;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cost of conversion of a log4j2 event to {@link Log}. Messages cache their formatted representation, so a new event
+ * is created on every invocation, and {@link #createEvent()} is the baseline to be subtracted.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ReportingAppenderBenchmark {
+
+    private Function<LogEvent, Log> converter;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        Field converterField = ReportingAppender.class.getDeclaredField("CONVERTER");
+        converterField.setAccessible(true);
+        converter = (Function<LogEvent, Log>) converterField.get(null);
+    }
+
+    @Benchmark
+    public LogEvent createEvent() {
+        return newEvent();
+    }
+
+    @Benchmark
+    public Log convert() {
+        return converter.apply(newEvent());
+    }
+
+    private LogEvent newEvent() {
+        return Log4jLogEvent.newBuilder()
+                            .setLoggerName(ReportingAppenderBenchmark.class.getName())
+                            .setLevel(Level.INFO)
+                            .setMessage(new ParameterizedMessage("Clicking on element '{}' of form #{}", "submit", 42))
+                            .setTimeMillis(System.currentTimeMillis())
+                            .build();
+    }
+
+}
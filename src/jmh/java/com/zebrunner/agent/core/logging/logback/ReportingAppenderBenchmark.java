@@ -0,0 +1,64 @@
+package com.zebrunner.agent.core.logging.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.zebrunner.agent.core.logging.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cost of conversion of a logback event to {@link Log}. Events cache their formatted messages, so a new event
+ * is created on every invocation, and {@link #createEvent()} is the baseline to be subtracted.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ReportingAppenderBenchmark {
+
+    private final Logger logger = new LoggerContext().getLogger(ReportingAppenderBenchmark.class);
+
+    private Function<ILoggingEvent, Log> converter;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        Field converterField = ReportingAppender.class.getDeclaredField("CONVERTER");
+        converterField.setAccessible(true);
+        converter = (Function<ILoggingEvent, Log>) converterField.get(null);
+    }
+
+    @Benchmark
+    public ILoggingEvent createEvent() {
+        return newEvent();
+    }
+
+    @Benchmark
+    public Log convert() {
+        return converter.apply(newEvent());
+    }
+
+    private ILoggingEvent newEvent() {
+        return new LoggingEvent(
+                Logger.class.getName(), logger, Level.INFO, "Clicking on element '{}' of form #{}", null, new Object[]{"submit", 42}
+        );
+    }
+
+}
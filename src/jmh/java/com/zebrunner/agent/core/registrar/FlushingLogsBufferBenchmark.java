@@ -0,0 +1,79 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of buffering a log event issued in scope of a test, with several test threads logging concurrently.
+ * Buffered logs are flushed (and discarded, since reporting is disabled) every second.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class FlushingLogsBufferBenchmark {
+
+    private static final AtomicLong TEST_IDS = new AtomicLong();
+
+    private final FlushingLogsBuffer<String> buffer = new FlushingLogsBuffer<>(
+            message -> Log.builder()
+                          .message(message)
+                          .level("INFO")
+                          .timestamp(System.currentTimeMillis())
+                          .build()
+    );
+
+    @State(Scope.Thread)
+    public static class TestThread {
+
+        private String testId;
+
+        @Setup(Level.Trial)
+        public void startTest() throws NoSuchMethodException {
+            long zebrunnerId = TEST_IDS.incrementAndGet();
+            testId = "benchmark-test-" + zebrunnerId;
+            TestStartDescriptor startDescriptor = new TestStartDescriptor(
+                    testId, testId, TestThread.class, TestThread.class.getMethod("startTest")
+            );
+            RunContext.addTest(testId, TestDescriptor.create(zebrunnerId, startDescriptor));
+        }
+
+        @TearDown(Level.Trial)
+        public void finishTest() {
+            RunContext.removeCurrentTest();
+        }
+
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void putSingleThread(TestThread testThread) {
+        buffer.put("Clicking on element 'submit'");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void putContended(TestThread testThread) {
+        buffer.put("Clicking on element 'submit'");
+    }
+
+}
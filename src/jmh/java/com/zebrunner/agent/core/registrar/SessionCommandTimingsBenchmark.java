@@ -0,0 +1,50 @@
+package com.zebrunner.agent.core.registrar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording latency of a driver command, which is paid on every intercepted {@code RemoteWebDriver} call
+ * when reporting is enabled.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SessionCommandTimingsBenchmark {
+
+    private static final String[] COMMANDS = {"findElement", "getTitle", "executeScript", "get"};
+
+    private final SessionCommandTimings timings = new SessionCommandTimings("benchmark-session");
+
+    @Benchmark
+    @Threads(1)
+    public void recordSingleThread() {
+        record();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended() {
+        record();
+    }
+
+    private void record() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        timings.record(COMMANDS[random.nextInt(COMMANDS.length)], random.nextLong(100_000, 50_000_000));
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSerializer;
+import com.zebrunner.agent.core.logging.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of (de)serialization of the payloads sent most often: batches of test logs and test start/finish requests.
+ * The {@code *Reflective} benchmarks serialize the same payloads by reflection-based Gson as a baseline.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ObjectMapperImplBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int logsBatchSize;
+
+    private final ObjectMapperImpl objectMapper = new ObjectMapperImpl();
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(
+                    OffsetDateTime.class,
+                    (JsonSerializer<OffsetDateTime>) (src, typeOfSrc, context) -> context.serialize(src.toString())
+            )
+            .create();
+
+    private List<Log> logsBatch;
+    private TestDTO test;
+    private String testJson;
+
+    @Setup
+    public void setUp() {
+        logsBatch = new ArrayList<>(logsBatchSize);
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < logsBatchSize; i++) {
+            logsBatch.add(new Log("42", "Clicking on element 'submit' of form #" + i, "INFO", timestamp + i));
+        }
+
+        test = TestDTO.builder()
+                      .id(42L)
+                      .uuid("b3f2a8a0-3a8e-4c5e-9f7e-3b1e5b0c1f2d")
+                      .name("Login with valid credentials")
+                      .className("com.example.tests.LoginTest")
+                      .methodName("loginWithValidCredentials")
+                      .startedAt(OffsetDateTime.now().minusSeconds(30))
+                      .endedAt(OffsetDateTime.now())
+                      .maintainer("qa")
+                      .testCase("TC-42")
+                      .labels(Arrays.asList(new LabelDTO("priority", "P1"), new LabelDTO("com.zebrunner.app/tcm.jira.id", "APP-42")))
+                      .artifactReferences(Arrays.asList(new ArtifactReferenceDTO("ticket", "https://example.com/APP-42")))
+                      .result("FAILED")
+                      .reason("java.lang.AssertionError: expected [Welcome] but found [Invalid credentials]")
+                      .build();
+        testJson = objectMapper.writeValue(test);
+    }
+
+    @Benchmark
+    public String writeLogsBatch() {
+        return objectMapper.writeValue(logsBatch);
+    }
+
+    @Benchmark
+    public String writeLogsBatchReflective() {
+        return reflectiveGson.toJson(logsBatch);
+    }
+
+    @Benchmark
+    public String writeTest() {
+        return objectMapper.writeValue(test);
+    }
+
+    @Benchmark
+    public String writeTestReflective() {
+        return reflectiveGson.toJson(test);
+    }
+
+    @Benchmark
+    public TestDTO readTest() {
+        return objectMapper.readValue(testJson, TestDTO.class);
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.zebrunner.agent.core.registrar.label;
+
+import com.zebrunner.agent.core.annotation.JiraReference;
+import com.zebrunner.agent.core.annotation.Priority;
+import com.zebrunner.agent.core.annotation.TestLabel;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of label resolution paid on every test start: with labels cached per test method (as done by
+ * {@link CompositeLabelResolver}) and with every built-in resolver evaluated from scratch.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CompositeLabelResolverBenchmark {
+
+    private final CompositeLabelResolver compositeResolver = new CompositeLabelResolver();
+    private final List<LabelResolver> builtInResolvers = Arrays.asList(
+            new TestLabelResolver(),
+            new PriorityLabelResolver(),
+            new JiraReferenceLabelResolver(),
+            new XRayReferenceLabelResolver(),
+            new QTestReferenceLabelResolver(),
+            new TestRailReferenceLabelResolver()
+    );
+
+    private Method testMethod;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        testMethod = LabeledTest.class.getMethod("loginWithValidCredentials");
+    }
+
+    @Benchmark
+    public List<LabelDTO> resolveCached() {
+        return compositeResolver.resolve(LabeledTest.class, testMethod);
+    }
+
+    @Benchmark
+    public void resolveUncached(Blackhole blackhole) {
+        for (LabelResolver resolver : builtInResolvers) {
+            blackhole.consume(resolver.resolve(LabeledTest.class, testMethod));
+        }
+    }
+
+    @TestLabel(name = "feature", value = "login")
+    public static class LabeledTest {
+
+        @Priority(Priority.P1)
+        @JiraReference("APP-42")
+        @TestLabel(name = "owner", value = {"qa", "auth"})
+        @TestLabel(name = "layer", value = "ui")
+        public void loginWithValidCredentials() {
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.zebrunner.agent.core.webdriver;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.SuperMethodCall;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+/**
+ * Overhead added to every public {@code RemoteWebDriver} method by the agent: the delegating interceptor
+ * (used when the agent is loaded on startup) and the inlined advice (used when the agent is attached at runtime)
+ * are compared with a plain call of a stub driver that does not issue any remote commands.
+ * Reporting is disabled, so registration of commands is a no-op.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PublicMethodInvocationInterceptorBenchmark {
+
+    private static final String INTERCEPTED_METHOD_NAME = "getTitle";
+    // matches class file version of selenium classes instrumented by the agent
+    private static final ClassFileVersion CLASS_FILE_VERSION = ClassFileVersion.JAVA_V8;
+
+    private RemoteWebDriver plainDriver;
+    private RemoteWebDriver interceptedDriver;
+    private RemoteWebDriver advisedDriver;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        plainDriver = new StubDriver();
+        interceptedDriver = new ByteBuddy(CLASS_FILE_VERSION).subclass(StubDriver.class)
+                                           .method(named(INTERCEPTED_METHOD_NAME))
+                                           .intercept(MethodDelegation.to(PublicMethodInvocationInterceptor.class))
+                                           .make()
+                                           .load(StubDriver.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                                           .getLoaded()
+                                           .getConstructor()
+                                           .newInstance();
+        advisedDriver = new ByteBuddy(CLASS_FILE_VERSION).subclass(StubDriver.class)
+                                       .method(named(INTERCEPTED_METHOD_NAME))
+                                       .intercept(Advice.to(PublicMethodInvocationAdvice.class).wrap(SuperMethodCall.INSTANCE))
+                                       .make()
+                                       .load(StubDriver.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                                       .getLoaded()
+                                       .getConstructor()
+                                       .newInstance();
+    }
+
+    @Benchmark
+    public String plain() {
+        return plainDriver.getTitle();
+    }
+
+    @Benchmark
+    public String intercepted() {
+        return interceptedDriver.getTitle();
+    }
+
+    @Benchmark
+    public String advised() {
+        return advisedDriver.getTitle();
+    }
+
+    public static class StubDriver extends RemoteWebDriver {
+
+        public StubDriver() {
+            setSessionId("benchmark-session");
+        }
+
+        @Override
+        public String getTitle() {
+            return "Zebrunner";
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.Status;
+import com.zebrunner.agent.core.registrar.descriptor.TestFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+import com.zebrunner.agent.core.webdriver.DriverSessionsAgent;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that {@link DriverSessionsAgent} attached at runtime reports driver sessions regardless of whether
+ * {@code RemoteWebDriver} was loaded before or after the agent was attached. Each case is run in its own JVM
+ * (since the agent can be attached only once), and drives a {@code RemoteWebDriver} backed by a stub command executor
+ * against {@link StubZebrunnerServer}.
+ */
+public final class AttachHarness {
+
+    private static final List<String> CASES = Arrays.asList("loaded-before-attach", "loaded-after-attach");
+    private static final String REMOTE_WEB_DRIVER_CLASS_NAME = "org.openqa.selenium.remote.RemoteWebDriver";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            boolean passed = true;
+            for (String testCase : CASES) {
+                passed &= runInSeparateJvm(testCase);
+            }
+            System.exit(passed ? 0 : 1);
+        }
+        System.exit(check(args[0]) ? 0 : 1);
+    }
+
+    private static boolean runInSeparateJvm(String testCase) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        // lets byte-buddy parse class files of JDKs released after it
+        String byteBuddyExperimental = "-Dnet.bytebuddy.experimental=true";
+        Process process = new ProcessBuilder(
+                java, byteBuddyExperimental, "-cp", System.getProperty("java.class.path"),
+                AttachHarness.class.getName(), testCase
+        ).inheritIO().start();
+        boolean passed = process.waitFor() == 0;
+        System.out.println((passed ? "PASSED: " : "FAILED: ") + testCase);
+        return passed;
+    }
+
+    private static boolean check(String testCase) throws Exception {
+        StubZebrunnerServer server = new StubZebrunnerServer(4, 0, 0, 0, 0, true);
+        server.start();
+
+        System.setProperty("reporting.enabled", "true");
+        System.setProperty("reporting.projectKey", "ATTACH");
+        System.setProperty("reporting.server.hostname", server.getHostname());
+        System.setProperty("reporting.server.accessToken", "attach-test");
+
+        try {
+            if (CASES.get(0).equals(testCase)) {
+                Class.forName(REMOTE_WEB_DRIVER_CLASS_NAME);
+                DriverSessionsAgent.attach();
+            } else {
+                DriverSessionsAgent.attach();
+                boolean loaded = Arrays.stream(ByteBuddyAgent.getInstrumentation().getAllLoadedClasses())
+                                       .anyMatch(type -> REMOTE_WEB_DRIVER_CLASS_NAME.equals(type.getName()));
+                if (loaded) {
+                    throw new IllegalStateException("RemoteWebDriver is loaded before the agent is attached");
+                }
+            }
+
+            Scenario.run(testCase);
+
+            Map<String, Long> accepted = server.getAcceptedEntities();
+            System.out.println(testCase + ": " + accepted);
+            return accepted.getOrDefault("test session starts", 0L) == 1
+                    && accepted.getOrDefault("test session updates", 0L) >= 1;
+        } catch (Throwable e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Reports a test using a driver. Kept apart from the harness, so that {@code RemoteWebDriver} is not loaded
+     * while the harness class is verified.
+     */
+    private static class Scenario {
+
+        static void run(String testCase) throws NoSuchMethodException {
+            TestRunRegistrar registrar = TestRunRegistrar.getInstance();
+            registrar.registerStart(
+                    new TestRunStartDescriptor("Attach test", "attach-harness", OffsetDateTime.now(), null)
+            );
+
+            Method testMethod = Scenario.class.getDeclaredMethod("run", String.class);
+            registrar.registerTestStart(
+                    testCase, new TestStartDescriptor(testCase, testCase, AttachHarness.class, testMethod)
+            );
+
+            RemoteWebDriver driver = new RemoteWebDriver(new StubCommandExecutor(), new DesiredCapabilities());
+            driver.getTitle();
+            driver.quit();
+
+            registrar.registerTestFinish(testCase, new TestFinishDescriptor(Status.PASSED));
+            registrar.registerFinish(new TestRunFinishDescriptor(OffsetDateTime.now()));
+        }
+
+    }
+
+    /**
+     * Answers the commands issued by {@code RemoteWebDriver} without any browser.
+     */
+    private static class StubCommandExecutor implements CommandExecutor {
+
+        @Override
+        public Response execute(Command command) {
+            Response response = new Response();
+            response.setSessionId("attach-session");
+            response.setStatus(0);
+            response.setState("success");
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                response.setValue(Collections.singletonMap("browserName", "stub"));
+            } else if (DriverCommand.GET_TITLE.equals(command.getName())) {
+                response.setValue("Attach test");
+            }
+            return response;
+        }
+
+    }
+
+}
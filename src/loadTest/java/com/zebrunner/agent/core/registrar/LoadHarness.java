@@ -0,0 +1,240 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.descriptor.Status;
+import com.zebrunner.agent.core.registrar.descriptor.TestFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives simulated test run against {@link StubZebrunnerServer} through the public agent API and reports throughput,
+ * latency added by the agent to every test, heap usage and the data that did not reach the server.
+ * <p>The harness is configured via system properties (all of them are optional):
+ * <ul>
+ *     <li>{@code load.tests} - number of simulated tests, 5000 by default</li>
+ *     <li>{@code load.threads} - number of test threads, 16 by default</li>
+ *     <li>{@code load.logsPerTest}, {@code load.screenshotsPerTest}, {@code load.artifactsPerTest} -
+ *     data reported by every test, 20, 1 and 1 by default</li>
+ *     <li>{@code load.testDurationMillis} - duration of simulated test body, 0 by default</li>
+ *     <li>{@code load.serverThreads} - number of threads handling requests on server side, 32 by default</li>
+ *     <li>{@code load.latencyMillis}, {@code load.latencyJitterMillis} - server latency, 20 and 20 by default</li>
+ *     <li>{@code load.errorRate}, {@code load.throttleRate} - probabilities of 503 and 429 responses
+ *     to per-test requests, 0.01 and 0.01 by default</li>
+ *     <li>{@code load.logsTransport} - format of logs batches ({@code reporting.logs.transport}), json by default</li>
+ *     <li>{@code load.compactLogsAccepted} - whether the stub accepts logs in formats other than json, true by default
+ *     </li>
+ *     <li>{@code load.drainSeconds} - max time to wait for asynchronously sent data, 30 by default</li>
+ * </ul>
+ */
+public final class LoadHarness {
+
+    private static final int TESTS = Integer.getInteger("load.tests", 5000);
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final int LOGS_PER_TEST = Integer.getInteger("load.logsPerTest", 20);
+    private static final int SCREENSHOTS_PER_TEST = Integer.getInteger("load.screenshotsPerTest", 1);
+    private static final int ARTIFACTS_PER_TEST = Integer.getInteger("load.artifactsPerTest", 1);
+    private static final int TEST_DURATION_MILLIS = Integer.getInteger("load.testDurationMillis", 0);
+    private static final int SERVER_THREADS = Integer.getInteger("load.serverThreads", 32);
+    private static final int LATENCY_MILLIS = Integer.getInteger("load.latencyMillis", 20);
+    private static final int LATENCY_JITTER_MILLIS = Integer.getInteger("load.latencyJitterMillis", 20);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("load.errorRate", "0.01"));
+    private static final double THROTTLE_RATE = Double.parseDouble(System.getProperty("load.throttleRate", "0.01"));
+    private static final String LOGS_TRANSPORT = System.getProperty("load.logsTransport", "json");
+    private static final boolean COMPACT_LOGS_ACCEPTED = Boolean.parseBoolean(
+            System.getProperty("load.compactLogsAccepted", "true")
+    );
+    private static final int DRAIN_SECONDS = Integer.getInteger("load.drainSeconds", 30);
+
+    private static final byte[] SCREENSHOT = new byte[64 * 1024];
+    private static final byte[] ARTIFACT = new byte[16 * 1024];
+
+    private final LatencyHistogram testLatency = new LatencyHistogram();
+    private final LongAdder failedCalls = new LongAdder();
+    private final Map<String, LongAdder> sentEntities = new LinkedHashMap<>();
+    private final LongAccumulator peakHeapBytes = new LongAccumulator(Math::max, 0);
+
+    private LoadHarness() {
+        for (String entity : new String[]{"test starts", "test finishes", "logs", "screenshots", "artifacts"}) {
+            sentEntities.put(entity, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        StubZebrunnerServer server = new StubZebrunnerServer(
+                SERVER_THREADS, LATENCY_MILLIS, LATENCY_JITTER_MILLIS, ERROR_RATE, THROTTLE_RATE, COMPACT_LOGS_ACCEPTED
+        );
+        server.start();
+
+        // agent configuration is read once, so it must be set up before the agent classes are initialized
+        System.setProperty("reporting.enabled", "true");
+        System.setProperty("reporting.projectKey", "LOAD");
+        System.setProperty("reporting.server.hostname", server.getHostname());
+        System.setProperty("reporting.server.accessToken", "load-test");
+        System.setProperty("reporting.logs.transport", LOGS_TRANSPORT);
+
+        try {
+            new LoadHarness().run(server);
+        } finally {
+            server.stop();
+        }
+        // flushes of logs and uploads of artifacts are awaited by shutdown hooks
+        System.exit(0);
+    }
+
+    private void run(StubZebrunnerServer server) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        heapSampler.scheduleAtFixedRate(
+                () -> peakHeapBytes.accumulate(memory.getHeapMemoryUsage().getUsed()), 0, 100, TimeUnit.MILLISECONDS
+        );
+
+        TestRunRegistrar registrar = TestRunRegistrar.getInstance();
+        LogsBuffer<String> logsBuffer = LogsBuffer.create(message -> Log.builder()
+                                                                        .message(message)
+                                                                        .level("INFO")
+                                                                        .timestamp(System.currentTimeMillis())
+                                                                        .build());
+        Method testMethod = LoadHarness.class.getDeclaredMethod(
+                "simulateTest", TestRunRegistrar.class, LogsBuffer.class, int.class, Method.class
+        );
+
+        long startedAt = System.nanoTime();
+        registrar.registerStart(new TestRunStartDescriptor("Load test", "load-harness", OffsetDateTime.now(), null));
+
+        ExecutorService testExecutor = Executors.newFixedThreadPool(THREADS);
+        AtomicLong testNumbers = new AtomicLong();
+        for (int i = 0; i < TESTS; i++) {
+            testExecutor.execute(() -> {
+                int testNumber = (int) testNumbers.incrementAndGet();
+                simulateTest(registrar, logsBuffer, testNumber, testMethod);
+            });
+        }
+        testExecutor.shutdown();
+        testExecutor.awaitTermination(1, TimeUnit.HOURS);
+        long testsCompletedAt = System.nanoTime();
+
+        registrar.registerFinish(new TestRunFinishDescriptor(OffsetDateTime.now()));
+        awaitDrain(server);
+        heapSampler.shutdownNow();
+
+        report(server, testsCompletedAt - startedAt);
+    }
+
+    /**
+     * Simulates a test reporting all kinds of data and records time spent by the agent (i.e. excluding test body).
+     * Data is counted as sent before it is passed to the agent, so that data lost because of failures is reported.
+     */
+    private void simulateTest(TestRunRegistrar registrar,
+                              LogsBuffer<String> logsBuffer,
+                              int testNumber,
+                              Method testMethod) {
+        long startedAt = System.nanoTime();
+        long bodyNanos = 0;
+        try {
+            String id = UUID.randomUUID().toString();
+            String name = "Load test #" + testNumber;
+            sentEntities.get("test starts").increment();
+            registrar.registerTestStart(id, new TestStartDescriptor(id, name, LoadHarness.class, testMethod));
+
+            for (int i = 0; i < LOGS_PER_TEST; i++) {
+                sentEntities.get("logs").increment();
+                logsBuffer.put("Test #" + testNumber + " performs step " + i);
+            }
+            for (int i = 0; i < SCREENSHOTS_PER_TEST; i++) {
+                sentEntities.get("screenshots").increment();
+                Screenshot.upload(SCREENSHOT, System.currentTimeMillis());
+            }
+            for (int i = 0; i < ARTIFACTS_PER_TEST; i++) {
+                sentEntities.get("artifacts").increment();
+                Artifact.attachToTest("artifact-" + i + ".txt", ARTIFACT);
+            }
+
+            long bodyStartedAt = System.nanoTime();
+            simulateTestBody();
+            bodyNanos = System.nanoTime() - bodyStartedAt;
+
+            sentEntities.get("test finishes").increment();
+            registrar.registerTestFinish(id, new TestFinishDescriptor(Status.PASSED));
+        } catch (RuntimeException e) {
+            failedCalls.increment();
+        } finally {
+            testLatency.record(System.nanoTime() - startedAt - bodyNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void simulateTestBody() {
+        if (TEST_DURATION_MILLIS > 0) {
+            try {
+                Thread.sleep(TEST_DURATION_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Logs are flushed and artifacts are uploaded asynchronously, so accepted data is awaited until it stops changing.
+     */
+    private static void awaitDrain(StubZebrunnerServer server) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_SECONDS);
+        Map<String, Long> accepted = server.getAcceptedEntities();
+        int stableChecks = 0;
+        while (stableChecks < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            Map<String, Long> nowAccepted = server.getAcceptedEntities();
+            stableChecks = Objects.equals(accepted, nowAccepted) ? stableChecks + 1 : 0;
+            accepted = nowAccepted;
+        }
+    }
+
+    private void report(StubZebrunnerServer server, long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        Map<String, Long> accepted = server.getAcceptedEntities();
+
+        StringBuilder report = new StringBuilder(System.lineSeparator());
+        report.append(String.format("Tests: %d on %d threads in %.1f s, %.1f tests/s%n",
+                      TESTS, THREADS, elapsedSeconds, TESTS / elapsedSeconds))
+              .append(String.format("Server: latency %d+%d ms, error rate %.3f, throttle rate %.3f%n",
+                      LATENCY_MILLIS, LATENCY_JITTER_MILLIS, ERROR_RATE, THROTTLE_RATE))
+              .append(String.format("Logs transport: %s, compact formats accepted by server: %b%n",
+                      LOGS_TRANSPORT, COMPACT_LOGS_ACCEPTED))
+              .append(String.format("Added test latency, ms: p50 %.1f, p95 %.1f, p99 %.1f, max %.1f%n",
+                      toMillis(testLatency.getValueAtPercentile(50)),
+                      toMillis(testLatency.getValueAtPercentile(95)),
+                      toMillis(testLatency.getValueAtPercentile(99)),
+                      toMillis(testLatency.getMaxMicros())))
+              .append(String.format("Failed agent calls: %d%n", failedCalls.sum()))
+              .append(String.format("Peak heap: %.1f MiB%n", peakHeapBytes.get() / (1024.0 * 1024.0)))
+              .append(String.format("%-16s %10s %10s %10s%n", "data", "sent", "accepted", "dropped"));
+        sentEntities.forEach((entity, sent) -> {
+            long acceptedCount = accepted.getOrDefault(entity, 0L);
+            report.append(String.format("%-16s %10d %10d %10d%n",
+                    entity, sent.sum(), acceptedCount, sent.sum() - acceptedCount));
+        });
+        report.append("Responses by status: ").append(server.getResponseStatuses());
+
+        System.out.println(report);
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.TestRunDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunStartDescriptor;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stress test (in the spirit of jcstress) of publication of run-level state by {@link RunContext}. A writer thread
+ * goes through many runs, each of them being registered, getting outcome of rerun planning and being finished,
+ * exactly as {@link ReportingRegistrar} does. Meanwhile reader threads take snapshots of the state and classify
+ * every observed combination of values as either acceptable or forbidden. Any forbidden observation
+ * (e.g. a run with outcome of rerun planning of another run, a finished run without the outcome or a partially
+ * constructed run) fails the harness.
+ * <p>The harness is configured via system properties (all of them are optional):
+ * <ul>
+ *     <li>{@code stress.iterations} - number of runs published by the writer, 1000000 by default</li>
+ *     <li>{@code stress.readers} - number of reader threads, number of available processors minus one by default</li>
+ * </ul>
+ */
+public final class RunStateStressHarness {
+
+    private static final int ITERATIONS = Integer.getInteger("stress.iterations", 1_000_000);
+    private static final int READERS = Integer.getInteger(
+            "stress.readers", Math.max(1, Runtime.getRuntime().availableProcessors() - 1)
+    );
+
+    private static final String NO_RUN = "no run";
+    private static final String RUN_WITHOUT_RERUN_OUTCOME = "run, outcome of previous run";
+    private static final String RUN_WITH_RERUN_OUTCOME = "run, its outcome";
+    private static final String FINISHED_RUN = "finished run, its outcome";
+
+    private final AtomicBoolean writing = new AtomicBoolean(true);
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("reporting.enabled", "false");
+
+        Map<String, Long> observations = new RunStateStressHarness().run();
+        long forbidden = report(observations);
+        System.exit(forbidden == 0 ? 0 : 1);
+    }
+
+    private Map<String, Long> run() throws InterruptedException {
+        List<Map<String, Long>> readerObservations = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            Map<String, Long> observations = new TreeMap<>();
+            readerObservations.add(observations);
+            Thread reader = new Thread(() -> read(observations), "run-state-reader-" + i);
+            readers.add(reader);
+            reader.start();
+        }
+
+        for (long i = 1; i <= ITERATIONS; i++) {
+            String name = "run-" + i;
+            RunContext.setRun(TestRunDescriptor.create(i, new TestRunStartDescriptor(name, "stress", at(i), null)));
+            RunContext.setRerunOutcome(
+                    new RerunResolver.Outcome(String.valueOf(i), null, Collections.emptyList(), null)
+            );
+            RunContext.completeRun(new TestRunFinishDescriptor(at(i)));
+        }
+        writing.set(false);
+
+        Map<String, Long> observations = new TreeMap<>();
+        for (int i = 0; i < READERS; i++) {
+            readers.get(i).join();
+            readerObservations.get(i)
+                              .forEach((observation, count) -> observations.merge(observation, count, Long::sum));
+        }
+        return observations;
+    }
+
+    private void read(Map<String, Long> observations) {
+        while (writing.get()) {
+            observations.merge(classify(RunContext.getState()), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Classifies values read from a single snapshot of the state.
+     */
+    private static String classify(RunState state) {
+        TestRunDescriptor run = state.getRun();
+        if (run == null) {
+            return state.getRerunOutcome() == null ? NO_RUN : "FORBIDDEN: outcome without run";
+        }
+
+        Long runIndex = run.getZebrunnerId();
+        TestRunStartDescriptor start = run.getStartDescriptor();
+        if (runIndex == null || start == null || !("run-" + runIndex).equals(start.getName())
+                || !at(runIndex).equals(start.getStartedAt())) {
+            return "FORBIDDEN: partially constructed run";
+        }
+
+        TestRunFinishDescriptor finish = run.getFinishDescriptor();
+        if (finish != null && !at(runIndex).equals(finish.getEndedAt())) {
+            return "FORBIDDEN: finish of another run";
+        }
+
+        RerunResolver.Outcome outcome = state.getRerunOutcome();
+        long outcomeIndex = outcome != null ? Long.parseLong(outcome.getRunId()) : 0;
+        if (outcomeIndex == runIndex) {
+            return finish != null ? FINISHED_RUN : RUN_WITH_RERUN_OUTCOME;
+        }
+        if (outcomeIndex == runIndex - 1 && finish == null) {
+            return RUN_WITHOUT_RERUN_OUTCOME;
+        }
+        return "FORBIDDEN: run " + (finish != null ? "finished" : "unfinished") + ", outcome of "
+                + (outcomeIndex < runIndex ? "previous" : "next") + " run";
+    }
+
+    private static OffsetDateTime at(long index) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(index), ZoneOffset.UTC);
+    }
+
+    private static long report(Map<String, Long> observations) {
+        StringBuilder report = new StringBuilder(System.lineSeparator());
+        report.append(String.format("Runs published: %d, readers: %d%n", ITERATIONS, READERS))
+              .append(String.format("%-50s %14s %12s%n", "observed state", "occurrences", "expectation"));
+        long forbidden = 0;
+        for (Map.Entry<String, Long> observation : observations.entrySet()) {
+            boolean acceptable = !observation.getKey().startsWith("FORBIDDEN");
+            if (!acceptable) {
+                forbidden += observation.getValue();
+            }
+            report.append(String.format("%-50s %14d %12s%n",
+                    observation.getKey(), observation.getValue(), acceptable ? "ACCEPTABLE" : "FORBIDDEN"));
+        }
+        report.append(forbidden == 0 ? "PASSED" : "FAILED: " + forbidden + " forbidden observations");
+
+        System.out.println(report);
+        return forbidden;
+    }
+
+}
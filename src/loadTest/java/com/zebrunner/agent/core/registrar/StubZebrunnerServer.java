@@ -0,0 +1,263 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stub of the Zebrunner endpoints called by {@link ZebrunnerApiClient}. Every request to a per-test endpoint
+ * is delayed by configured latency, and is then either throttled (429), failed (503) or accepted with configured
+ * probabilities. Authentication and test run start/finish are never failed, since otherwise the run is not reported
+ * at all. Accepted entities (tests, logs, screenshots, etc.) are counted, so that they can be compared with
+ * the entities sent by the agent.
+ * <p>Logs are accepted in every {@link LogsBatchFormat}, unless the stub is configured to accept only json arrays
+ * (as Zebrunner not supporting compact formats does).
+ */
+final class StubZebrunnerServer {
+
+    private static final String IAM_PREFIX = "/api/iam/v1/";
+    private static final String REPORTING_PREFIX = "/api/reporting/v1/";
+
+    private static final Pattern TEST_RUNS = Pattern.compile("test-runs");
+    private static final Pattern TEST_RUN = Pattern.compile("test-runs/[^/]+");
+    private static final Pattern TESTS = Pattern.compile("test-runs/[^/]+/tests");
+    private static final Pattern TEST = Pattern.compile("test-runs/[^/]+/tests/[^/]+");
+    private static final Pattern LOGS = Pattern.compile("test-runs/[^/]+/logs");
+    private static final Pattern SCREENSHOTS = Pattern.compile("test-runs/[^/]+/tests/[^/]+/screenshots");
+    private static final Pattern ARTIFACTS = Pattern.compile("test-runs/[^/]+(/tests/[^/]+)?/artifacts");
+    private static final Pattern ARTIFACT_REFERENCES = Pattern.compile(
+            "test-runs/[^/]+(/tests/[^/]+)?/artifact-references"
+    );
+    private static final Pattern LABELS = Pattern.compile("test-runs/[^/]+(/tests/[^/]+)?/labels");
+    private static final Pattern TEST_SESSIONS = Pattern.compile("test-runs/[^/]+/test-sessions(/[^/]+)?");
+
+    private final int latencyMillis;
+    private final int latencyJitterMillis;
+    private final double errorRate;
+    private final double throttleRate;
+    private final boolean compactLogsAccepted;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<String, LongAdder> acceptedEntities = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> responseStatuses = new ConcurrentHashMap<>();
+
+    StubZebrunnerServer(int threads,
+                        int latencyMillis,
+                        int latencyJitterMillis,
+                        double errorRate,
+                        double throttleRate,
+                        boolean compactLogsAccepted) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.compactLogsAccepted = compactLogsAccepted;
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    String getHostname() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return number of accepted entities per entity type
+     */
+    Map<String, Long> getAcceptedEntities() {
+        Map<String, Long> accepted = new TreeMap<>();
+        acceptedEntities.forEach((entity, count) -> accepted.put(entity, count.sum()));
+        return accepted;
+    }
+
+    /**
+     * @return number of responses per http status
+     */
+    Map<Integer, Long> getResponseStatuses() {
+        Map<Integer, Long> statuses = new TreeMap<>();
+        responseStatuses.forEach((status, count) -> statuses.put(status, count.sum()));
+        return statuses;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = readBody(exchange.getRequestBody());
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.startsWith(IAM_PREFIX)) {
+                respond(exchange, 200, "{\"authTokenType\":\"Bearer\",\"authToken\":\"load-test\"}");
+            } else if (path.startsWith(REPORTING_PREFIX)) {
+                handleReporting(exchange, method, path.substring(REPORTING_PREFIX.length()), body);
+            } else {
+                respond(exchange, 404, "");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleReporting(HttpExchange exchange, String method, String endpoint, byte[] body)
+            throws IOException {
+        if (TEST_RUNS.matcher(endpoint).matches()) {
+            respondWithId(exchange, "test run starts", body);
+        } else if (TEST_RUN.matcher(endpoint).matches() && "PUT".equals(method)) {
+            accept(exchange, "test run finishes", 1, "");
+        } else if (simulateFailure(exchange)) {
+            return;
+        } else if (TESTS.matcher(endpoint).matches() && "GET".equals(method)) {
+            accept(exchange, "rerun plans", 1, "[]");
+        } else if (TESTS.matcher(endpoint).matches()) {
+            respondWithId(exchange, "test starts", body);
+        } else if (TEST.matcher(endpoint).matches() && "PUT".equals(method)) {
+            accept(exchange, "test finishes", 1, new String(body, StandardCharsets.UTF_8));
+        } else if (TEST.matcher(endpoint).matches()) {
+            accept(exchange, "test reverts", 1, "");
+        } else if (LOGS.matcher(endpoint).matches()) {
+            acceptLogs(exchange, new String(body, StandardCharsets.UTF_8));
+        } else if (SCREENSHOTS.matcher(endpoint).matches()) {
+            accept(exchange, "screenshots", 1, "");
+        } else if (ARTIFACTS.matcher(endpoint).matches()) {
+            accept(exchange, "artifacts", 1, "");
+        } else if (ARTIFACT_REFERENCES.matcher(endpoint).matches()) {
+            accept(exchange, "artifact references", 1, "");
+        } else if (LABELS.matcher(endpoint).matches()) {
+            accept(exchange, "labels", 1, "");
+        } else if (TEST_SESSIONS.matcher(endpoint).matches() && "PUT".equals(method)) {
+            respondWithId(exchange, "test session updates", body);
+        } else if (TEST_SESSIONS.matcher(endpoint).matches()) {
+            respondWithId(exchange, "test session starts", body);
+        } else {
+            respond(exchange, 404, "");
+        }
+    }
+
+    /**
+     * @return {@code true} if the request was failed or throttled
+     */
+    private boolean simulateFailure(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int delayMillis = latencyMillis + (latencyJitterMillis > 0 ? random.nextInt(latencyJitterMillis + 1) : 0);
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        double outcome = random.nextDouble();
+        if (outcome < throttleRate) {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            respond(exchange, 429, "{\"message\":\"Too many requests\"}");
+            return true;
+        }
+        if (outcome < throttleRate + errorRate) {
+            respond(exchange, 503, "{\"message\":\"Service unavailable\"}");
+            return true;
+        }
+        return false;
+    }
+
+    private void acceptLogs(HttpExchange exchange, String body) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        LogsBatchFormat format = Arrays.stream(LogsBatchFormat.values())
+                                       .filter(value -> contentType != null
+                                               && contentType.startsWith(value.getContentType()))
+                                       .findFirst()
+                                       .orElse(null);
+        if (format == null || format != LogsBatchFormat.JSON && !compactLogsAccepted) {
+            respond(exchange, 415, "{\"message\":\"Unsupported media type\"}");
+            return;
+        }
+
+        int logs = 0;
+        switch (format) {
+            case JSON:
+                logs = JsonParser.parseString(body).getAsJsonArray().size();
+                break;
+            case NDJSON:
+                for (String line : body.split("\n")) {
+                    if (!line.isEmpty()) {
+                        JsonParser.parseString(line).getAsJsonObject();
+                        logs++;
+                    }
+                }
+                break;
+            case COLUMNAR:
+                for (JsonElement test : JsonParser.parseString(body).getAsJsonObject().getAsJsonArray("tests")) {
+                    logs += test.getAsJsonObject().getAsJsonArray("messages").size();
+                }
+                break;
+        }
+        accept(exchange, "logs", logs, "");
+    }
+
+    private void respondWithId(HttpExchange exchange, String entity, byte[] body) throws IOException {
+        JsonElement request = JsonParser.parseString(new String(body, StandardCharsets.UTF_8));
+        JsonObject response = request.isJsonObject() ? request.getAsJsonObject() : new JsonObject();
+        response.addProperty("id", ids.incrementAndGet());
+        accept(exchange, entity, 1, response.toString());
+    }
+
+    private void accept(HttpExchange exchange, String entity, int count, String response) throws IOException {
+        acceptedEntities.computeIfAbsent(entity, key -> new LongAdder()).add(count);
+        respond(exchange, 200, response);
+    }
+
+    private void respond(HttpExchange exchange, int status, String response) throws IOException {
+        responseStatuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        if (bytes.length > 0) {
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        }
+    }
+
+    private static byte[] readBody(InputStream requestBody) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = requestBody.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+}
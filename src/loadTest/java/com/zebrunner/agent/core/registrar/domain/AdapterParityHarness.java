@@ -0,0 +1,178 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSerializer;
+import com.zebrunner.agent.core.logging.Log;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks that the payloads written by the adapters of {@link DomainTypeAdapterFactory} are exactly the same as the ones
+ * written by reflective Gson. Every field of the payloads is populated by reflection (including the fields added after
+ * the adapters were written), so a field missed, renamed or reordered by an adapter fails the harness. Payloads
+ * without any field set are compared as well, since both ways of serialization must omit {@code null} fields.
+ */
+public final class AdapterParityHarness {
+
+    private static final List<Class<?>> PAYLOAD_TYPES = Arrays.asList(
+            Log.class, LabelDTO.class, ArtifactReferenceDTO.class, TestDTO.class, TestRunDTO.class, TestSessionDTO.class
+    );
+
+    // special characters check that both ways of serialization escape strings the same way
+    private static final String SPECIAL_CHARACTERS = " \"quoted\" <tag> & \\ \u00e9 \u2028\n";
+
+    private final ObjectMapperImpl objectMapper = new ObjectMapperImpl();
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(
+                    Instant.class,
+                    (JsonSerializer<Instant>) (src, type, context) -> context.serialize(src.toString())
+            )
+            .registerTypeAdapter(
+                    OffsetDateTime.class,
+                    (JsonSerializer<OffsetDateTime>) (src, type, context) -> context.serialize(src.toString())
+            )
+            .create();
+
+    private long nextNumber = 1;
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        AdapterParityHarness harness = new AdapterParityHarness();
+
+        int mismatches = 0;
+        for (Class<?> payloadType : PAYLOAD_TYPES) {
+            String name = payloadType.getSimpleName();
+            mismatches += harness.compare(name + " (populated)", harness.populated(payloadType, name)) ? 0 : 1;
+            mismatches += harness.compare(name + " (empty)", harness.empty(payloadType)) ? 0 : 1;
+        }
+
+        System.out.println(mismatches == 0
+                           ? "All payloads match reflective serialization"
+                           : mismatches + " payload(s) do not match reflective serialization");
+        System.exit(mismatches == 0 ? 0 : 1);
+    }
+
+    private boolean compare(String name, Object payload) {
+        String actual = objectMapper.writeValue(payload);
+        String expected = reflectiveGson.toJson(payload);
+        if (expected.equals(actual)) {
+            System.out.println("OK       " + name);
+            return true;
+        }
+        System.out.println("MISMATCH " + name);
+        System.out.println("  reflective: " + expected);
+        System.out.println("  adapter:    " + actual);
+        return false;
+    }
+
+    private Object empty(Class<?> type) throws ReflectiveOperationException {
+        Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+                                           .min(Comparator.comparingInt(Constructor::getParameterCount))
+                                           .orElseThrow(() -> new IllegalStateException("No constructor of " + type));
+        constructor.setAccessible(true);
+
+        Object[] arguments = new Object[constructor.getParameterCount()];
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = defaultValue(parameterTypes[i]);
+        }
+        Object instance = constructor.newInstance(arguments);
+
+        // fields initialized by default (e.g. collections) must be omitted as well when they are not set
+        for (Field field : instanceFields(type)) {
+            if (!field.getType().isPrimitive()) {
+                field.set(instance, null);
+            }
+        }
+        return instance;
+    }
+
+    private Object populated(Class<?> type, String path) throws ReflectiveOperationException {
+        Object instance = empty(type);
+        for (Field field : instanceFields(type)) {
+            field.set(instance, valueOf(field.getType(), field.getGenericType(), path + "." + field.getName()));
+        }
+        return instance;
+    }
+
+    private Object valueOf(Class<?> type, Type genericType, String path) throws ReflectiveOperationException {
+        if (type == String.class) {
+            return path + SPECIAL_CHARACTERS;
+        }
+        if (type == Long.class || type == long.class) {
+            return nextNumber++;
+        }
+        if (type == OffsetDateTime.class) {
+            return OffsetDateTime.now().plusSeconds(nextNumber++);
+        }
+        if (type == Instant.class) {
+            return Instant.now().plusSeconds(nextNumber++);
+        }
+        if (type == Object.class) {
+            // arbitrary values, such as capabilities of sessions
+            Map<String, Object> nested = new LinkedHashMap<>();
+            nested.put("string", path + SPECIAL_CHARACTERS);
+            nested.put("number", 1.5);
+            nested.put("integer", 2);
+            nested.put("flag", true);
+            nested.put("absent", null);
+            nested.put("list", Arrays.asList("a", 1, false));
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("name", path);
+            value.put("nested", nested);
+            return value;
+        }
+        if (List.class.isAssignableFrom(type) || Set.class.isAssignableFrom(type)) {
+            Type elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            Collection<Object> values = List.class.isAssignableFrom(type) ? new ArrayList<>() : new LinkedHashSet<>();
+            for (int i = 0; i < 2; i++) {
+                values.add(valueOf((Class<?>) elementType, elementType, path + "[" + i + "]"));
+            }
+            return values;
+        }
+        if (type.getName().startsWith("com.zebrunner.")) {
+            return populated(type, path);
+        }
+        throw new IllegalStateException("Field '" + path + "' of type " + genericType + " can not be populated");
+    }
+
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.zebrunner.agent.core.annotation.index;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Provides Zebrunner annotations of test classes and methods. Indexes generated by {@link AnnotationIndexProcessor}
+ * are loaded once per class loader, so that annotations of indexed classes are looked up without reflection.
+ * Classes missing in the index (e.g. compiled without the processor) are inspected reflectively.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class AnnotationIndex {
+
+    private static final Map<ClassLoader, Map<String, IndexedClass>> CLASS_LOADER_TO_INDEX =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns annotations declared directly on given class. Inherited annotations are not included.
+     */
+    public static ElementAnnotations getAnnotations(Class<?> clazz) {
+        IndexedClass indexedClass = findIndexedClass(clazz);
+        return indexedClass != null
+                ? indexedClass.getAnnotations()
+                : ElementAnnotations.reflective(clazz);
+    }
+
+    public static ElementAnnotations getAnnotations(Method method) {
+        if (!method.isSynthetic()) {
+            IndexedClass indexedClass = findIndexedClass(method.getDeclaringClass());
+            if (indexedClass != null) {
+                ElementAnnotations annotations = indexedClass.getMethodAnnotations(method.getName(), method.getParameterCount());
+                if (annotations != null) {
+                    return annotations;
+                }
+            }
+        }
+        return ElementAnnotations.reflective(method);
+    }
+
+    private static IndexedClass findIndexedClass(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        return CLASS_LOADER_TO_INDEX.computeIfAbsent(classLoader, AnnotationIndex::load)
+                                    .get(clazz.getName());
+    }
+
+    private static Map<String, IndexedClass> load(ClassLoader classLoader) {
+        Map<String, IndexedClass> index = new HashMap<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(AnnotationIndexFormat.RESOURCE_NAME);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(resource.openStream()))) {
+                    // the first resource on classpath wins, just like the first class does
+                    AnnotationIndexFormat.read(in).forEach(index::putIfAbsent);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not read annotation index '{}'. Annotations will be resolved reflectively", resource, e);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not look up annotation indexes. Annotations will be resolved reflectively", e);
+        }
+        log.debug("Loaded annotation index of {} classes", index.size());
+        return index;
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.zebrunner.agent.core.annotation.index;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary format of the annotation index resource:
+ * <pre>
+ * index       := MAGIC VERSION classCount class*
+ * class       := name annotations methodCount (methodKey ambiguous annotations?)*
+ * annotations := typeCount (type entryCount (hasName name? valueCount value*)*)*
+ * </pre>
+ * Counts are ints, strings are written in modified UTF-8.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class AnnotationIndexFormat {
+
+    static final String RESOURCE_NAME = "META-INF/zebrunner/annotation-index";
+
+    private static final int MAGIC = 0x5A424149;
+    private static final int VERSION = 1;
+
+    /**
+     * Writes given classes to the stream. Classes having string values which are too long to be encoded are skipped.
+     *
+     * @return names of skipped classes
+     */
+    static List<String> write(OutputStream outputStream, Collection<IndexedClass> classes) throws IOException {
+        List<String> skippedClasses = new ArrayList<>();
+        ByteArrayOutputStream classesBytes = new ByteArrayOutputStream();
+        int classCount = 0;
+        for (IndexedClass indexedClass : classes) {
+            ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+            try {
+                writeClass(new DataOutputStream(classBytes), indexedClass);
+                classBytes.writeTo(classesBytes);
+                classCount++;
+            } catch (UTFDataFormatException e) {
+                skippedClasses.add(indexedClass.getName());
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(classCount);
+        classesBytes.writeTo(out);
+        out.flush();
+        return skippedClasses;
+    }
+
+    private static void writeClass(DataOutput out, IndexedClass indexedClass) throws IOException {
+        out.writeUTF(indexedClass.getName());
+        writeAnnotations(out, indexedClass.getAnnotations());
+
+        out.writeInt(indexedClass.getMethodKeyToAnnotations().size());
+        for (Map.Entry<String, ElementAnnotations> methodKeyToAnnotations : indexedClass.getMethodKeyToAnnotations().entrySet()) {
+            out.writeUTF(methodKeyToAnnotations.getKey());
+            boolean ambiguous = methodKeyToAnnotations.getValue() == IndexedClass.AMBIGUOUS;
+            out.writeBoolean(ambiguous);
+            if (!ambiguous) {
+                writeAnnotations(out, methodKeyToAnnotations.getValue());
+            }
+        }
+    }
+
+    private static void writeAnnotations(DataOutput out, ElementAnnotations annotations) throws IOException {
+        Map<IndexedAnnotationType, List<ElementAnnotations.Entry>> typeToEntries = annotations.getTypeToEntries();
+        out.writeInt(typeToEntries.size());
+        for (Map.Entry<IndexedAnnotationType, List<ElementAnnotations.Entry>> typeToEntry : typeToEntries.entrySet()) {
+            out.writeUTF(typeToEntry.getKey().name());
+            out.writeInt(typeToEntry.getValue().size());
+            for (ElementAnnotations.Entry entry : typeToEntry.getValue()) {
+                out.writeBoolean(entry.getName() != null);
+                if (entry.getName() != null) {
+                    out.writeUTF(entry.getName());
+                }
+                out.writeInt(entry.getValues().size());
+                for (String value : entry.getValues()) {
+                    out.writeUTF(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads all classes from the stream.
+     *
+     * @return indexed classes by their binary names
+     * @throws IOException if the stream can not be read or contains unsupported version of the index
+     */
+    static Map<String, IndexedClass> read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an annotation index");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported annotation index version " + version);
+        }
+
+        int classCount = in.readInt();
+        Map<String, IndexedClass> nameToClass = new HashMap<>(classCount * 4 / 3 + 1);
+        for (int i = 0; i < classCount; i++) {
+            IndexedClass indexedClass = readClass(in);
+            nameToClass.put(indexedClass.getName(), indexedClass);
+        }
+        return nameToClass;
+    }
+
+    private static IndexedClass readClass(DataInput in) throws IOException {
+        String name = in.readUTF();
+        ElementAnnotations annotations = readAnnotations(in);
+
+        int methodCount = in.readInt();
+        Map<String, ElementAnnotations> methodKeyToAnnotations = new HashMap<>(methodCount * 4 / 3 + 1);
+        for (int i = 0; i < methodCount; i++) {
+            String methodKey = in.readUTF();
+            boolean ambiguous = in.readBoolean();
+            methodKeyToAnnotations.put(methodKey, ambiguous ? IndexedClass.AMBIGUOUS : readAnnotations(in));
+        }
+        return new IndexedClass(name, annotations, methodKeyToAnnotations);
+    }
+
+    private static ElementAnnotations readAnnotations(DataInput in) throws IOException {
+        int typeCount = in.readInt();
+        if (typeCount == 0) {
+            return ElementAnnotations.EMPTY;
+        }
+
+        Map<IndexedAnnotationType, List<ElementAnnotations.Entry>> typeToEntries = new EnumMap<>(IndexedAnnotationType.class);
+        for (int i = 0; i < typeCount; i++) {
+            IndexedAnnotationType type = IndexedAnnotationType.valueOf(in.readUTF());
+            int entryCount = in.readInt();
+            List<ElementAnnotations.Entry> entries = new ArrayList<>(entryCount);
+            for (int j = 0; j < entryCount; j++) {
+                String name = in.readBoolean() ? in.readUTF() : null;
+                int valueCount = in.readInt();
+                List<String> values = new ArrayList<>(valueCount);
+                for (int k = 0; k < valueCount; k++) {
+                    values.add(in.readUTF());
+                }
+                entries.add(new ElementAnnotations.Entry(name, values));
+            }
+            typeToEntries.put(type, entries);
+        }
+        return ElementAnnotations.indexed(typeToEntries);
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.zebrunner.agent.core.annotation.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates index of Zebrunner annotations (see {@link IndexedAnnotationType}) declared on compiled classes
+ * and their methods. Every compiled class gets into the index, even if it has no annotations, so that
+ * {@link AnnotationIndex} can tell an indexed class without annotations from a class compiled without the processor.
+ * <p>The processor does not claim any annotations and never fails compilation - problems are reported as warnings.
+ * It is not registered as incremental, so that build tools recompile all sources and the index is never partial.
+ */
+@SupportedAnnotationTypes("*")
+public class AnnotationIndexProcessor extends AbstractProcessor {
+
+    private final Map<String, IndexedClass> nameToClass = new LinkedHashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        try {
+            if (roundEnv.processingOver()) {
+                writeIndex();
+            } else {
+                ElementFilter.typesIn(roundEnv.getRootElements()).forEach(this::indexClass);
+            }
+        } catch (IOException | RuntimeException e) {
+            warn("Could not generate Zebrunner annotation index: " + e);
+        }
+        return false;
+    }
+
+    private void indexClass(TypeElement type) {
+        String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (nameToClass.containsKey(name)) {
+            return;
+        }
+
+        Map<String, List<ExecutableElement>> methodKeyToMethods = new LinkedHashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            String methodKey = IndexedClass.methodKey(method.getSimpleName().toString(), method.getParameters().size());
+            methodKeyToMethods.computeIfAbsent(methodKey, key -> new ArrayList<>()).add(method);
+        }
+
+        Map<String, ElementAnnotations> methodKeyToAnnotations = new LinkedHashMap<>();
+        methodKeyToMethods.forEach((methodKey, methods) -> {
+            if (methods.size() == 1) {
+                ElementAnnotations methodAnnotations = readAnnotations(methods.get(0));
+                if (methodAnnotations != ElementAnnotations.EMPTY) {
+                    methodKeyToAnnotations.put(methodKey, methodAnnotations);
+                }
+            } else if (methods.stream().anyMatch(method -> readAnnotations(method) != ElementAnnotations.EMPTY)) {
+                methodKeyToAnnotations.put(methodKey, IndexedClass.AMBIGUOUS);
+            }
+        });
+
+        nameToClass.put(name, new IndexedClass(name, readAnnotations(type), methodKeyToAnnotations));
+
+        ElementFilter.typesIn(type.getEnclosedElements()).forEach(this::indexClass);
+    }
+
+    private ElementAnnotations readAnnotations(Element element) {
+        Map<IndexedAnnotationType, List<ElementAnnotations.Entry>> typeToEntries = new EnumMap<>(IndexedAnnotationType.class);
+        for (IndexedAnnotationType type : IndexedAnnotationType.values()) {
+            List<ElementAnnotations.Entry> entries = readAnnotation(element, type);
+            if (entries != null) {
+                typeToEntries.put(type, entries);
+            }
+        }
+        return typeToEntries.isEmpty() ? ElementAnnotations.EMPTY : ElementAnnotations.indexed(typeToEntries);
+    }
+
+    /**
+     * Mirrors {@link IndexedAnnotationType#read(java.lang.reflect.AnnotatedElement)}.
+     */
+    private List<ElementAnnotations.Entry> readAnnotation(Element element, IndexedAnnotationType type) {
+        if (type.getContainerClass() != null) {
+            AnnotationMirror container = findAnnotation(element, type.getContainerClass());
+            if (container != null) {
+                List<ElementAnnotations.Entry> entries = new ArrayList<>();
+                for (Object annotation : (List<?>) getAttribute(container, IndexedAnnotationType.VALUE_ATTRIBUTE)) {
+                    entries.add(toEntry((AnnotationMirror) ((AnnotationValue) annotation).getValue(), type));
+                }
+                return entries;
+            }
+        }
+
+        AnnotationMirror annotation = findAnnotation(element, type.getAnnotationClass());
+        return annotation != null ? Collections.singletonList(toEntry(annotation, type)) : null;
+    }
+
+    private ElementAnnotations.Entry toEntry(AnnotationMirror annotation, IndexedAnnotationType type) {
+        String name = type.isNamed() ? (String) getAttribute(annotation, IndexedAnnotationType.NAME_ATTRIBUTE) : null;
+
+        Object value = getAttribute(annotation, IndexedAnnotationType.VALUE_ATTRIBUTE);
+        List<String> values = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                values.add((String) ((AnnotationValue) element).getValue());
+            }
+        } else {
+            values.add((String) value);
+        }
+
+        return new ElementAnnotations.Entry(name, values);
+    }
+
+    private AnnotationMirror findAnnotation(Element element, Class<?> annotationClass) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationClass.getCanonicalName())) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private Object getAttribute(AnnotationMirror annotation, String attribute) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> attributes =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> nameToValue : attributes.entrySet()) {
+            if (nameToValue.getKey().getSimpleName().contentEquals(attribute)) {
+                return nameToValue.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private void writeIndex() throws IOException {
+        if (nameToClass.isEmpty()) {
+            return;
+        }
+
+        FileObject resource = processingEnv.getFiler()
+                                           .createResource(StandardLocation.CLASS_OUTPUT, "", AnnotationIndexFormat.RESOURCE_NAME);
+        try (OutputStream outputStream = resource.openOutputStream()) {
+            List<String> skippedClasses = AnnotationIndexFormat.write(outputStream, nameToClass.values());
+            if (!skippedClasses.isEmpty()) {
+                warn("Annotation values of the following classes are too long to be indexed: " + skippedClasses);
+            }
+        }
+    }
+
+    private void warn(String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.zebrunner.agent.core.annotation.index;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zebrunner annotations declared directly on a class or a method. Annotations are either taken from the index
+ * generated by {@link AnnotationIndexProcessor} or (for elements missing in the index) looked up reflectively
+ * on demand.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ElementAnnotations {
+
+    static final ElementAnnotations EMPTY = indexed(Collections.emptyMap());
+
+    private final Map<IndexedAnnotationType, List<Entry>> typeToEntries;
+    private final AnnotatedElement element;
+
+    static ElementAnnotations indexed(Map<IndexedAnnotationType, List<Entry>> typeToEntries) {
+        return new ElementAnnotations(typeToEntries, null);
+    }
+
+    static ElementAnnotations reflective(AnnotatedElement element) {
+        return new ElementAnnotations(null, element);
+    }
+
+    /**
+     * Returns entries of given annotation. Repeatable annotations are flattened in declaration order.
+     *
+     * @param annotationClass one of the Zebrunner annotations
+     * @return annotation entries, {@code null} if the annotation is not present on the element
+     */
+    public List<Entry> get(Class<? extends Annotation> annotationClass) {
+        IndexedAnnotationType type = IndexedAnnotationType.of(annotationClass);
+        return element != null ? type.read(element) : typeToEntries.get(type);
+    }
+
+    /**
+     * Returns value of a single-valued annotation, such as {@link com.zebrunner.agent.core.annotation.Priority}.
+     *
+     * @param annotationClass one of the Zebrunner annotations
+     * @return annotation value, {@code null} if the annotation is not present on the element
+     */
+    public String getValue(Class<? extends Annotation> annotationClass) {
+        List<Entry> entries = get(annotationClass);
+        return entries != null && !entries.isEmpty() && !entries.get(0).getValues().isEmpty()
+                ? entries.get(0).getValues().get(0)
+                : null;
+    }
+
+    Map<IndexedAnnotationType, List<Entry>> getTypeToEntries() {
+        return typeToEntries;
+    }
+
+    @Value
+    public static class Entry {
+
+        /**
+         * Value of the {@code name} attribute, {@code null} if the annotation does not have one.
+         */
+        String name;
+        List<String> values;
+
+    }
+
+}
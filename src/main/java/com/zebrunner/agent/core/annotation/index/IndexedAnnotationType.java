@@ -0,0 +1,100 @@
+package com.zebrunner.agent.core.annotation.index;
+
+import com.zebrunner.agent.core.annotation.JiraReference;
+import com.zebrunner.agent.core.annotation.Maintainer;
+import com.zebrunner.agent.core.annotation.Priority;
+import com.zebrunner.agent.core.annotation.QTestReference;
+import com.zebrunner.agent.core.annotation.TestLabel;
+import com.zebrunner.agent.core.annotation.TestRailReference;
+import com.zebrunner.agent.core.annotation.XRayReference;
+import com.zebrunner.agent.core.exception.TestAgentException;
+import lombok.Getter;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Annotations that are recorded by {@link AnnotationIndexProcessor}. Every annotation is expected to have
+ * a {@code value} attribute of either {@code String} or {@code String[]} type, and an optional {@code name} attribute.
+ */
+@Getter
+enum IndexedAnnotationType {
+
+    TEST_LABEL(TestLabel.class, TestLabel.List.class),
+    PRIORITY(Priority.class, null),
+    JIRA_REFERENCE(JiraReference.class, JiraReference.List.class),
+    X_RAY_REFERENCE(XRayReference.class, XRayReference.List.class),
+    Q_TEST_REFERENCE(QTestReference.class, QTestReference.List.class),
+    TEST_RAIL_REFERENCE(TestRailReference.class, TestRailReference.List.class),
+    MAINTAINER(Maintainer.class, null);
+
+    static final String NAME_ATTRIBUTE = "name";
+    static final String VALUE_ATTRIBUTE = "value";
+
+    private final Class<? extends Annotation> annotationClass;
+    private final Class<? extends Annotation> containerClass;
+    private final boolean named;
+
+    IndexedAnnotationType(Class<? extends Annotation> annotationClass, Class<? extends Annotation> containerClass) {
+        this.annotationClass = annotationClass;
+        this.containerClass = containerClass;
+        this.named = Arrays.stream(annotationClass.getDeclaredMethods())
+                           .anyMatch(attribute -> NAME_ATTRIBUTE.equals(attribute.getName()));
+    }
+
+    static IndexedAnnotationType of(Class<? extends Annotation> annotationClass) {
+        for (IndexedAnnotationType type : values()) {
+            if (type.annotationClass == annotationClass) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Annotation " + annotationClass.getName() + " is not indexed");
+    }
+
+    /**
+     * Reads the annotation declared directly on given element. Just like resolvers used to do,
+     * an explicitly declared container takes precedence over a single annotation.
+     *
+     * @return annotation entries in declaration order, {@code null} if the annotation is not present
+     */
+    List<ElementAnnotations.Entry> read(AnnotatedElement element) {
+        if (containerClass != null) {
+            Annotation container = element.getDeclaredAnnotation(containerClass);
+            if (container != null) {
+                List<ElementAnnotations.Entry> entries = new ArrayList<>();
+                for (Object annotation : (Object[]) invoke(container, VALUE_ATTRIBUTE)) {
+                    entries.add(toEntry((Annotation) annotation));
+                }
+                return entries;
+            }
+        }
+
+        Annotation annotation = element.getDeclaredAnnotation(annotationClass);
+        return annotation != null ? Collections.singletonList(toEntry(annotation)) : null;
+    }
+
+    private ElementAnnotations.Entry toEntry(Annotation annotation) {
+        String name = named ? (String) invoke(annotation, NAME_ATTRIBUTE) : null;
+
+        Object value = invoke(annotation, VALUE_ATTRIBUTE);
+        List<String> values = value instanceof String[]
+                ? Arrays.asList((String[]) value)
+                : Collections.singletonList((String) value);
+
+        return new ElementAnnotations.Entry(name, values);
+    }
+
+    private static Object invoke(Annotation annotation, String attribute) {
+        try {
+            return annotation.annotationType().getMethod(attribute).invoke(annotation);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new TestAgentException("Could not read attribute '" + attribute + "' of " + annotation, e);
+        }
+    }
+
+}
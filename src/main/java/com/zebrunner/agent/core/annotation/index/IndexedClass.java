@@ -0,0 +1,39 @@
+package com.zebrunner.agent.core.annotation.index;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Annotations declared on a class and its methods. Methods are identified by name and number of parameters,
+ * since parameter types can not be matched between compile time and run time representations reliably.
+ */
+@Getter
+@RequiredArgsConstructor
+final class IndexedClass {
+
+    // marks overloaded methods with the same number of parameters, at least one of which is annotated
+    static final ElementAnnotations AMBIGUOUS = ElementAnnotations.indexed(Collections.emptyMap());
+
+    private final String name;
+    private final ElementAnnotations annotations;
+    private final Map<String, ElementAnnotations> methodKeyToAnnotations;
+
+    static String methodKey(String methodName, int parameterCount) {
+        return methodName + '/' + parameterCount;
+    }
+
+    /**
+     * @return annotations of the method, {@code null} if the method can not be unambiguously found in the index
+     */
+    ElementAnnotations getMethodAnnotations(String methodName, int parameterCount) {
+        ElementAnnotations methodAnnotations = methodKeyToAnnotations.get(methodKey(methodName, parameterCount));
+        if (methodAnnotations == null) {
+            return ElementAnnotations.EMPTY;
+        }
+        return methodAnnotations != AMBIGUOUS ? methodAnnotations : null;
+    }
+
+}
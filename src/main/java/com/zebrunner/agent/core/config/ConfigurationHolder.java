@@ -1,63 +1,278 @@
 package com.zebrunner.agent.core.config;
 
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
 public class ConfigurationHolder {
 
-    private static final boolean REPORTING_ENABLED;
-    private static final String PROJECT_KEY;
-    private static final String HOST;
-    private static final String TOKEN;
-    private static final String RUN_DISPLAY_NAME;
-    private static final String RUN_BUILD;
-    private static final String RUN_ENVIRONMENT;
-    private static final String RERUN_RUN_ID;
+    private static final List<Consumer<PerformanceSettings>> PERFORMANCE_SETTINGS_LISTENERS =
+            new CopyOnWriteArrayList<>();
+
+    private static volatile ConfigurationSnapshot snapshot = load(DefaultConfigurationProviderChain.getInstance());
 
     static {
-        ConfigurationProvider configurationProvider = DefaultConfigurationProviderChain.getInstance();
-        ReportingConfiguration configuration = configurationProvider.getConfiguration();
+        if (snapshot.isHotReload()) {
+            ConfigurationWatcher.start();
+        }
+    }
+
+    /**
+     * Assembles the configuration. If it can not be assembled (e.g. mandatory properties are missing), reporting
+     * is disabled instead of failing initialization of the agent.
+     */
+    private static ConfigurationSnapshot load(ConfigurationProviderChain configurationProvider) {
+        try {
+            ReportingConfiguration configuration = configurationProvider.getConfiguration();
+            return ConfigurationSnapshot.of(configuration, configurationProvider.getValueSources());
+        } catch (RuntimeException e) {
+            log.error("Agent configuration is not valid, reporting is disabled: {}", e.getMessage());
+            return ConfigurationSnapshot.disabled(e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads the configuration and applies changed {@link PerformanceSettings}. All the other properties
+     * are read once, on agent start, so their changes are ignored.
+     * <p>If the re-read configuration can not be assembled or has invalid values which the current one does not have
+     * (e.g. a file is read while being edited), current settings are kept until the next valid change.
+     */
+    static synchronized void reloadPerformanceSettings() {
+        ConfigurationProviderChain configurationProvider = new DefaultConfigurationProviderChain();
+        ConfigurationSnapshot reloaded;
+        try {
+            ReportingConfiguration configuration = configurationProvider.getConfiguration();
+            reloaded = ConfigurationSnapshot.of(configuration, configurationProvider.getValueSources());
+        } catch (RuntimeException e) {
+            log.warn("Reloaded agent configuration is not valid, current performance settings are kept: {}",
+                    e.getMessage());
+            return;
+        }
+
+        List<String> newErrors = reloaded.getValidationErrors()
+                                         .stream()
+                                         .filter(error -> !snapshot.getValidationErrors().contains(error))
+                                         .collect(Collectors.toList());
+        if (!newErrors.isEmpty()) {
+            log.warn("Reloaded agent configuration is not valid, current performance settings are kept: {}",
+                    newErrors);
+            return;
+        }
+
+        PerformanceSettings performance = reloaded.getPerformance();
+        if (!performance.equals(snapshot.getPerformance())) {
+            snapshot = snapshot.withPerformance(performance);
+            log.info("Performance settings are reloaded: {}", performance);
+            for (Consumer<PerformanceSettings> listener : PERFORMANCE_SETTINGS_LISTENERS) {
+                try {
+                    listener.accept(performance);
+                } catch (RuntimeException e) {
+                    log.warn("Could not apply reloaded performance settings", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return current configuration. Only its {@link PerformanceSettings} may change over time
+     */
+    public static ConfigurationSnapshot getSnapshot() {
+        return snapshot;
+    }
 
-        REPORTING_ENABLED = configuration.isReportingEnabled();
-        PROJECT_KEY = configuration.getProjectKey();
+    /**
+     * @return messages describing configured values which are not valid and were replaced with defaults
+     */
+    public static List<String> getValidationErrors() {
+        return snapshot.getValidationErrors();
+    }
 
-        HOST = configuration.getServer().getHostname();
-        TOKEN = configuration.getServer().getAccessToken();
+    /**
+     * @return names of the providers supplying values of configuration properties, e.g. {@code server.hostname}.
+     * Properties which are not listed have default values
+     */
+    public static Map<String, String> getValueSources() {
+        return snapshot.getValueSources();
+    }
 
-        RUN_DISPLAY_NAME = configuration.getRun().getDisplayName();
-        RUN_BUILD = configuration.getRun().getBuild();
-        RUN_ENVIRONMENT = configuration.getRun().getEnvironment();
+    /**
+     * @return current performance settings. The settings may change if hot reload is enabled
+     */
+    public static PerformanceSettings getPerformanceSettings() {
+        return snapshot.getPerformance();
+    }
 
-        RERUN_RUN_ID = configuration.getRerun().getRunId();
+    /**
+     * Registers a listener notified when performance settings are changed by hot reload.
+     * The listener is called on the thread watching configuration files.
+     */
+    public static void addPerformanceSettingsListener(Consumer<PerformanceSettings> listener) {
+        PERFORMANCE_SETTINGS_LISTENERS.add(listener);
     }
 
     public static boolean isReportingEnabled() {
-        return REPORTING_ENABLED;
+        return snapshot.isReportingEnabled();
     }
 
     public static String getProjectKey() {
-        return PROJECT_KEY;
+        return snapshot.getProjectKey();
     }
 
     public static String getHost() {
-        return HOST;
+        return snapshot.getHost();
     }
 
     public static String getToken() {
-        return TOKEN;
+        return snapshot.getToken();
     }
 
     public static String getRunDisplayNameOr(String displayName) {
-        return RUN_DISPLAY_NAME != null ? RUN_DISPLAY_NAME : displayName;
+        String runDisplayName = snapshot.getRunDisplayName();
+        return runDisplayName != null ? runDisplayName : displayName;
     }
 
     public static String getRunBuild() {
-        return RUN_BUILD;
+        return snapshot.getRunBuild();
     }
 
     public static String getRunEnvironment() {
-        return RUN_ENVIRONMENT;
+        return snapshot.getRunEnvironment();
+    }
+
+    /**
+     * @return ci run id of the run which test durations are provided to {@code TestDurationListener}s,
+     * {@code null} if durations are taken from rerun plan (if any)
+     */
+    public static String getRunHistoryRunId() {
+        return snapshot.getRunHistoryRunId();
+    }
+
+    /**
+     * @return file through which test JVMs forked by a build tool share a single test run,
+     * {@code null} (default) if every JVM registers its own run
+     */
+    public static Path getRunForkCoordinationFile() {
+        return snapshot.getRunForkCoordinationFile();
     }
 
     public static String getRerunRunId() {
-        return RERUN_RUN_ID;
+        return snapshot.getRerunRunId();
+    }
+
+    /**
+     * @return max time in seconds to wait for rerun plan, including retries
+     */
+    public static int getRerunTimeoutSeconds() {
+        return snapshot.getRerunTimeoutSeconds();
+    }
+
+    /**
+     * @return number of attempts to fetch rerun plan made after the first failed one
+     */
+    public static int getRerunRetries() {
+        return snapshot.getRerunRetries();
+    }
+
+    /**
+     * @return directory where the last fetched rerun plans are stored. A stored plan is used if the plan
+     * can not be fetched from Zebrunner
+     */
+    public static Path getRerunCacheDirectory() {
+        return snapshot.getRerunCacheDirectory();
+    }
+
+    /**
+     * Defines what happens if rerun plan can neither be fetched nor found in cache.
+     *
+     * @return {@code true} if the run must fail (default), {@code false} if all tests must be run
+     */
+    public static boolean isRerunFailureFatal() {
+        return snapshot.isRerunFailureFatal();
+    }
+
+    /**
+     * @return zero-based index of the shard of rerun plan executed by this node
+     */
+    public static int getRerunShardIndex() {
+        return snapshot.getRerunShardIndex();
+    }
+
+    /**
+     * @return number of shards (CI nodes) the rerun plan is split across. {@code 1} (default) means no sharding
+     */
+    public static int getRerunShardCount() {
+        return snapshot.getRerunShardCount();
+    }
+
+    /**
+     * Defines how tests of rerun plan are assigned to shards.
+     *
+     * @return {@code true} if shards are balanced by previous test durations,
+     * {@code false} if tests are assigned by stable hash (default)
+     */
+    public static boolean isRerunShardDurationBalanced() {
+        return snapshot.isRerunShardDurationBalanced();
+    }
+
+    public static Set<String> getSessionExcludedCapabilities() {
+        return snapshot.getSessionExcludedCapabilities();
+    }
+
+    /**
+     * @return max length of string capability values sent to Zebrunner. Non-positive value disables trimming
+     */
+    public static int getSessionCapabilityMaxLength() {
+        return snapshot.getSessionCapabilityMaxLength();
+    }
+
+    /**
+     * Defines how test context is propagated to threads spawned by test threads.
+     *
+     * @return {@code true} if test context is inherited by all child threads (default),
+     * {@code false} if it is propagated only explicitly (via {@code TestContextSnapshot})
+     */
+    public static boolean isContextInheritable() {
+        return snapshot.isContextInheritable();
+    }
+
+    /**
+     * @return number of completed tests retained in run context. Negative value means that completed tests
+     * are never evicted
+     */
+    public static int getContextCompletedTestsRetention() {
+        return snapshot.getContextCompletedTestsRetention();
+    }
+
+    /**
+     * @return interval in seconds between agent metrics summaries written to log. Non-positive value (default)
+     * means that the summary is logged only once, on test run finish
+     */
+    public static int getMetricsLogIntervalSeconds() {
+        return snapshot.getMetricsLogIntervalSeconds();
+    }
+
+    /**
+     * @return format of test logs batches: {@code json} (array of log objects, default), {@code ndjson} (one log
+     * object per line) or {@code columnar} (logs grouped by test). If Zebrunner does not accept configured format,
+     * the agent falls back to {@code json}
+     */
+    public static String getLogsTransport() {
+        return snapshot.getLogsTransport();
+    }
+
+    /**
+     * @return loopback port of the daemon forwarding calls of all test JVMs of the host to Zebrunner.
+     * Non-positive value (default) means that Zebrunner is called directly
+     */
+    public static int getForwardingPort() {
+        return snapshot.getForwardingPort();
     }
 
 }
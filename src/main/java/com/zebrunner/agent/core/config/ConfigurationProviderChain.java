@@ -3,17 +3,27 @@ package com.zebrunner.agent.core.config;
 import com.zebrunner.agent.core.config.ConfigurationProvider;
 import com.zebrunner.agent.core.config.ReportingConfiguration;
 import com.zebrunner.agent.core.exception.TestAgentException;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 public class ConfigurationProviderChain implements ConfigurationProvider {
 
     private static final String DEFAULT_PROJECT = "UNKNOWN";
+    private static final List<Property> PROPERTIES = collectProperties();
 
     private final List<ConfigurationProvider> providers = new LinkedList<>();
+    private volatile Map<String, String> valueSources = Collections.emptyMap();
 
     public ConfigurationProviderChain(List<? extends ConfigurationProvider> credentialsProviders) {
         if (credentialsProviders == null || credentialsProviders.size() == 0) {
@@ -28,6 +38,12 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
                                                               .run(new ReportingConfiguration.RunConfiguration())
                                                               .server(new ReportingConfiguration.ServerConfiguration())
                                                               .rerun(new ReportingConfiguration.RerunConfiguration())
+                                                              .session(new ReportingConfiguration.SessionConfiguration())
+                                                              .context(new ReportingConfiguration.ContextConfiguration())
+                                                              .metrics(new ReportingConfiguration.MetricsConfiguration())
+                                                              .logs(new ReportingConfiguration.LogsConfiguration())
+                                                              .performance(new ReportingConfiguration.PerformanceConfiguration())
+                                                              .forwarding(new ReportingConfiguration.ForwardingConfiguration())
                                                               .build();
         assembleConfiguration(config);
         if (areMandatoryArgsSet(config)) {
@@ -38,20 +54,42 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
     }
 
     /**
-     * Iterates over all configuration providers and assembles agent configuration. Configuration property
-     * supplied by provider with highest priority always takes precedence.
+     * @return sources of the values of the last assembled configuration: path of a property (e.g.
+     * {@code server.hostname}) mapped to simple class name of the provider supplying its value. Properties which
+     * are not listed have default values
+     */
+    public Map<String, String> getValueSources() {
+        return valueSources;
+    }
+
+    /**
+     * Iterates over configuration providers and assembles agent configuration. Configuration property
+     * supplied by provider with highest priority always takes precedence. Properties which are not yet supplied
+     * are tracked to record their sources, and providers with lower priority are queried until every property
+     * is supplied, since any of them may supply a property none of the previous ones did (configuration files
+     * are parsed only once per modification, see {@code ParsedResource}).
      *
      * @param config configuration to be assembled
      */
     private void assembleConfiguration(ReportingConfiguration config) {
+        Map<String, String> sources = new LinkedHashMap<>();
+        List<Property> unresolvedProperties = new LinkedList<>(PROPERTIES);
         for (ConfigurationProvider provider : providers) {
+            if (unresolvedProperties.isEmpty()) {
+                break;
+            }
             try {
                 ReportingConfiguration providedConfig = provider.getConfiguration();
                 normalize(providedConfig);
                 merge(config, providedConfig);
-                // no need to iterate further to provider with lower priority if all args are provided already
-                if (areAllArgsSet(providedConfig)) {
-                    break;
+
+                Iterator<Property> iterator = unresolvedProperties.iterator();
+                while (iterator.hasNext()) {
+                    Property property = iterator.next();
+                    if (property.getValue(config) != null) {
+                        sources.put(property.getPath(), provider.getClass().getSimpleName());
+                        iterator.remove();
+                    }
                 }
             } catch (TestAgentException e) {
                 log.warn(e.getMessage());
@@ -60,12 +98,51 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
         if (config.getProjectKey() == null || config.getProjectKey().isEmpty()) {
             config.setProjectKey(DEFAULT_PROJECT);
         }
+        valueSources = Collections.unmodifiableMap(sources);
+        log.debug("Agent configuration sources: {}", valueSources);
+    }
+
+    /**
+     * Collects properties of the configuration, including properties of its sections (e.g. {@code server.hostname}),
+     * so that new properties are tracked without changes of the chain.
+     */
+    private static List<Property> collectProperties() {
+        List<Property> properties = new ArrayList<>();
+        for (Field field : getPropertyFields(ReportingConfiguration.class)) {
+            if (field.getType().getDeclaringClass() == ReportingConfiguration.class) {
+                for (Field sectionField : getPropertyFields(field.getType())) {
+                    String path = field.getName() + "." + sectionField.getName();
+                    properties.add(new Property(path, field, sectionField));
+                }
+            } else {
+                String path = field.getName();
+                properties.add(new Property(path, null, field));
+            }
+        }
+        return Collections.unmodifiableList(properties);
+    }
+
+    private static List<Field> getPropertyFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields;
     }
 
     private static void normalize(ReportingConfiguration config) {
         normalizeServerConfiguration(config);
         normalizeRunConfiguration(config);
         normalizeRerunConfiguration(config);
+        normalizeSessionConfiguration(config);
+        normalizeContextConfiguration(config);
+        normalizeMetricsConfiguration(config);
+        normalizeLogsConfiguration(config);
+        normalizePerformanceConfiguration(config);
+        normalizeForwardingConfiguration(config);
     }
 
     private static void normalizeServerConfiguration(ReportingConfiguration config) {
@@ -92,6 +169,8 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
             String displayName = runConfig.getDisplayName();
             String build = runConfig.getBuild();
             String environment = runConfig.getEnvironment();
+            String historyRunId = runConfig.getHistoryRunId();
+            String forkCoordinationFile = runConfig.getForkCoordinationFile();
             if (displayName != null && displayName.isEmpty()) {
                 runConfig.setDisplayName(null);
             }
@@ -101,6 +180,12 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
             if (environment != null && environment.isEmpty()) {
                 runConfig.setEnvironment(null);
             }
+            if (historyRunId != null && historyRunId.isEmpty()) {
+                runConfig.setHistoryRunId(null);
+            }
+            if (forkCoordinationFile != null && forkCoordinationFile.isEmpty()) {
+                runConfig.setForkCoordinationFile(null);
+            }
         }
     }
 
@@ -110,9 +195,125 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
         } else {
             ReportingConfiguration.RerunConfiguration rerunConfig = config.getRerun();
             String runId = rerunConfig.getRunId();
+            String timeout = rerunConfig.getTimeout();
+            String retries = rerunConfig.getRetries();
+            String cacheDirectory = rerunConfig.getCacheDirectory();
+            String failureMode = rerunConfig.getFailureMode();
+            String shardIndex = rerunConfig.getShardIndex();
+            String shardCount = rerunConfig.getShardCount();
+            String shardBalancing = rerunConfig.getShardBalancing();
             if (runId != null && runId.isEmpty()) {
                 rerunConfig.setRunId(null);
             }
+            if (timeout != null && timeout.isEmpty()) {
+                rerunConfig.setTimeout(null);
+            }
+            if (retries != null && retries.isEmpty()) {
+                rerunConfig.setRetries(null);
+            }
+            if (cacheDirectory != null && cacheDirectory.isEmpty()) {
+                rerunConfig.setCacheDirectory(null);
+            }
+            if (failureMode != null && failureMode.isEmpty()) {
+                rerunConfig.setFailureMode(null);
+            }
+            if (shardIndex != null && shardIndex.isEmpty()) {
+                rerunConfig.setShardIndex(null);
+            }
+            if (shardCount != null && shardCount.isEmpty()) {
+                rerunConfig.setShardCount(null);
+            }
+            if (shardBalancing != null && shardBalancing.isEmpty()) {
+                rerunConfig.setShardBalancing(null);
+            }
+        }
+    }
+
+    private static void normalizeSessionConfiguration(ReportingConfiguration config) {
+        if (config.getSession() == null) {
+            config.setSession(new ReportingConfiguration.SessionConfiguration());
+        } else {
+            ReportingConfiguration.SessionConfiguration sessionConfig = config.getSession();
+            String excludedCapabilities = sessionConfig.getExcludedCapabilities();
+            String capabilityMaxLength = sessionConfig.getCapabilityMaxLength();
+            if (excludedCapabilities != null && excludedCapabilities.isEmpty()) {
+                sessionConfig.setExcludedCapabilities(null);
+            }
+            if (capabilityMaxLength != null && capabilityMaxLength.isEmpty()) {
+                sessionConfig.setCapabilityMaxLength(null);
+            }
+        }
+    }
+
+    private static void normalizeContextConfiguration(ReportingConfiguration config) {
+        if (config.getContext() == null) {
+            config.setContext(new ReportingConfiguration.ContextConfiguration());
+        } else {
+            ReportingConfiguration.ContextConfiguration contextConfig = config.getContext();
+            String propagation = contextConfig.getPropagation();
+            String completedTestsRetention = contextConfig.getCompletedTestsRetention();
+            if (propagation != null && propagation.isEmpty()) {
+                contextConfig.setPropagation(null);
+            }
+            if (completedTestsRetention != null && completedTestsRetention.isEmpty()) {
+                contextConfig.setCompletedTestsRetention(null);
+            }
+        }
+    }
+
+    private static void normalizeMetricsConfiguration(ReportingConfiguration config) {
+        if (config.getMetrics() == null) {
+            config.setMetrics(new ReportingConfiguration.MetricsConfiguration());
+        } else {
+            ReportingConfiguration.MetricsConfiguration metricsConfig = config.getMetrics();
+            String logInterval = metricsConfig.getLogInterval();
+            if (logInterval != null && logInterval.isEmpty()) {
+                metricsConfig.setLogInterval(null);
+            }
+        }
+    }
+
+    private static void normalizeLogsConfiguration(ReportingConfiguration config) {
+        if (config.getLogs() == null) {
+            config.setLogs(new ReportingConfiguration.LogsConfiguration());
+        } else {
+            ReportingConfiguration.LogsConfiguration logsConfig = config.getLogs();
+            String transport = logsConfig.getTransport();
+            if (transport != null && transport.isEmpty()) {
+                logsConfig.setTransport(null);
+            }
+        }
+    }
+
+    private static void normalizePerformanceConfiguration(ReportingConfiguration config) {
+        if (config.getPerformance() == null) {
+            config.setPerformance(new ReportingConfiguration.PerformanceConfiguration());
+        } else {
+            ReportingConfiguration.PerformanceConfiguration performanceConfig = config.getPerformance();
+            String logsFlushInterval = performanceConfig.getLogsFlushInterval();
+            String artifactUploadThreads = performanceConfig.getArtifactUploadThreads();
+            String hotReload = performanceConfig.getHotReload();
+            if (logsFlushInterval != null && logsFlushInterval.isEmpty()) {
+                performanceConfig.setLogsFlushInterval(null);
+            }
+            if (artifactUploadThreads != null && artifactUploadThreads.isEmpty()) {
+                performanceConfig.setArtifactUploadThreads(null);
+            }
+            if (hotReload != null && hotReload.isEmpty()) {
+                performanceConfig.setHotReload(null);
+            }
+        }
+    }
+
+    private static void normalizeForwardingConfiguration(ReportingConfiguration config) {
+        if (config.getForwarding() == null) {
+            config.setForwarding(new ReportingConfiguration.ForwardingConfiguration());
+        } else {
+            ReportingConfiguration.ForwardingConfiguration forwardingConfig = config.getForwarding();
+            String port = forwardingConfig.getPort();
+            if (port != null && port.isEmpty()) {
+                forwardingConfig.setPort(null);
+            }
         }
     }
 
@@ -149,11 +350,80 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
         if (run.getEnvironment() == null) {
             run.setEnvironment(providedConfig.getRun().getEnvironment());
         }
+        if (run.getHistoryRunId() == null) {
+            run.setHistoryRunId(providedConfig.getRun().getHistoryRunId());
+        }
+        if (run.getForkCoordinationFile() == null) {
+            run.setForkCoordinationFile(providedConfig.getRun().getForkCoordinationFile());
+        }
 
         ReportingConfiguration.RerunConfiguration rerun = config.getRerun();
         if (rerun.getRunId() == null) {
             rerun.setRunId(providedConfig.getRerun().getRunId());
         }
+        if (rerun.getTimeout() == null) {
+            rerun.setTimeout(providedConfig.getRerun().getTimeout());
+        }
+        if (rerun.getRetries() == null) {
+            rerun.setRetries(providedConfig.getRerun().getRetries());
+        }
+        if (rerun.getCacheDirectory() == null) {
+            rerun.setCacheDirectory(providedConfig.getRerun().getCacheDirectory());
+        }
+        if (rerun.getFailureMode() == null) {
+            rerun.setFailureMode(providedConfig.getRerun().getFailureMode());
+        }
+        if (rerun.getShardIndex() == null) {
+            rerun.setShardIndex(providedConfig.getRerun().getShardIndex());
+        }
+        if (rerun.getShardCount() == null) {
+            rerun.setShardCount(providedConfig.getRerun().getShardCount());
+        }
+        if (rerun.getShardBalancing() == null) {
+            rerun.setShardBalancing(providedConfig.getRerun().getShardBalancing());
+        }
+
+        ReportingConfiguration.SessionConfiguration session = config.getSession();
+        if (session.getExcludedCapabilities() == null) {
+            session.setExcludedCapabilities(providedConfig.getSession().getExcludedCapabilities());
+        }
+        if (session.getCapabilityMaxLength() == null) {
+            session.setCapabilityMaxLength(providedConfig.getSession().getCapabilityMaxLength());
+        }
+
+        ReportingConfiguration.ContextConfiguration context = config.getContext();
+        if (context.getPropagation() == null) {
+            context.setPropagation(providedConfig.getContext().getPropagation());
+        }
+        if (context.getCompletedTestsRetention() == null) {
+            context.setCompletedTestsRetention(providedConfig.getContext().getCompletedTestsRetention());
+        }
+
+        ReportingConfiguration.MetricsConfiguration metrics = config.getMetrics();
+        if (metrics.getLogInterval() == null) {
+            metrics.setLogInterval(providedConfig.getMetrics().getLogInterval());
+        }
+
+        ReportingConfiguration.LogsConfiguration logs = config.getLogs();
+        if (logs.getTransport() == null) {
+            logs.setTransport(providedConfig.getLogs().getTransport());
+        }
+
+        ReportingConfiguration.PerformanceConfiguration performance = config.getPerformance();
+        if (performance.getLogsFlushInterval() == null) {
+            performance.setLogsFlushInterval(providedConfig.getPerformance().getLogsFlushInterval());
+        }
+        if (performance.getArtifactUploadThreads() == null) {
+            performance.setArtifactUploadThreads(providedConfig.getPerformance().getArtifactUploadThreads());
+        }
+        if (performance.getHotReload() == null) {
+            performance.setHotReload(providedConfig.getPerformance().getHotReload());
+        }
+
+        ReportingConfiguration.ForwardingConfiguration forwarding = config.getForwarding();
+        if (forwarding.getPort() == null) {
+            forwarding.setPort(providedConfig.getForwarding().getPort());
+        }
     }
 
     // project-key is not considered as a mandatory property
@@ -164,21 +434,35 @@ public class ConfigurationProviderChain implements ConfigurationProvider {
         return !config.isReportingEnabled() || (server.getHostname() != null && server.getAccessToken() != null);
     }
 
-    private static boolean areAllArgsSet(ReportingConfiguration config) {
-        Boolean enabled = config.getReportingEnabled();
-        String projectKey = config.getProjectKey();
-        String hostname = config.getServer().getHostname();
-        String accessToken = config.getServer().getAccessToken();
-        String displayName = config.getRun().getDisplayName();
-        String build = config.getRun().getBuild();
-        String environment = config.getRun().getEnvironment();
-        String runId = config.getRerun().getRunId();
-
-        return enabled != null
-                && projectKey != null
-                && hostname != null && accessToken != null
-                && displayName != null && build != null && environment != null
-                && runId != null;
+    /**
+     * Property of the configuration, read reflectively via fields resolved once.
+     */
+    @Value
+    private static class Property {
+
+        String path;
+        // null if the property is not a part of a section
+        Field sectionField;
+        Field field;
+
+        Object getValue(ReportingConfiguration config) {
+            Object section = sectionField != null ? getFieldValue(sectionField, config) : config;
+            return section != null ? getFieldValue(field, section) : null;
+        }
+
+        private static Object getFieldValue(Field field, Object object) {
+            try {
+                return field.get(object);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+
     }
 
 }
@@ -0,0 +1,321 @@
+package com.zebrunner.agent.core.config;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable agent configuration parsed from {@link ReportingConfiguration}. Values which can not be parsed
+ * are replaced with defaults and are reported in {@link #getValidationErrors()}, so that an invalid value never
+ * prevents the agent from starting. Semantics of the values are described in {@link ConfigurationHolder}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ConfigurationSnapshot {
+
+    boolean reportingEnabled;
+    String projectKey;
+    String host;
+    String token;
+
+    String runDisplayName;
+    String runBuild;
+    String runEnvironment;
+    String runHistoryRunId;
+    Path runForkCoordinationFile;
+
+    String rerunRunId;
+    int rerunTimeoutSeconds;
+    int rerunRetries;
+    Path rerunCacheDirectory;
+    boolean rerunFailureFatal;
+    int rerunShardIndex;
+    int rerunShardCount;
+    boolean rerunShardDurationBalanced;
+
+    Set<String> sessionExcludedCapabilities;
+    int sessionCapabilityMaxLength;
+
+    boolean contextInheritable;
+    int contextCompletedTestsRetention;
+
+    int metricsLogIntervalSeconds;
+
+    String logsTransport;
+
+    PerformanceSettings performance;
+    boolean hotReload;
+
+    int forwardingPort;
+
+    List<String> validationErrors;
+    Map<String, String> valueSources;
+
+    static ConfigurationSnapshot of(ReportingConfiguration configuration, Map<String, String> valueSources) {
+        return new Parser().parse(configuration)
+                           .toBuilder()
+                           .valueSources(valueSources)
+                           .build();
+    }
+
+    /**
+     * @param error reason why the configuration could not be assembled
+     * @return configuration with reporting disabled and all the other values set to defaults
+     */
+    static ConfigurationSnapshot disabled(String error) {
+        ReportingConfiguration configuration = ReportingConfiguration.builder()
+                .reportingEnabled(false)
+                .server(new ReportingConfiguration.ServerConfiguration())
+                .run(new ReportingConfiguration.RunConfiguration())
+                .rerun(new ReportingConfiguration.RerunConfiguration())
+                .session(new ReportingConfiguration.SessionConfiguration())
+                .context(new ReportingConfiguration.ContextConfiguration())
+                .metrics(new ReportingConfiguration.MetricsConfiguration())
+                .logs(new ReportingConfiguration.LogsConfiguration())
+                .performance(new ReportingConfiguration.PerformanceConfiguration())
+                .forwarding(new ReportingConfiguration.ForwardingConfiguration())
+                .build();
+
+        ConfigurationSnapshot snapshot = of(configuration, Collections.emptyMap());
+        List<String> errors = new ArrayList<>(snapshot.getValidationErrors());
+        errors.add(0, error);
+        return snapshot.toBuilder()
+                       .validationErrors(Collections.unmodifiableList(errors))
+                       .build();
+    }
+
+    ConfigurationSnapshot withPerformance(PerformanceSettings performance) {
+        return toBuilder().performance(performance).build();
+    }
+
+    /**
+     * Parses values of a single configuration, collecting validation errors.
+     */
+    @Slf4j
+    private static class Parser {
+
+        private static final int DEFAULT_SESSION_CAPABILITY_MAX_LENGTH = 1024;
+        private static final int DEFAULT_CONTEXT_COMPLETED_TESTS_RETENTION = 10_000;
+        private static final String INHERITABLE_CONTEXT_PROPAGATION = "inheritable";
+        private static final String EXPLICIT_CONTEXT_PROPAGATION = "explicit";
+        private static final int DEFAULT_RERUN_TIMEOUT_SECONDS = 60;
+        private static final int DEFAULT_RERUN_RETRIES = 2;
+        private static final String FAIL_RERUN_FAILURE_MODE = "fail";
+        private static final String RUN_ALL_RERUN_FAILURE_MODE = "run-all";
+        private static final String HASH_RERUN_SHARD_BALANCING = "hash";
+        private static final String DURATION_RERUN_SHARD_BALANCING = "duration";
+        private static final String JSON_LOGS_TRANSPORT = "json";
+        private static final String NDJSON_LOGS_TRANSPORT = "ndjson";
+        private static final String COLUMNAR_LOGS_TRANSPORT = "columnar";
+        private static final List<String> LOGS_TRANSPORTS = Arrays.asList(
+                JSON_LOGS_TRANSPORT, NDJSON_LOGS_TRANSPORT, COLUMNAR_LOGS_TRANSPORT
+        );
+        private static final int DEFAULT_LOGS_FLUSH_INTERVAL_MILLIS = 1_000;
+        private static final int DEFAULT_ARTIFACT_UPLOAD_THREADS = 8;
+        private static final int MAX_PORT = 65_535;
+
+        private final List<String> errors = new ArrayList<>();
+
+        private ConfigurationSnapshot parse(ReportingConfiguration configuration) {
+            ConfigurationSnapshotBuilder snapshot = ConfigurationSnapshot.builder()
+                    .reportingEnabled(configuration.isReportingEnabled())
+                    .projectKey(configuration.getProjectKey())
+                    .host(configuration.getServer().getHostname())
+                    .token(configuration.getServer().getAccessToken())
+                    .runDisplayName(configuration.getRun().getDisplayName())
+                    .runBuild(configuration.getRun().getBuild())
+                    .runEnvironment(configuration.getRun().getEnvironment())
+                    .runHistoryRunId(configuration.getRun().getHistoryRunId())
+                    .runForkCoordinationFile(parsePath(
+                            "fork coordination file", configuration.getRun().getForkCoordinationFile()
+                    ));
+
+            ReportingConfiguration.RerunConfiguration rerun = configuration.getRerun();
+            int shardCount = parseInt("rerun shard count", rerun.getShardCount(), 1);
+            int shardIndex = parseInt("rerun shard index", rerun.getShardIndex(), 0);
+            if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+                error(String.format("Rerun shard %d of %d is not valid, rerun plan will not be sharded",
+                        shardIndex, shardCount));
+                shardCount = 1;
+                shardIndex = 0;
+            }
+            snapshot.rerunRunId(rerun.getRunId())
+                    .rerunTimeoutSeconds(parseInt("rerun timeout", rerun.getTimeout(), DEFAULT_RERUN_TIMEOUT_SECONDS))
+                    .rerunRetries(Math.max(0, parseInt("rerun retries", rerun.getRetries(), DEFAULT_RERUN_RETRIES)))
+                    .rerunCacheDirectory(rerun.getCacheDirectory() != null
+                            ? Paths.get(rerun.getCacheDirectory())
+                            : Paths.get(System.getProperty("java.io.tmpdir"), "zebrunner", "rerun"))
+                    .rerunFailureFatal(parseRerunFailureMode(rerun.getFailureMode()))
+                    .rerunShardIndex(shardIndex)
+                    .rerunShardCount(shardCount)
+                    .rerunShardDurationBalanced(parseRerunShardBalancing(rerun.getShardBalancing()));
+
+            snapshot.sessionExcludedCapabilities(parseList(configuration.getSession().getExcludedCapabilities()))
+                    .sessionCapabilityMaxLength(parseInt(
+                            "session capability max length",
+                            configuration.getSession().getCapabilityMaxLength(),
+                            DEFAULT_SESSION_CAPABILITY_MAX_LENGTH
+                    ));
+
+            snapshot.contextInheritable(parseContextPropagation(configuration.getContext().getPropagation()))
+                    .contextCompletedTestsRetention(parseInt(
+                            "completed tests retention",
+                            configuration.getContext().getCompletedTestsRetention(),
+                            DEFAULT_CONTEXT_COMPLETED_TESTS_RETENTION
+                    ));
+
+            snapshot.metricsLogIntervalSeconds(
+                    parseInt("metrics log interval", configuration.getMetrics().getLogInterval(), 0)
+            );
+
+            snapshot.logsTransport(parseLogsTransport(configuration.getLogs().getTransport()));
+
+            ReportingConfiguration.PerformanceConfiguration performance = configuration.getPerformance();
+            snapshot.performance(new PerformanceSettings(
+                    parsePositiveInt(
+                            "logs flush interval",
+                            performance.getLogsFlushInterval(),
+                            DEFAULT_LOGS_FLUSH_INTERVAL_MILLIS
+                    ),
+                    parsePositiveInt(
+                            "artifact upload threads",
+                            performance.getArtifactUploadThreads(),
+                            DEFAULT_ARTIFACT_UPLOAD_THREADS
+                    )
+            ));
+            snapshot.hotReload(Boolean.parseBoolean(performance.getHotReload()));
+
+            snapshot.forwardingPort(parsePort("forwarding port", configuration.getForwarding().getPort()));
+
+            return snapshot.validationErrors(Collections.unmodifiableList(errors))
+                           .build();
+        }
+
+        private void error(String error) {
+            log.warn(error);
+            errors.add(error);
+        }
+
+        private boolean parseContextPropagation(String propagation) {
+            if (propagation == null || INHERITABLE_CONTEXT_PROPAGATION.equalsIgnoreCase(propagation)) {
+                return true;
+            }
+            if (EXPLICIT_CONTEXT_PROPAGATION.equalsIgnoreCase(propagation)) {
+                return false;
+            }
+            error("Unknown context propagation '" + propagation + "', inheritable propagation will be used");
+            return true;
+        }
+
+        private boolean parseRerunFailureMode(String failureMode) {
+            if (failureMode == null || FAIL_RERUN_FAILURE_MODE.equalsIgnoreCase(failureMode)) {
+                return true;
+            }
+            if (RUN_ALL_RERUN_FAILURE_MODE.equalsIgnoreCase(failureMode)) {
+                return false;
+            }
+            error("Unknown rerun failure mode '" + failureMode + "', run will fail if rerun plan is not available");
+            return true;
+        }
+
+        private boolean parseRerunShardBalancing(String balancing) {
+            if (balancing == null || HASH_RERUN_SHARD_BALANCING.equalsIgnoreCase(balancing)) {
+                return false;
+            }
+            if (DURATION_RERUN_SHARD_BALANCING.equalsIgnoreCase(balancing)) {
+                return true;
+            }
+            error("Unknown rerun shard balancing '" + balancing + "', tests will be assigned to shards by hash");
+            return false;
+        }
+
+        private String parseLogsTransport(String transport) {
+            if (transport == null) {
+                return JSON_LOGS_TRANSPORT;
+            }
+            for (String knownTransport : LOGS_TRANSPORTS) {
+                if (knownTransport.equalsIgnoreCase(transport.trim())) {
+                    return knownTransport;
+                }
+            }
+            error("Unknown logs transport '" + transport + "', logs will be sent as json array");
+            return JSON_LOGS_TRANSPORT;
+        }
+
+        /**
+         * Parses comma-separated list of values. YAML lists (rendered as {@code [a, b]}) are supported as well.
+         */
+        private Set<String> parseList(String value) {
+            if (value == null) {
+                return Collections.emptySet();
+            }
+            String values = value.trim();
+            if (values.startsWith("[") && values.endsWith("]")) {
+                values = values.substring(1, values.length() - 1);
+            }
+            return Collections.unmodifiableSet(
+                    Arrays.stream(values.split(","))
+                          .map(String::trim)
+                          .filter(element -> !element.isEmpty())
+                          .collect(Collectors.toSet())
+            );
+        }
+
+        private Path parsePath(String name, String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Paths.get(value.trim()).toAbsolutePath();
+            } catch (InvalidPathException e) {
+                error(String.format("Configured %s '%s' is not a valid path, it will be ignored", name, value));
+                return null;
+            }
+        }
+
+        private int parseInt(String name, String value, int defaultValue) {
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                error(String.format("Configured %s '%s' is not a valid number, default value %d will be used",
+                        name, value, defaultValue));
+                return defaultValue;
+            }
+        }
+
+        private int parsePort(String name, String value) {
+            int port = parseInt(name, value, 0);
+            if (port < 0 || port > MAX_PORT) {
+                error(String.format("Configured %s '%s' is not a valid port, it will be ignored", name, value));
+                return 0;
+            }
+            return port;
+        }
+
+        private int parsePositiveInt(String name, String value, int defaultValue) {
+            int parsedValue = parseInt(name, value, defaultValue);
+            if (parsedValue <= 0) {
+                error(String.format("Configured %s '%s' is not positive, default value %d will be used",
+                        name, value, defaultValue));
+                return defaultValue;
+            }
+            return parsedValue;
+        }
+
+    }
+
+}
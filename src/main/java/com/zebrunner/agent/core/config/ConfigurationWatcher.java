@@ -0,0 +1,113 @@
+package com.zebrunner.agent.core.config;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Watches agent configuration files located in the file system (i.e. not packed into a jar) and reloads
+ * {@link PerformanceSettings} on their change.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ConfigurationWatcher {
+
+    private static final String[] FILE_NAMES = {"agent.yaml", "agent.yml", "agent.properties"};
+    // editors often save a file in several steps, so changes are reloaded once they stop for a while
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    static void start() {
+        Set<Path> files = findFiles();
+        if (files.isEmpty()) {
+            log.warn("Hot reload of agent configuration is enabled, but no configuration file is found in file system");
+            return;
+        }
+
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            Set<Path> directories = new HashSet<>();
+            for (Path file : files) {
+                if (directories.add(file.getParent())) {
+                    file.getParent().register(
+                            watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY
+                    );
+                }
+            }
+
+            Thread watcher = new Thread(() -> watch(watchService, files), "zebrunner-configuration-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            log.info("Performance settings will be reloaded on change of {}", files);
+        } catch (IOException e) {
+            log.warn("Could not watch agent configuration files {}", files, e);
+        }
+    }
+
+    private static Set<Path> findFiles() {
+        Set<Path> files = new HashSet<>();
+        for (String fileName : FILE_NAMES) {
+            URL resource = ConfigurationWatcher.class.getClassLoader().getResource(fileName);
+            if (resource != null && "file".equals(resource.getProtocol())) {
+                try {
+                    files.add(Paths.get(resource.toURI()).toAbsolutePath());
+                } catch (URISyntaxException e) {
+                    log.warn("Could not resolve location of agent configuration file {}", resource, e);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static void watch(WatchService watchService, Set<Path> files) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = isChanged(key, files);
+                key.reset();
+
+                if (changed) {
+                    Thread.sleep(QUIET_PERIOD_MILLIS);
+                    // drain events of the same change
+                    WatchKey pendingKey;
+                    while ((pendingKey = watchService.poll()) != null) {
+                        pendingKey.pollEvents();
+                        pendingKey.reset();
+                    }
+                    ConfigurationHolder.reloadPerformanceSettings();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // watching is stopped
+        }
+    }
+
+    private static boolean isChanged(WatchKey key, Set<Path> files) {
+        Path directory = (Path) key.watchable();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else if (files.contains(directory.resolve((Path) event.context()))) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.zebrunner.agent.core.config;
+
+import lombok.Value;
+
+/**
+ * Tunables of the agent's background work. If hot reload is enabled, the settings are reloaded on change
+ * of the agent configuration file, and the new values are applied without restart.
+ */
+@Value
+public class PerformanceSettings {
+
+    /**
+     * Delay in milliseconds between flushes of buffered test logs.
+     */
+    int logsFlushIntervalMillis;
+
+    /**
+     * Number of threads uploading artifacts.
+     */
+    int artifactUploadThreads;
+
+}
@@ -16,6 +16,12 @@ public class ReportingConfiguration {
     private ServerConfiguration server;
     private RunConfiguration run;
     private RerunConfiguration rerun;
+    private SessionConfiguration session;
+    private ContextConfiguration context;
+    private MetricsConfiguration metrics;
+    private LogsConfiguration logs;
+    private PerformanceConfiguration performance;
+    private ForwardingConfiguration forwarding;
 
     public boolean isReportingEnabled() {
         return reportingEnabled != null && reportingEnabled;
@@ -41,6 +47,8 @@ public class ReportingConfiguration {
         private String displayName;
         private String build;
         private String environment;
+        private String historyRunId;
+        private String forkCoordinationFile;
 
     }
 
@@ -51,6 +59,77 @@ public class ReportingConfiguration {
     public static class RerunConfiguration {
 
         private String runId;
+        private String timeout;
+        private String retries;
+        private String cacheDirectory;
+        private String failureMode;
+        private String shardIndex;
+        private String shardCount;
+        private String shardBalancing;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SessionConfiguration {
+
+        private String excludedCapabilities;
+        private String capabilityMaxLength;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ContextConfiguration {
+
+        private String propagation;
+        private String completedTestsRetention;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MetricsConfiguration {
+
+        private String logInterval;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LogsConfiguration {
+
+        private String transport;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PerformanceConfiguration {
+
+        private String logsFlushInterval;
+        private String artifactUploadThreads;
+        private String hotReload;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ForwardingConfiguration {
+
+        private String port;
 
     }
 
@@ -18,6 +18,31 @@ public class EnvironmentConfigurationProvider implements ConfigurationProvider {
 
     private final static String RUN_ID_VARIABLE = "REPORTING_RERUN_RUN_ID";
 
+    private final static String SESSION_EXCLUDED_CAPABILITIES_VARIABLE = "REPORTING_SESSION_EXCLUDED_CAPABILITIES";
+    private final static String SESSION_CAPABILITY_MAX_LENGTH_VARIABLE = "REPORTING_SESSION_CAPABILITY_MAX_LENGTH";
+
+    private final static String CONTEXT_PROPAGATION_VARIABLE = "REPORTING_CONTEXT_PROPAGATION";
+    private final static String CONTEXT_COMPLETED_TESTS_RETENTION_VARIABLE = "REPORTING_CONTEXT_COMPLETED_TESTS_RETENTION";
+    private final static String RERUN_TIMEOUT_VARIABLE = "REPORTING_RERUN_TIMEOUT";
+    private final static String RERUN_RETRIES_VARIABLE = "REPORTING_RERUN_RETRIES";
+    private final static String RERUN_CACHE_DIRECTORY_VARIABLE = "REPORTING_RERUN_CACHE_DIRECTORY";
+    private final static String RERUN_FAILURE_MODE_VARIABLE = "REPORTING_RERUN_FAILURE_MODE";
+    private final static String RERUN_SHARD_INDEX_VARIABLE = "REPORTING_RERUN_SHARD_INDEX";
+    private final static String RERUN_SHARD_COUNT_VARIABLE = "REPORTING_RERUN_SHARD_COUNT";
+    private final static String RERUN_SHARD_BALANCING_VARIABLE = "REPORTING_RERUN_SHARD_BALANCING";
+    private final static String RUN_HISTORY_RUN_ID_VARIABLE = "REPORTING_RUN_HISTORY_RUN_ID";
+    private final static String RUN_FORK_COORDINATION_FILE_VARIABLE = "REPORTING_RUN_FORK_COORDINATION_FILE";
+
+    private final static String METRICS_LOG_INTERVAL_VARIABLE = "REPORTING_METRICS_LOG_INTERVAL";
+
+    private final static String LOGS_TRANSPORT_VARIABLE = "REPORTING_LOGS_TRANSPORT";
+
+    private final static String PERFORMANCE_LOGS_FLUSH_INTERVAL_VARIABLE = "REPORTING_PERFORMANCE_LOGS_FLUSH_INTERVAL";
+    private final static String PERFORMANCE_ARTIFACT_UPLOAD_THREADS_VARIABLE = "REPORTING_PERFORMANCE_ARTIFACT_UPLOAD_THREADS";
+    private final static String PERFORMANCE_HOT_RELOAD_VARIABLE = "REPORTING_PERFORMANCE_HOT_RELOAD";
+
+    private final static String FORWARDING_PORT_VARIABLE = "REPORTING_FORWARDING_PORT";
+
     @Override
     public ReportingConfiguration getConfiguration() {
         String enabled = System.getenv(ENABLED_VARIABLE);
@@ -28,6 +53,25 @@ public class EnvironmentConfigurationProvider implements ConfigurationProvider {
         String build = System.getenv(RUN_BUILD_PROPERTY);
         String environment = System.getenv(RUN_ENVIRONMENT_PROPERTY);
         String runId = System.getenv(RUN_ID_VARIABLE);
+        String excludedCapabilities = System.getenv(SESSION_EXCLUDED_CAPABILITIES_VARIABLE);
+        String capabilityMaxLength = System.getenv(SESSION_CAPABILITY_MAX_LENGTH_VARIABLE);
+        String contextPropagation = System.getenv(CONTEXT_PROPAGATION_VARIABLE);
+        String completedTestsRetention = System.getenv(CONTEXT_COMPLETED_TESTS_RETENTION_VARIABLE);
+        String rerunTimeout = System.getenv(RERUN_TIMEOUT_VARIABLE);
+        String rerunRetries = System.getenv(RERUN_RETRIES_VARIABLE);
+        String rerunCacheDirectory = System.getenv(RERUN_CACHE_DIRECTORY_VARIABLE);
+        String rerunFailureMode = System.getenv(RERUN_FAILURE_MODE_VARIABLE);
+        String rerunShardIndex = System.getenv(RERUN_SHARD_INDEX_VARIABLE);
+        String rerunShardCount = System.getenv(RERUN_SHARD_COUNT_VARIABLE);
+        String rerunShardBalancing = System.getenv(RERUN_SHARD_BALANCING_VARIABLE);
+        String historyRunId = System.getenv(RUN_HISTORY_RUN_ID_VARIABLE);
+        String forkCoordinationFile = System.getenv(RUN_FORK_COORDINATION_FILE_VARIABLE);
+        String metricsLogInterval = System.getenv(METRICS_LOG_INTERVAL_VARIABLE);
+        String logsTransport = System.getenv(LOGS_TRANSPORT_VARIABLE);
+        String logsFlushInterval = System.getenv(PERFORMANCE_LOGS_FLUSH_INTERVAL_VARIABLE);
+        String artifactUploadThreads = System.getenv(PERFORMANCE_ARTIFACT_UPLOAD_THREADS_VARIABLE);
+        String hotReload = System.getenv(PERFORMANCE_HOT_RELOAD_VARIABLE);
+        String forwardingPort = System.getenv(FORWARDING_PORT_VARIABLE);
 
         if (enabled != null && !"true".equalsIgnoreCase(enabled) && !"false".equalsIgnoreCase(enabled)) {
             throw new TestAgentException("Environment configuration is malformed, skipping");
@@ -38,8 +82,25 @@ public class EnvironmentConfigurationProvider implements ConfigurationProvider {
                                      .reportingEnabled(reportingEnabled)
                                      .projectKey(projectKey)
                                      .server(new ReportingConfiguration.ServerConfiguration(hostname, accessToken))
-                                     .run(new ReportingConfiguration.RunConfiguration(displayName, build, environment))
-                                     .rerun(new ReportingConfiguration.RerunConfiguration(runId))
+                                     .run(new ReportingConfiguration.RunConfiguration(
+                                             displayName, build, environment, historyRunId, forkCoordinationFile
+                                     ))
+                                     .rerun(new ReportingConfiguration.RerunConfiguration(
+                                             runId, rerunTimeout, rerunRetries, rerunCacheDirectory, rerunFailureMode,
+                                             rerunShardIndex, rerunShardCount, rerunShardBalancing
+                                     ))
+                                     .session(new ReportingConfiguration.SessionConfiguration(
+                                             excludedCapabilities, capabilityMaxLength
+                                     ))
+                                     .context(new ReportingConfiguration.ContextConfiguration(
+                                             contextPropagation, completedTestsRetention
+                                     ))
+                                     .metrics(new ReportingConfiguration.MetricsConfiguration(metricsLogInterval))
+                                     .logs(new ReportingConfiguration.LogsConfiguration(logsTransport))
+                                     .performance(new ReportingConfiguration.PerformanceConfiguration(
+                                             logsFlushInterval, artifactUploadThreads, hotReload
+                                     ))
+                                     .forwarding(new ReportingConfiguration.ForwardingConfiguration(forwardingPort))
                                      .build();
     }
 
@@ -0,0 +1,97 @@
+package com.zebrunner.agent.core.config.provider;
+
+import com.zebrunner.agent.core.exception.TestAgentException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * Configuration file located on the classpath and parsed at most once per its modification. A file packed
+ * into a jar is parsed once, a file located in a directory is parsed again only if it was modified since then
+ * (so that hot reload of configuration sees the changes).
+ *
+ * @param <T> type of parsed file content
+ */
+final class ParsedResource<T> {
+
+    private final String[] fileNames;
+    private final Parser<T> parser;
+    private final T emptyContent;
+
+    private Parsed<T> parsed;
+
+    ParsedResource(String[] fileNames, Parser<T> parser, T emptyContent) {
+        this.fileNames = fileNames;
+        this.parser = parser;
+        this.emptyContent = emptyContent;
+    }
+
+    /**
+     * @return content of the first existing file, or empty content if none of the files exists
+     */
+    synchronized T get() {
+        URL resource = findResource();
+        if (resource == null) {
+            return emptyContent;
+        }
+
+        long lastModified = getLastModified(resource);
+        if (parsed == null || !parsed.resource.equals(resource.toString()) || parsed.lastModified != lastModified) {
+            try (InputStream inputStream = resource.openStream()) {
+                parsed = new Parsed<>(resource.toString(), lastModified, parser.parse(inputStream));
+            } catch (IOException e) {
+                throw new TestAgentException("Unable to load agent configuration from " + resource);
+            }
+        }
+        return parsed.content;
+    }
+
+    private URL findResource() {
+        ClassLoader classLoader = ParsedResource.class.getClassLoader();
+        for (String fileName : fileNames) {
+            URL resource = classLoader.getResource(fileName);
+            if (resource != null) {
+                return resource;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return modification time of a file located in a directory, {@code 0} for other resources
+     */
+    private static long getLastModified(URL resource) {
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return new File(resource.toURI()).lastModified();
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    interface Parser<T> {
+
+        T parse(InputStream inputStream) throws IOException;
+
+    }
+
+    private static class Parsed<T> {
+
+        private final String resource;
+        private final long lastModified;
+        private final T content;
+
+        Parsed(String resource, long lastModified, T content) {
+            this.resource = resource;
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+
+    }
+
+}
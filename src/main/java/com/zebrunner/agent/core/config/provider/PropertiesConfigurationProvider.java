@@ -22,11 +22,39 @@ public class PropertiesConfigurationProvider implements ConfigurationProvider {
 
     private final static String RUN_ID_PROPERTY = "reporting.rerun.run-id";
 
+    private final static String SESSION_EXCLUDED_CAPABILITIES_PROPERTY = "reporting.session.excluded-capabilities";
+    private final static String SESSION_CAPABILITY_MAX_LENGTH_PROPERTY = "reporting.session.capability-max-length";
+
+    private final static String CONTEXT_PROPAGATION_PROPERTY = "reporting.context.propagation";
+    private final static String CONTEXT_COMPLETED_TESTS_RETENTION_PROPERTY = "reporting.context.completed-tests-retention";
+    private final static String RERUN_TIMEOUT_PROPERTY = "reporting.rerun.timeout";
+    private final static String RERUN_RETRIES_PROPERTY = "reporting.rerun.retries";
+    private final static String RERUN_CACHE_DIRECTORY_PROPERTY = "reporting.rerun.cache-directory";
+    private final static String RERUN_FAILURE_MODE_PROPERTY = "reporting.rerun.failure-mode";
+    private final static String RERUN_SHARD_INDEX_PROPERTY = "reporting.rerun.shard-index";
+    private final static String RERUN_SHARD_COUNT_PROPERTY = "reporting.rerun.shard-count";
+    private final static String RERUN_SHARD_BALANCING_PROPERTY = "reporting.rerun.shard-balancing";
+    private final static String RUN_HISTORY_RUN_ID_PROPERTY = "reporting.run.history-run-id";
+    private final static String RUN_FORK_COORDINATION_FILE_PROPERTY = "reporting.run.fork-coordination-file";
+
+    private final static String METRICS_LOG_INTERVAL_PROPERTY = "reporting.metrics.log-interval";
+
+    private final static String LOGS_TRANSPORT_PROPERTY = "reporting.logs.transport";
+
+    private final static String PERFORMANCE_LOGS_FLUSH_INTERVAL_PROPERTY = "reporting.performance.logs-flush-interval";
+    private final static String PERFORMANCE_ARTIFACT_UPLOAD_THREADS_PROPERTY = "reporting.performance.artifact-upload-threads";
+    private final static String PERFORMANCE_HOT_RELOAD_PROPERTY = "reporting.performance.hot-reload";
+
+    private final static String FORWARDING_PORT_PROPERTY = "reporting.forwarding.port";
+
     private static final String DEFAULT_FILE_NAME = "agent.properties";
+    private static final ParsedResource<Properties> AGENT_PROPERTIES = new ParsedResource<>(
+            new String[]{DEFAULT_FILE_NAME}, PropertiesConfigurationProvider::parseProperties, new Properties()
+    );
 
     @Override
     public ReportingConfiguration getConfiguration() {
-        Properties agentProperties = loadProperties();
+        Properties agentProperties = AGENT_PROPERTIES.get();
 
         String enabled = agentProperties.getProperty(ENABLED_PROPERTY);
         String projectKey = agentProperties.getProperty(PROJECT_KEY_PROPERTY);
@@ -36,6 +64,25 @@ public class PropertiesConfigurationProvider implements ConfigurationProvider {
         String build = agentProperties.getProperty(RUN_BUILD_PROPERTY);
         String environment = agentProperties.getProperty(RUN_ENVIRONMENT_PROPERTY);
         String runId = agentProperties.getProperty(RUN_ID_PROPERTY);
+        String excludedCapabilities = agentProperties.getProperty(SESSION_EXCLUDED_CAPABILITIES_PROPERTY);
+        String capabilityMaxLength = agentProperties.getProperty(SESSION_CAPABILITY_MAX_LENGTH_PROPERTY);
+        String contextPropagation = agentProperties.getProperty(CONTEXT_PROPAGATION_PROPERTY);
+        String completedTestsRetention = agentProperties.getProperty(CONTEXT_COMPLETED_TESTS_RETENTION_PROPERTY);
+        String rerunTimeout = agentProperties.getProperty(RERUN_TIMEOUT_PROPERTY);
+        String rerunRetries = agentProperties.getProperty(RERUN_RETRIES_PROPERTY);
+        String rerunCacheDirectory = agentProperties.getProperty(RERUN_CACHE_DIRECTORY_PROPERTY);
+        String rerunFailureMode = agentProperties.getProperty(RERUN_FAILURE_MODE_PROPERTY);
+        String rerunShardIndex = agentProperties.getProperty(RERUN_SHARD_INDEX_PROPERTY);
+        String rerunShardCount = agentProperties.getProperty(RERUN_SHARD_COUNT_PROPERTY);
+        String rerunShardBalancing = agentProperties.getProperty(RERUN_SHARD_BALANCING_PROPERTY);
+        String historyRunId = agentProperties.getProperty(RUN_HISTORY_RUN_ID_PROPERTY);
+        String forkCoordinationFile = agentProperties.getProperty(RUN_FORK_COORDINATION_FILE_PROPERTY);
+        String metricsLogInterval = agentProperties.getProperty(METRICS_LOG_INTERVAL_PROPERTY);
+        String logsTransport = agentProperties.getProperty(LOGS_TRANSPORT_PROPERTY);
+        String logsFlushInterval = agentProperties.getProperty(PERFORMANCE_LOGS_FLUSH_INTERVAL_PROPERTY);
+        String artifactUploadThreads = agentProperties.getProperty(PERFORMANCE_ARTIFACT_UPLOAD_THREADS_PROPERTY);
+        String hotReload = agentProperties.getProperty(PERFORMANCE_HOT_RELOAD_PROPERTY);
+        String forwardingPort = agentProperties.getProperty(FORWARDING_PORT_PROPERTY);
 
         if (enabled != null && !"true".equalsIgnoreCase(enabled) && !"false".equalsIgnoreCase(enabled)) {
             throw new TestAgentException("Properties configuration is malformed, skipping");
@@ -46,20 +93,31 @@ public class PropertiesConfigurationProvider implements ConfigurationProvider {
                                      .reportingEnabled(reportingEnabled)
                                      .projectKey(projectKey)
                                      .server(new ReportingConfiguration.ServerConfiguration(hostname, accessToken))
-                                     .run(new ReportingConfiguration.RunConfiguration(displayName, build, environment))
-                                     .rerun(new ReportingConfiguration.RerunConfiguration(runId))
+                                     .run(new ReportingConfiguration.RunConfiguration(
+                                             displayName, build, environment, historyRunId, forkCoordinationFile
+                                     ))
+                                     .rerun(new ReportingConfiguration.RerunConfiguration(
+                                             runId, rerunTimeout, rerunRetries, rerunCacheDirectory, rerunFailureMode,
+                                             rerunShardIndex, rerunShardCount, rerunShardBalancing
+                                     ))
+                                     .session(new ReportingConfiguration.SessionConfiguration(
+                                             excludedCapabilities, capabilityMaxLength
+                                     ))
+                                     .context(new ReportingConfiguration.ContextConfiguration(
+                                             contextPropagation, completedTestsRetention
+                                     ))
+                                     .metrics(new ReportingConfiguration.MetricsConfiguration(metricsLogInterval))
+                                     .logs(new ReportingConfiguration.LogsConfiguration(logsTransport))
+                                     .performance(new ReportingConfiguration.PerformanceConfiguration(
+                                             logsFlushInterval, artifactUploadThreads, hotReload
+                                     ))
+                                     .forwarding(new ReportingConfiguration.ForwardingConfiguration(forwardingPort))
                                      .build();
     }
 
-    private Properties loadProperties() {
+    private static Properties parseProperties(InputStream inputStream) throws IOException {
         Properties properties = new Properties();
-        try (InputStream resource = getClass().getClassLoader().getResourceAsStream(DEFAULT_FILE_NAME)) {
-            if (resource != null) {
-                properties.load(resource);
-            }
-        } catch (IOException e) {
-            throw new TestAgentException("Unable to load agent configuration from properties file");
-        }
+        properties.load(inputStream);
         return properties;
     }
 
@@ -18,6 +18,31 @@ public class SystemPropertiesConfigurationProvider implements ConfigurationProvi
 
     private final static String RUN_ID_PROPERTY = "reporting.rerun.runId";
 
+    private final static String SESSION_EXCLUDED_CAPABILITIES_PROPERTY = "reporting.session.excludedCapabilities";
+    private final static String SESSION_CAPABILITY_MAX_LENGTH_PROPERTY = "reporting.session.capabilityMaxLength";
+
+    private final static String CONTEXT_PROPAGATION_PROPERTY = "reporting.context.propagation";
+    private final static String CONTEXT_COMPLETED_TESTS_RETENTION_PROPERTY = "reporting.context.completedTestsRetention";
+    private final static String RERUN_TIMEOUT_PROPERTY = "reporting.rerun.timeout";
+    private final static String RERUN_RETRIES_PROPERTY = "reporting.rerun.retries";
+    private final static String RERUN_CACHE_DIRECTORY_PROPERTY = "reporting.rerun.cacheDirectory";
+    private final static String RERUN_FAILURE_MODE_PROPERTY = "reporting.rerun.failureMode";
+    private final static String RERUN_SHARD_INDEX_PROPERTY = "reporting.rerun.shardIndex";
+    private final static String RERUN_SHARD_COUNT_PROPERTY = "reporting.rerun.shardCount";
+    private final static String RERUN_SHARD_BALANCING_PROPERTY = "reporting.rerun.shardBalancing";
+    private final static String RUN_HISTORY_RUN_ID_PROPERTY = "reporting.run.historyRunId";
+    private final static String RUN_FORK_COORDINATION_FILE_PROPERTY = "reporting.run.forkCoordinationFile";
+
+    private final static String METRICS_LOG_INTERVAL_PROPERTY = "reporting.metrics.logInterval";
+
+    private final static String LOGS_TRANSPORT_PROPERTY = "reporting.logs.transport";
+
+    private final static String PERFORMANCE_LOGS_FLUSH_INTERVAL_PROPERTY = "reporting.performance.logsFlushInterval";
+    private final static String PERFORMANCE_ARTIFACT_UPLOAD_THREADS_PROPERTY = "reporting.performance.artifactUploadThreads";
+    private final static String PERFORMANCE_HOT_RELOAD_PROPERTY = "reporting.performance.hotReload";
+
+    private final static String FORWARDING_PORT_PROPERTY = "reporting.forwarding.port";
+
     @Override
     public ReportingConfiguration getConfiguration() {
         String enabled = System.getProperty(ENABLED_PROPERTY);
@@ -28,6 +53,25 @@ public class SystemPropertiesConfigurationProvider implements ConfigurationProvi
         String build = System.getProperty(RUN_BUILD_PROPERTY);
         String environment = System.getProperty(RUN_ENVIRONMENT_PROPERTY);
         String runId = System.getProperty(RUN_ID_PROPERTY);
+        String excludedCapabilities = System.getProperty(SESSION_EXCLUDED_CAPABILITIES_PROPERTY);
+        String capabilityMaxLength = System.getProperty(SESSION_CAPABILITY_MAX_LENGTH_PROPERTY);
+        String contextPropagation = System.getProperty(CONTEXT_PROPAGATION_PROPERTY);
+        String completedTestsRetention = System.getProperty(CONTEXT_COMPLETED_TESTS_RETENTION_PROPERTY);
+        String rerunTimeout = System.getProperty(RERUN_TIMEOUT_PROPERTY);
+        String rerunRetries = System.getProperty(RERUN_RETRIES_PROPERTY);
+        String rerunCacheDirectory = System.getProperty(RERUN_CACHE_DIRECTORY_PROPERTY);
+        String rerunFailureMode = System.getProperty(RERUN_FAILURE_MODE_PROPERTY);
+        String rerunShardIndex = System.getProperty(RERUN_SHARD_INDEX_PROPERTY);
+        String rerunShardCount = System.getProperty(RERUN_SHARD_COUNT_PROPERTY);
+        String rerunShardBalancing = System.getProperty(RERUN_SHARD_BALANCING_PROPERTY);
+        String historyRunId = System.getProperty(RUN_HISTORY_RUN_ID_PROPERTY);
+        String forkCoordinationFile = System.getProperty(RUN_FORK_COORDINATION_FILE_PROPERTY);
+        String metricsLogInterval = System.getProperty(METRICS_LOG_INTERVAL_PROPERTY);
+        String logsTransport = System.getProperty(LOGS_TRANSPORT_PROPERTY);
+        String logsFlushInterval = System.getProperty(PERFORMANCE_LOGS_FLUSH_INTERVAL_PROPERTY);
+        String artifactUploadThreads = System.getProperty(PERFORMANCE_ARTIFACT_UPLOAD_THREADS_PROPERTY);
+        String hotReload = System.getProperty(PERFORMANCE_HOT_RELOAD_PROPERTY);
+        String forwardingPort = System.getProperty(FORWARDING_PORT_PROPERTY);
 
         if (enabled != null && !"true".equalsIgnoreCase(enabled) && !"false".equalsIgnoreCase(enabled)) {
             throw new TestAgentException("System properties configuration is malformed, skipping");
@@ -38,8 +82,25 @@ public class SystemPropertiesConfigurationProvider implements ConfigurationProvi
                                      .reportingEnabled(reportingEnabled)
                                      .projectKey(projectKey)
                                      .server(new ReportingConfiguration.ServerConfiguration(hostname, accessToken))
-                                     .run(new ReportingConfiguration.RunConfiguration(displayName, build, environment))
-                                     .rerun(new ReportingConfiguration.RerunConfiguration(runId))
+                                     .run(new ReportingConfiguration.RunConfiguration(
+                                             displayName, build, environment, historyRunId, forkCoordinationFile
+                                     ))
+                                     .rerun(new ReportingConfiguration.RerunConfiguration(
+                                             runId, rerunTimeout, rerunRetries, rerunCacheDirectory, rerunFailureMode,
+                                             rerunShardIndex, rerunShardCount, rerunShardBalancing
+                                     ))
+                                     .session(new ReportingConfiguration.SessionConfiguration(
+                                             excludedCapabilities, capabilityMaxLength
+                                     ))
+                                     .context(new ReportingConfiguration.ContextConfiguration(
+                                             contextPropagation, completedTestsRetention
+                                     ))
+                                     .metrics(new ReportingConfiguration.MetricsConfiguration(metricsLogInterval))
+                                     .logs(new ReportingConfiguration.LogsConfiguration(logsTransport))
+                                     .performance(new ReportingConfiguration.PerformanceConfiguration(
+                                             logsFlushInterval, artifactUploadThreads, hotReload
+                                     ))
+                                     .forwarding(new ReportingConfiguration.ForwardingConfiguration(forwardingPort))
                                      .build();
     }
 
@@ -5,10 +5,8 @@ import com.zebrunner.agent.core.config.ReportingConfiguration;
 import com.zebrunner.agent.core.exception.TestAgentException;
 import org.yaml.snakeyaml.Yaml;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 
 public class YamlConfigurationProvider implements ConfigurationProvider {
@@ -25,12 +23,40 @@ public class YamlConfigurationProvider implements ConfigurationProvider {
 
     private final static String RERUN_RUN_ID_PROPERTY = "reporting.rerun.run-id";
 
+    private final static String SESSION_EXCLUDED_CAPABILITIES_PROPERTY = "reporting.session.excluded-capabilities";
+    private final static String SESSION_CAPABILITY_MAX_LENGTH_PROPERTY = "reporting.session.capability-max-length";
+
+    private final static String CONTEXT_PROPAGATION_PROPERTY = "reporting.context.propagation";
+    private final static String CONTEXT_COMPLETED_TESTS_RETENTION_PROPERTY = "reporting.context.completed-tests-retention";
+    private final static String RERUN_TIMEOUT_PROPERTY = "reporting.rerun.timeout";
+    private final static String RERUN_RETRIES_PROPERTY = "reporting.rerun.retries";
+    private final static String RERUN_CACHE_DIRECTORY_PROPERTY = "reporting.rerun.cache-directory";
+    private final static String RERUN_FAILURE_MODE_PROPERTY = "reporting.rerun.failure-mode";
+    private final static String RERUN_SHARD_INDEX_PROPERTY = "reporting.rerun.shard-index";
+    private final static String RERUN_SHARD_COUNT_PROPERTY = "reporting.rerun.shard-count";
+    private final static String RERUN_SHARD_BALANCING_PROPERTY = "reporting.rerun.shard-balancing";
+    private final static String RUN_HISTORY_RUN_ID_PROPERTY = "reporting.run.history-run-id";
+    private final static String RUN_FORK_COORDINATION_FILE_PROPERTY = "reporting.run.fork-coordination-file";
+
+    private final static String METRICS_LOG_INTERVAL_PROPERTY = "reporting.metrics.log-interval";
+
+    private final static String LOGS_TRANSPORT_PROPERTY = "reporting.logs.transport";
+
+    private final static String PERFORMANCE_LOGS_FLUSH_INTERVAL_PROPERTY = "reporting.performance.logs-flush-interval";
+    private final static String PERFORMANCE_ARTIFACT_UPLOAD_THREADS_PROPERTY = "reporting.performance.artifact-upload-threads";
+    private final static String PERFORMANCE_HOT_RELOAD_PROPERTY = "reporting.performance.hot-reload";
+
+    private final static String FORWARDING_PORT_PROPERTY = "reporting.forwarding.port";
+
     private static final String[] DEFAULT_FILE_NAMES = {"agent.yaml", "agent.yml"};
-    private static final Yaml YAML_MAPPER = new Yaml();
+    // SnakeYAML is initialized only if there is a file to parse
+    private static final ParsedResource<Map<String, Object>> AGENT_YAML = new ParsedResource<>(
+            DEFAULT_FILE_NAMES, YamlConfigurationProvider::parseYaml, Collections.emptyMap()
+    );
 
     @Override
     public ReportingConfiguration getConfiguration() {
-        Map<String, Object> yamlProperties = loadYaml();
+        Map<String, Object> yamlProperties = AGENT_YAML.get();
 
         String enabled = getProperty(yamlProperties, ENABLED_PROPERTY);
         String projectKey = getProperty(yamlProperties, PROJECT_KEY_PROPERTY);
@@ -40,6 +66,25 @@ public class YamlConfigurationProvider implements ConfigurationProvider {
         String build = getProperty(yamlProperties, RUN_BUILD_PROPERTY);
         String environment = getProperty(yamlProperties, RUN_ENVIRONMENT_PROPERTY);
         String runId = getProperty(yamlProperties, RERUN_RUN_ID_PROPERTY);
+        String excludedCapabilities = getProperty(yamlProperties, SESSION_EXCLUDED_CAPABILITIES_PROPERTY);
+        String capabilityMaxLength = getProperty(yamlProperties, SESSION_CAPABILITY_MAX_LENGTH_PROPERTY);
+        String contextPropagation = getProperty(yamlProperties, CONTEXT_PROPAGATION_PROPERTY);
+        String completedTestsRetention = getProperty(yamlProperties, CONTEXT_COMPLETED_TESTS_RETENTION_PROPERTY);
+        String rerunTimeout = getProperty(yamlProperties, RERUN_TIMEOUT_PROPERTY);
+        String rerunRetries = getProperty(yamlProperties, RERUN_RETRIES_PROPERTY);
+        String rerunCacheDirectory = getProperty(yamlProperties, RERUN_CACHE_DIRECTORY_PROPERTY);
+        String rerunFailureMode = getProperty(yamlProperties, RERUN_FAILURE_MODE_PROPERTY);
+        String rerunShardIndex = getProperty(yamlProperties, RERUN_SHARD_INDEX_PROPERTY);
+        String rerunShardCount = getProperty(yamlProperties, RERUN_SHARD_COUNT_PROPERTY);
+        String rerunShardBalancing = getProperty(yamlProperties, RERUN_SHARD_BALANCING_PROPERTY);
+        String historyRunId = getProperty(yamlProperties, RUN_HISTORY_RUN_ID_PROPERTY);
+        String forkCoordinationFile = getProperty(yamlProperties, RUN_FORK_COORDINATION_FILE_PROPERTY);
+        String metricsLogInterval = getProperty(yamlProperties, METRICS_LOG_INTERVAL_PROPERTY);
+        String logsTransport = getProperty(yamlProperties, LOGS_TRANSPORT_PROPERTY);
+        String logsFlushInterval = getProperty(yamlProperties, PERFORMANCE_LOGS_FLUSH_INTERVAL_PROPERTY);
+        String artifactUploadThreads = getProperty(yamlProperties, PERFORMANCE_ARTIFACT_UPLOAD_THREADS_PROPERTY);
+        String hotReload = getProperty(yamlProperties, PERFORMANCE_HOT_RELOAD_PROPERTY);
+        String forwardingPort = getProperty(yamlProperties, FORWARDING_PORT_PROPERTY);
 
         if (enabled != null && !"true".equalsIgnoreCase(enabled) && !"false".equalsIgnoreCase(enabled)) {
             throw new TestAgentException("YAML configuration is malformed, skipping");
@@ -49,24 +94,32 @@ public class YamlConfigurationProvider implements ConfigurationProvider {
         return ReportingConfiguration.builder()
                                      .reportingEnabled(reportingEnabled)
                                      .projectKey(projectKey)
-                                     .run(new ReportingConfiguration.RunConfiguration(displayName, build, environment))
+                                     .run(new ReportingConfiguration.RunConfiguration(
+                                             displayName, build, environment, historyRunId, forkCoordinationFile
+                                     ))
                                      .server(new ReportingConfiguration.ServerConfiguration(hostname, accessToken))
-                                     .rerun(new ReportingConfiguration.RerunConfiguration(runId))
+                                     .rerun(new ReportingConfiguration.RerunConfiguration(
+                                             runId, rerunTimeout, rerunRetries, rerunCacheDirectory, rerunFailureMode,
+                                             rerunShardIndex, rerunShardCount, rerunShardBalancing
+                                     ))
+                                     .session(new ReportingConfiguration.SessionConfiguration(
+                                             excludedCapabilities, capabilityMaxLength
+                                     ))
+                                     .context(new ReportingConfiguration.ContextConfiguration(
+                                             contextPropagation, completedTestsRetention
+                                     ))
+                                     .metrics(new ReportingConfiguration.MetricsConfiguration(metricsLogInterval))
+                                     .logs(new ReportingConfiguration.LogsConfiguration(logsTransport))
+                                     .performance(new ReportingConfiguration.PerformanceConfiguration(
+                                             logsFlushInterval, artifactUploadThreads, hotReload
+                                     ))
+                                     .forwarding(new ReportingConfiguration.ForwardingConfiguration(forwardingPort))
                                      .build();
     }
 
-    private static Map<String, Object> loadYaml() {
-        for (String filename : DEFAULT_FILE_NAMES) {
-            try (InputStream resource = YamlConfigurationProvider.class.getClassLoader()
-                                                                       .getResourceAsStream(filename)) {
-                if (resource != null) {
-                    return YAML_MAPPER.load(resource);
-                }
-            } catch (IOException e) {
-                throw new TestAgentException("Unable to load agent configuration from YAML file");
-            }
-        }
-        return Collections.emptyMap();
+    private static Map<String, Object> parseYaml(InputStream inputStream) {
+        Map<String, Object> yaml = new Yaml().load(inputStream);
+        return yaml != null ? yaml : Collections.emptyMap();
     }
 
     @SuppressWarnings("unchecked")
@@ -75,7 +128,7 @@ public class YamlConfigurationProvider implements ConfigurationProvider {
 
         String[] keySlices = key.split("\\.");
 
-        Map<String, Object> slice = new HashMap<>(yamlProperties);
+        Map<String, Object> slice = yamlProperties;
         for (int i = 0; i < keySlices.length; i++) {
             String keySlice = keySlices[i];
             Object sliceValue = slice.get(keySlice);
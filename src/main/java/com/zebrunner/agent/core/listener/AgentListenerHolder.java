@@ -2,29 +2,47 @@ package com.zebrunner.agent.core.listener;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
 
+@Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class AgentListenerHolder {
 
     private static final List<RerunListener> RERUN_LISTENERS = new ArrayList<>();
+    private static final List<TestDurationListener> TEST_DURATION_LISTENERS = new ArrayList<>();
 
     static {
-        ServiceLoader<AgentListener> listeners = ServiceLoader.load(AgentListener.class);
-        listeners.forEach(AgentListenerHolder::addListener);
+        Iterator<AgentListener> listeners = ServiceLoader.load(AgentListener.class).iterator();
+        while (listeners.hasNext()) {
+            try {
+                addListener(listeners.next());
+            } catch (ServiceConfigurationError e) {
+                log.warn("Could not load agent listener", e);
+            }
+        }
     }
 
     private static void addListener(AgentListener listener) {
         if (listener instanceof RerunListener) {
             RERUN_LISTENERS.add((RerunListener) listener);
         }
+        if (listener instanceof TestDurationListener) {
+            TEST_DURATION_LISTENERS.add((TestDurationListener) listener);
+        }
     }
 
     public static List<RerunListener> getRerunListeners() {
         return RERUN_LISTENERS;
     }
 
+    public static List<TestDurationListener> getTestDurationListeners() {
+        return TEST_DURATION_LISTENERS;
+    }
+
 }
@@ -0,0 +1,13 @@
+package com.zebrunner.agent.core.listener;
+
+import com.zebrunner.agent.core.registrar.TestDurations;
+
+/**
+ * Receives durations of tests in a previous run, e.g. to schedule the longest tests first.
+ * Listeners are notified once, on test run start, and only if the durations are available.
+ */
+public interface TestDurationListener extends AgentListener {
+
+    void onTestDurations(TestDurations durations);
+
+}
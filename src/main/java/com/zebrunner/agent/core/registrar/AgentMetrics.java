@@ -0,0 +1,322 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.telemetry.TelemetryBridgeHolder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Self-metrics of the agent: latencies, errors and bytes sent per Zebrunner endpoint, state of the logs buffer
+ * and of the artifact uploads, and time test threads spent blocked in reporting calls. Recording is lock-free
+ * and costs a few counter increments per call, which is negligible compared to the calls themselves.
+ * <p>Metrics are exposed via JMX (and Micrometer or OpenTelemetry, if present) and are logged on test run finish
+ * (and periodically if configured by {@link ConfigurationHolder#getMetricsLogIntervalSeconds()}).
+ */
+@Slf4j
+final class AgentMetrics implements AgentMetricsMXBean {
+
+    static final String OBJECT_NAME = "com.zebrunner.agent:type=AgentMetrics";
+
+    private static final String ENDPOINT_HEADER_FORMAT = "%-28s %8s %8s %10s %12s %10s %10s %10s %10s%n";
+    private static final String ENDPOINT_ROW_FORMAT = "%-28s %8d %8d %10.1f %12.1f %10.1f %10.1f %10.1f %10.1f%n";
+
+    private static final AgentMetrics INSTANCE = new AgentMetrics();
+
+    static AgentMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private final long createdAt = System.nanoTime();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Map<Endpoint, EndpointMetrics> endpointToMetrics = new EnumMap<>(Endpoint.class);
+
+    private final LongAdder logsQueued = new LongAdder();
+    private final LongAdder logsSent = new LongAdder();
+    private final LongAdder logsDropped = new LongAdder();
+    private final LatencyHistogram logFlushes = new LatencyHistogram();
+
+    private final LongAdder artifactUploadsQueued = new LongAdder();
+    private final LongAdder artifactUploadsCompleted = new LongAdder();
+
+    private AgentMetrics() {
+        // the map is fully populated before the instance is published and is never modified afterwards
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpointToMetrics.put(endpoint, new EndpointMetrics());
+        }
+    }
+
+    /**
+     * Registers the metrics in platform MBean server and starts periodic logging (if configured).
+     * Subsequent invocations have no effect.
+     */
+    void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // e.g. the agent is loaded by several class loaders
+            log.debug("Agent metrics could not be registered as '{}'", OBJECT_NAME, e);
+        }
+        TelemetryBridgeHolder.bindMetrics(this);
+
+        int logIntervalSeconds = ConfigurationHolder.getMetricsLogIntervalSeconds();
+        if (logIntervalSeconds > 0) {
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "zebrunner-agent-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(
+                    () -> log.info(getSummary()), logIntervalSeconds, logIntervalSeconds, TimeUnit.SECONDS
+            );
+        }
+    }
+
+    void recordCall(Endpoint endpoint, long durationNanos, long bytesSent, boolean success) {
+        EndpointMetrics metrics = endpointToMetrics.get(endpoint);
+        metrics.latency.record(durationNanos, TimeUnit.NANOSECONDS);
+        metrics.bytesSent.add(bytesSent);
+        if (!success) {
+            metrics.errors.increment();
+        }
+    }
+
+    void recordLogQueued() {
+        logsQueued.increment();
+    }
+
+    void recordLogFlush(int logs, long durationNanos, boolean success) {
+        logFlushes.record(durationNanos, TimeUnit.NANOSECONDS);
+        if (success) {
+            logsSent.add(logs);
+        } else {
+            logsDropped.add(logs);
+        }
+    }
+
+    void recordArtifactUploadQueued() {
+        artifactUploadsQueued.increment();
+    }
+
+    void recordArtifactUploadCompleted() {
+        artifactUploadsCompleted.increment();
+    }
+
+    @Override
+    public long getLogsQueueDepth() {
+        // completions are read first, so that the depth is never negative
+        long processed = logsSent.sum() + logsDropped.sum();
+        return logsQueued.sum() - processed;
+    }
+
+    @Override
+    public long getLogsSent() {
+        return logsSent.sum();
+    }
+
+    @Override
+    public long getLogsDropped() {
+        return logsDropped.sum();
+    }
+
+    @Override
+    public long getLogFlushes() {
+        return logFlushes.getCount();
+    }
+
+    @Override
+    public double getLogFlushP95Millis() {
+        return toMillis(logFlushes.getValueAtPercentile(95));
+    }
+
+    @Override
+    public long getArtifactUploadsPending() {
+        long completed = artifactUploadsCompleted.sum();
+        return artifactUploadsQueued.sum() - completed;
+    }
+
+    @Override
+    public long getArtifactUploadsCompleted() {
+        return artifactUploadsCompleted.sum();
+    }
+
+    @Override
+    public double getArtifactUploadBytesPerSecond() {
+        long bytes = 0;
+        long micros = 0;
+        for (Endpoint endpoint : new Endpoint[]{Endpoint.TEST_RUN_ARTIFACT, Endpoint.TEST_ARTIFACT}) {
+            bytes += endpointToMetrics.get(endpoint).bytesSent.sum();
+            micros += endpointToMetrics.get(endpoint).latency.getTotalMicros();
+        }
+        return micros != 0 ? bytes * 1_000_000.0 / micros : 0;
+    }
+
+    @Override
+    public long getBytesSent() {
+        return endpointToMetrics.values()
+                                .stream()
+                                .mapToLong(metrics -> metrics.bytesSent.sum())
+                                .sum();
+    }
+
+    @Override
+    public double getBlockedMillis() {
+        return toMillis(
+                endpointToMetrics.entrySet()
+                                 .stream()
+                                 .filter(endpointMetrics -> endpointMetrics.getKey().isBlocking())
+                                 .mapToLong(endpointMetrics -> endpointMetrics.getValue().latency.getTotalMicros())
+                                 .sum()
+        );
+    }
+
+    @Override
+    public Map<String, Long> getEndpointCalls() {
+        Map<String, Long> calls = new LinkedHashMap<>();
+        endpointToMetrics.forEach((endpoint, metrics) -> calls.put(
+                endpoint.getDisplayName(), metrics.latency.getCount()
+        ));
+        return calls;
+    }
+
+    @Override
+    public Map<String, Long> getEndpointErrors() {
+        Map<String, Long> errors = new LinkedHashMap<>();
+        endpointToMetrics.forEach((endpoint, metrics) -> errors.put(
+                endpoint.getDisplayName(), metrics.errors.sum()
+        ));
+        return errors;
+    }
+
+    @Override
+    public Map<String, Double> getEndpointTotalMillis() {
+        Map<String, Double> durations = new LinkedHashMap<>();
+        endpointToMetrics.forEach((endpoint, metrics) -> durations.put(
+                endpoint.getDisplayName(), toMillis(metrics.latency.getTotalMicros())
+        ));
+        return durations;
+    }
+
+    @Override
+    public Map<String, Double> getEndpointP95Millis() {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        endpointToMetrics.forEach((endpoint, metrics) -> latencies.put(
+                endpoint.getDisplayName(), toMillis(metrics.latency.getValueAtPercentile(95))
+        ));
+        return latencies;
+    }
+
+    /**
+     * Renders human-readable summary: a table with calls, errors, KiB sent, total, 50th/95th/99th percentiles
+     * and max latency per endpoint that was called at least once, followed by logs, artifacts and blocking totals.
+     * All durations are in milliseconds.
+     *
+     * @return rendered summary
+     */
+    @Override
+    public String getSummary() {
+        double elapsedSeconds = (System.nanoTime() - createdAt) / 1e9;
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("Zebrunner agent metrics").append(System.lineSeparator())
+               .append(String.format(
+                       ENDPOINT_HEADER_FORMAT,
+                       "endpoint", "calls", "errors", "sent, KiB",
+                       "total, ms", "p50, ms", "p95, ms", "p99, ms", "max, ms"
+               ));
+
+        endpointToMetrics.forEach((endpoint, metrics) -> {
+            LatencyHistogram latency = metrics.latency;
+            if (latency.getCount() != 0) {
+                summary.append(String.format(
+                        ENDPOINT_ROW_FORMAT,
+                        endpoint.getDisplayName(),
+                        latency.getCount(),
+                        metrics.errors.sum(),
+                        metrics.bytesSent.sum() / 1024.0,
+                        toMillis(latency.getTotalMicros()),
+                        toMillis(latency.getValueAtPercentile(50)),
+                        toMillis(latency.getValueAtPercentile(95)),
+                        toMillis(latency.getValueAtPercentile(99)),
+                        toMillis(latency.getMaxMicros())
+                ));
+            }
+        });
+
+        summary.append(String.format(
+                "Logs: %d sent, %d dropped, %d queued; %d flushes, p95 %.1f ms%n",
+                getLogsSent(), getLogsDropped(), getLogsQueueDepth(), getLogFlushes(), getLogFlushP95Millis()
+        ));
+        summary.append(String.format(
+                "Artifacts: %d uploaded, %d pending; %.1f KiB/s per upload%n",
+                getArtifactUploadsCompleted(), getArtifactUploadsPending(), getArtifactUploadBytesPerSecond() / 1024
+        ));
+        // blocked time is summed over all test threads, so it may exceed the elapsed time
+        summary.append(String.format(
+                "Total: %.1f KiB sent in %.1f s; test threads were blocked in reporting calls for %.1f ms",
+                getBytesSent() / 1024.0, elapsedSeconds, getBlockedMillis()
+        ));
+        return summary.toString();
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Zebrunner endpoints called by the agent. Blocking endpoints are called synchronously by test
+     * (or test framework) threads, the others are called in background.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    enum Endpoint {
+
+        AUTH_REFRESH("auth refresh", true),
+        TEST_RUN_START("test run start", true),
+        TEST_RUN_FINISH("test run finish", true),
+        TEST_START("test start", true),
+        HEADLESS_TEST_UPDATE("headless test update", true),
+        TEST_REVERT("test revert", true),
+        TEST_FINISH("test finish", true),
+        LOGS("logs", false),
+        SCREENSHOT("screenshot", true),
+        TEST_RUN_ARTIFACT("test run artifact", false),
+        TEST_ARTIFACT("test artifact", false),
+        TEST_RUN_ARTIFACT_REFERENCE("test run artifact reference", true),
+        TEST_ARTIFACT_REFERENCE("test artifact reference", true),
+        TEST_RUN_LABELS("test run labels", true),
+        TEST_LABELS("test labels", true),
+        TESTS_BY_CI_RUN_ID("tests by ci run id", false),
+        SESSION_START("session start", true),
+        SESSION_UPDATE("session update", true);
+
+        private final String displayName;
+        private final boolean blocking;
+
+    }
+
+    private static class EndpointMetrics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+
+    }
+
+}
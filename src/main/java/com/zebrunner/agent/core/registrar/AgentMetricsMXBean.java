@@ -0,0 +1,72 @@
+package com.zebrunner.agent.core.registrar;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing overhead of the agent itself. Registered as
+ * {@value AgentMetrics#OBJECT_NAME} in the platform MBean server, so that it can be observed via JConsole,
+ * VisualVM or any JMX exporter while tests are running. All durations are in milliseconds.
+ */
+public interface AgentMetricsMXBean {
+
+    /**
+     * @return number of log events buffered but not yet sent to Zebrunner
+     */
+    long getLogsQueueDepth();
+
+    long getLogsSent();
+
+    /**
+     * @return number of log events that were not accepted by Zebrunner
+     */
+    long getLogsDropped();
+
+    long getLogFlushes();
+
+    double getLogFlushP95Millis();
+
+    /**
+     * @return number of artifact uploads waiting for an upload thread or being uploaded
+     */
+    long getArtifactUploadsPending();
+
+    long getArtifactUploadsCompleted();
+
+    /**
+     * @return bytes uploaded per second of upload time (i.e. throughput of a single upload)
+     */
+    double getArtifactUploadBytesPerSecond();
+
+    long getBytesSent();
+
+    /**
+     * @return total time test threads spent blocked in synchronous calls to Zebrunner
+     */
+    double getBlockedMillis();
+
+    /**
+     * @return number of calls per endpoint
+     */
+    Map<String, Long> getEndpointCalls();
+
+    /**
+     * @return number of failed calls (non-2xx responses and I/O errors) per endpoint
+     */
+    Map<String, Long> getEndpointErrors();
+
+    /**
+     * @return total duration of calls per endpoint
+     */
+    Map<String, Double> getEndpointTotalMillis();
+
+    /**
+     * @return 95th percentile of call latency per endpoint
+     */
+    Map<String, Double> getEndpointP95Millis();
+
+    /**
+     * @return human-readable summary of all the metrics
+     */
+    String getSummary();
+
+}
@@ -1,5 +1,7 @@
 package com.zebrunner.agent.core.registrar;
 
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.config.PerformanceSettings;
 import com.zebrunner.agent.core.exception.ArtifactUploadException;
 import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
@@ -15,19 +17,42 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class Artifact {
 
-    private static final ExecutorService UPLOAD_EXECUTOR = Executors.newFixedThreadPool(8);
+    private static final ThreadPoolExecutor UPLOAD_EXECUTOR = newUploadExecutor(
+            ConfigurationHolder.getPerformanceSettings().getArtifactUploadThreads()
+    );
     private static final ZebrunnerApiClient API_CLIENT = ZebrunnerApiClient.getInstance();
+    private static final AgentMetrics METRICS = AgentMetrics.getInstance();
 
     static {
         Runtime.getRuntime().addShutdownHook(new Thread(Artifact::shutdown));
+        ConfigurationHolder.addPerformanceSettingsListener(Artifact::resizeUploadExecutor);
+    }
+
+    private static ThreadPoolExecutor newUploadExecutor(int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Core pool size may not exceed max pool size, so the order of their changes depends on the direction of resize.
+     * Redundant threads are terminated once they finish their current uploads.
+     */
+    private static synchronized void resizeUploadExecutor(PerformanceSettings settings) {
+        int threads = settings.getArtifactUploadThreads();
+        if (threads > UPLOAD_EXECUTOR.getMaximumPoolSize()) {
+            UPLOAD_EXECUTOR.setMaximumPoolSize(threads);
+            UPLOAD_EXECUTOR.setCorePoolSize(threads);
+        } else if (threads < UPLOAD_EXECUTOR.getMaximumPoolSize()) {
+            UPLOAD_EXECUTOR.setCorePoolSize(threads);
+            UPLOAD_EXECUTOR.setMaximumPoolSize(threads);
+        }
     }
 
     private static void shutdown() {
@@ -44,7 +69,7 @@ public final class Artifact {
     public static void attachToTestRun(String name, InputStream artifact) {
         Long testRunId = RunContext.getZebrunnerRunId();
 
-        UPLOAD_EXECUTOR.execute(() -> API_CLIENT.uploadTestRunArtifact(artifact, name, testRunId));
+        upload(() -> API_CLIENT.uploadTestRunArtifact(artifact, name, testRunId));
     }
 
     public static void attachToTestRun(String name, byte[] artifact) {
@@ -79,9 +104,7 @@ public final class Artifact {
 
         RunContext.getCurrentTest()
                   .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(testId -> UPLOAD_EXECUTOR.execute(
-                          () -> API_CLIENT.uploadTestArtifact(artifact, name, runId, testId))
-                  );
+                  .ifPresent(testId -> upload(() -> API_CLIENT.uploadTestArtifact(artifact, name, runId, testId)));
     }
 
     public static void attachToTest(String name, byte[] artifact) {
@@ -104,6 +127,15 @@ public final class Artifact {
         }
     }
 
+    /**
+     * Attaches the artifact to given test, which is not necessarily the current one (e.g. it may be already finished).
+     */
+    static void attachToTest(Long testId, String name, byte[] artifact) {
+        Long runId = RunContext.getZebrunnerRunId();
+
+        upload(() -> API_CLIENT.uploadTestArtifact(new ByteArrayInputStream(artifact), name, runId, testId));
+    }
+
     public static void attachReferenceToTest(String name, String reference) {
         ArtifactReferenceDTO artifactReference = validateAndConvert(name, reference);
         Long runId = RunContext.getZebrunnerRunId();
@@ -113,6 +145,17 @@ public final class Artifact {
                   .ifPresent(testId -> API_CLIENT.attachArtifactReferenceToTest(runId, testId, artifactReference));
     }
 
+    private static void upload(Runnable upload) {
+        METRICS.recordArtifactUploadQueued();
+        UPLOAD_EXECUTOR.execute(() -> {
+            try {
+                upload.run();
+            } finally {
+                METRICS.recordArtifactUploadCompleted();
+            }
+        });
+    }
+
     private static ArtifactReferenceDTO validateAndConvert(String name, String reference) {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Artifact reference name is not provided.");
@@ -0,0 +1,63 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.openqa.selenium.Capabilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Captures driver capabilities once per session start. Capabilities listed in
+ * {@link ConfigurationHolder#getSessionExcludedCapabilities()} are dropped, and string values (e.g. base64-encoded
+ * browser extensions) longer than {@link ConfigurationHolder#getSessionCapabilityMaxLength()} are trimmed
+ * at any level of nesting.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class CapabilitiesSnapshot {
+
+    private static final Set<String> EXCLUDED_CAPABILITIES = ConfigurationHolder.getSessionExcludedCapabilities();
+    private static final int MAX_VALUE_LENGTH = ConfigurationHolder.getSessionCapabilityMaxLength();
+
+    static Map<String, Object> of(Capabilities capabilities) {
+        if (capabilities == null) {
+            return null;
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        capabilities.asMap().forEach((name, value) -> {
+            if (!EXCLUDED_CAPABILITIES.contains(name)) {
+                snapshot.put(name, trim(value));
+            }
+        });
+        return snapshot;
+    }
+
+    private static Object trim(Object value) {
+        if (value instanceof CharSequence) {
+            return trim((CharSequence) value);
+        } else if (value instanceof Map) {
+            Map<Object, Object> trimmed = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((key, nestedValue) -> trimmed.put(key, trim(nestedValue)));
+            return trimmed;
+        } else if (value instanceof Collection) {
+            List<Object> trimmed = new ArrayList<>(((Collection<?>) value).size());
+            ((Collection<?>) value).forEach(element -> trimmed.add(trim(element)));
+            return trimmed;
+        }
+        return value;
+    }
+
+    private static Object trim(CharSequence value) {
+        if (MAX_VALUE_LENGTH > 0 && value.length() > MAX_VALUE_LENGTH) {
+            return value.subSequence(0, MAX_VALUE_LENGTH) + "... (" + value.length() + " characters in total)";
+        }
+        return value.toString();
+    }
+
+}
@@ -8,13 +8,17 @@ import lombok.NoArgsConstructor;
 public class CurrentTest {
 
     private static final ZebrunnerApiClient API_CLIENT = ZebrunnerApiClient.getInstance();
+    private static final DriverSessionRegistrar DRIVER_SESSION_REGISTRAR = DriverSessionRegistrar.getInstance();
 
     public static void revertRegistration() {
         Long runId = RunContext.getZebrunnerRunId();
 
         RunContext.removeCurrentTest()
                   .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(currentTestId -> API_CLIENT.revertTestRegistration(runId, currentTestId));
+                  .ifPresent(currentTestId -> {
+                      API_CLIENT.revertTestRegistration(runId, currentTestId);
+                      DRIVER_SESSION_REGISTRAR.releaseTestSessions(currentTestId);
+                  });
     }
 
 }
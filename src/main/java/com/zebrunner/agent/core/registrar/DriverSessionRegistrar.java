@@ -20,6 +20,24 @@ public interface DriverSessionRegistrar {
 
     void linkAllCurrentToTest(Long zebrunnerTestId);
 
+    /**
+     * Stops tracking sessions started in scope of given test as the ones owned by the test. Should be called
+     * once the test is finished or reverted. The sessions that are still open are linked to the tests using them.
+     *
+     * @param zebrunnerTestId id of the finished test
+     */
+    void releaseTestSessions(Long zebrunnerTestId);
+
     void linkToCurrentTest(String sessionId);
 
+    /**
+     * Records latency of a command issued by driver in scope of given session. Recorded latencies are summarized
+     * and attached to the test run when the session is closed.
+     *
+     * @param sessionId     driver session id
+     * @param command       name of the command (driver method)
+     * @param durationNanos command duration in nanoseconds
+     */
+    void registerCommand(String sessionId, String command, long durationNanos);
+
 }
@@ -1,14 +1,19 @@
 package com.zebrunner.agent.core.registrar;
 
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.config.PerformanceSettings;
 import com.zebrunner.agent.core.logging.Log;
 import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -16,7 +21,8 @@ import java.util.function.Function;
 /**
  * Effectively acts as an in-memory buffer for logs generated in scope of test run that is meant to reduce
  * number of outgoing requests issued to Zebrunner
- * <p>The {@code scheduleFlush} method schedules logs transfer with configurable delay.
+ * <p>The {@code scheduleFlush} method schedules logs transfer with configurable delay. The flushes are rescheduled
+ * if the delay is changed by hot reload of performance settings.
  *
  * @param <E> the type of the input to the log event converter function
  */
@@ -25,9 +31,11 @@ final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
 
     private static final ScheduledExecutorService FLUSH_EXECUTOR = Executors.newScheduledThreadPool(4);
     private static final ZebrunnerApiClient API_CLIENT = ZebrunnerApiClient.getInstance();
+    private static final AgentMetrics METRICS = AgentMetrics.getInstance();
     private static final AtomicBoolean EXECUTOR_ENABLED = new AtomicBoolean();
 
-    private static volatile Queue<Log> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final Queue<Log> QUEUE = new ConcurrentLinkedQueue<>();
+    private static ScheduledFuture<?> FLUSH_TASK;
     private final Function<E, Log> converter;
 
     /**
@@ -55,6 +63,7 @@ final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
             log.setTestId(String.valueOf(currentTest.get().getZebrunnerId()));
 
             QUEUE.add(log);
+            METRICS.recordLogQueued();
 
             // lazily enables buffer and schedules flushes on the very first event to be buffered
             if (EXECUTOR_ENABLED.compareAndSet(false, true)) {
@@ -64,15 +73,45 @@ final class FlushingLogsBuffer<E> implements LogsBuffer<E> {
     }
 
     private static void scheduleFlush() {
-        FLUSH_EXECUTOR.scheduleWithFixedDelay(FlushingLogsBuffer::flush, 1, 1, TimeUnit.SECONDS);
+        ConfigurationHolder.addPerformanceSettingsListener(FlushingLogsBuffer::rescheduleFlush);
+        rescheduleFlush(ConfigurationHolder.getPerformanceSettings());
     }
 
+    private static synchronized void rescheduleFlush(PerformanceSettings settings) {
+        if (FLUSH_TASK != null) {
+            FLUSH_TASK.cancel(false);
+        }
+        if (!FLUSH_EXECUTOR.isShutdown()) {
+            long intervalMillis = settings.getLogsFlushIntervalMillis();
+            FLUSH_TASK = FLUSH_EXECUTOR.scheduleWithFixedDelay(
+                    FlushingLogsBuffer::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    /**
+     * Sends the logs queued so far. The logs are drained from the queue one by one, so that logs added concurrently
+     * either become part of the batch or stay in the queue until the next flush.
+     * <p>A failed batch is dropped. Exceptions are not propagated, since otherwise subsequent flushes are not executed.
+     */
     private static void flush() {
         if (!QUEUE.isEmpty()) {
             Long runId = RunContext.getZebrunnerRunId();
-            Queue<Log> logsBatch = QUEUE;
-            QUEUE = new ConcurrentLinkedQueue<>();
-            API_CLIENT.sendLogs(logsBatch, runId);
+            List<Log> logsBatch = new ArrayList<>();
+            Log logEntry;
+            while ((logEntry = QUEUE.poll()) != null) {
+                logsBatch.add(logEntry);
+            }
+
+            long startedAt = System.nanoTime();
+            boolean sent = false;
+            try {
+                sent = API_CLIENT.sendLogs(logsBatch, runId);
+            } catch (RuntimeException e) {
+                log.error("Could not send a batch of test logs", e);
+            } finally {
+                METRICS.recordLogFlush(logsBatch.size(), System.nanoTime() - startedAt, sent);
+            }
         }
     }
 
@@ -0,0 +1,462 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets test JVMs forked by a build tool (e.g. Gradle or Surefire) report into a single test run. The forks share
+ * a coordination file: the first fork claims the file, authenticates, resolves rerun plan and registers the run
+ * as usual, and then publishes the run id, its access token and the rerun plan in the file. The other forks wait
+ * for the run to be published and join it, skipping these calls, and the run is finished by the last fork leaving it.
+ * <p>Access to the file is serialized by a lock of a sibling {@code .lock} file, which is held only while the file
+ * is read and written. Every fork sharing the run is recorded in the file as an owner (process id and host) and
+ * refreshes its heartbeat periodically. An owner is considered gone if its heartbeat is older than a TTL
+ * or its process is not alive, so a crashed fork neither keeps the run from being finished by the remaining forks
+ * nor makes forks of the next build join a run nobody reports into. A file written by another build (see
+ * {@link #BUILD}) or without live owners is stale and is replaced by a new run.
+ * <p>Once the run is finished, the file is deleted, so forks started after that (e.g. when forks are run one by one)
+ * register a new run. The file must be unique to the build, e.g. be located in the build directory.
+ */
+@Slf4j
+final class ForkCoordinator {
+
+    private static final long LOCK_POLL_MILLIS = 50;
+    // the lock is held only while the file is read and written
+    private static final long LOCK_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    // the first fork may wait for rerun plan and test framework initialization before the run is published
+    private static final long JOIN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(
+            ConfigurationHolder.getRerunTimeoutSeconds() + 60L
+    );
+    private static final long HEARTBEAT_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long OWNER_TTL_MILLIS = 6 * HEARTBEAT_INTERVAL_MILLIS;
+
+    private static final Path FILE = ConfigurationHolder.isReportingEnabled()
+            ? ConfigurationHolder.getRunForkCoordinationFile()
+            : null;
+    private static final ObjectMapperImpl OBJECT_MAPPER = new ObjectMapperImpl();
+    // forks of a build share configuration, so a file written with other values belongs to another build
+    private static final String BUILD = Arrays.asList(
+            System.getProperty("ci_run_id"),
+            ConfigurationHolder.getProjectKey(),
+            ConfigurationHolder.getRunBuild(),
+            ConfigurationHolder.getRunEnvironment(),
+            ConfigurationHolder.getRerunRunId()
+    ).toString();
+    private static final Owner SELF = Owner.current();
+
+    private static final AtomicBoolean JOINING = new AtomicBoolean();
+    private static final CompletableFuture<SharedRun> JOINED_RUN = new CompletableFuture<>();
+
+    // guarded by the class lock
+    private static SharedRun joinedRun;
+    private static boolean claimed;
+    private static boolean published;
+    private static FileChannel lockChannel;
+    private static FileLock lock;
+    private static ScheduledFuture<?> heartbeat;
+
+    /**
+     * Joins the run shared by the forks. The first invocation waits (for at most the join timeout) while the run
+     * is being registered by another fork, and concurrent invocations wait for the first one. The file is not locked
+     * while waiting, and callers should not hold their own locks either, so that unrelated threads are not blocked.
+     *
+     * @return run registered by another fork, {@code null} if this fork must register the run itself
+     */
+    static SharedRun getJoinedRun() {
+        if (FILE == null) {
+            return null;
+        }
+        if (JOINING.compareAndSet(false, true)) {
+            SharedRun run = null;
+            try {
+                run = join();
+            } finally {
+                JOINED_RUN.complete(run);
+            }
+        }
+        return JOINED_RUN.join();
+    }
+
+    private static SharedRun join() {
+        long deadline = System.currentTimeMillis() + JOIN_TIMEOUT_MILLIS;
+        try {
+            while (!tryJoin()) {
+                if (System.currentTimeMillis() > deadline) {
+                    log.warn("Test run shared via {} was not published within {} ms, "
+                            + "this fork will register its own test run", FILE, JOIN_TIMEOUT_MILLIS);
+                    return null;
+                }
+                Thread.sleep(LOCK_POLL_MILLIS);
+            }
+            return getJoinedRunIfAny();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not join test run shared via {}, this fork will register its own test run", FILE, e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Joining test run shared via {} is interrupted, this fork will register its own test run", FILE);
+            return null;
+        }
+    }
+
+    /**
+     * Either joins the run published by another fork, or claims the file, if there is no live run, so that this fork
+     * registers the run.
+     *
+     * @return {@code false} if the run is being registered by another fork
+     */
+    private static synchronized boolean tryJoin() throws IOException {
+        if (!lock()) {
+            throw new IOException("Could not lock " + FILE + " within " + LOCK_TIMEOUT_MILLIS + " ms");
+        }
+        try {
+            SharedRun run = read();
+            if (run != null && !isStale(run)) {
+                if (run.getRunId() == null) {
+                    return false;
+                }
+                run.getOwners().add(SELF.withHeartbeat());
+                write(run);
+                joinedRun = run;
+                startHeartbeat();
+                log.info("Joined test run {} shared by {} forks", run.getRunId(), run.getOwners().size());
+                return true;
+            }
+
+            List<Owner> owners = new ArrayList<>();
+            owners.add(SELF.withHeartbeat());
+            write(new SharedRun(BUILD, null, null, null, owners));
+            claimed = true;
+            startHeartbeat();
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    private static synchronized SharedRun getJoinedRunIfAny() {
+        return joinedRun;
+    }
+
+    private static boolean isStale(SharedRun run) {
+        if (!BUILD.equals(run.getBuild())) {
+            log.info("Coordination file {} belongs to another build and will be replaced", FILE);
+            return true;
+        }
+        if (run.getOwners() == null || run.getOwners().stream().noneMatch(ForkCoordinator::isAlive)) {
+            log.info("Test run {} shared via {} has no live forks and will not be joined", run.getRunId(), FILE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Publishes the run registered by this fork, so that the other forks can join it.
+     *
+     * @param rerunPlan whole (not sharded) rerun plan, {@code null} if the run is not a rerun
+     */
+    static synchronized void publish(Long runId, String authToken, List<TestDTO> rerunPlan) {
+        if (claimed && !published) {
+            try {
+                if (!lock()) {
+                    log.warn("Could not lock {} within {} ms, test run {} will not be shared",
+                            FILE, LOCK_TIMEOUT_MILLIS, runId);
+                    return;
+                }
+                SharedRun run = read();
+                if (run == null || run.getRunId() != null || !isOwner(run)) {
+                    log.warn("Coordination file {} was taken over by another fork, test run {} will not be shared",
+                            FILE, runId);
+                    return;
+                }
+                run.setRunId(runId);
+                run.setAuthToken(authToken);
+                run.setRerunPlan(rerunPlan);
+                write(run);
+                published = true;
+                log.info("Test run {} is shared with other forks via {}", runId, FILE);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not share test run {} via {}", runId, FILE, e);
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    /**
+     * Lets the other forks register the run if this fork could not register it.
+     */
+    static synchronized void abandon() {
+        if (claimed && !published) {
+            claimed = false;
+            stopHeartbeat();
+            try {
+                if (lock()) {
+                    SharedRun run = read();
+                    if (run != null && run.getRunId() == null && isOwner(run)) {
+                        Files.deleteIfExists(FILE);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not release coordination file {}", FILE, e);
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    /**
+     * Leaves the run shared by the forks. Owners which are gone (e.g. crashed forks) are removed as well.
+     *
+     * @return {@code true} if this fork must register finish of the run, i.e. it is the last live fork or the run
+     * is not shared
+     */
+    static synchronized boolean leave() {
+        if (joinedRun == null && !published) {
+            return true;
+        }
+        Long runId = joinedRun != null ? joinedRun.getRunId() : null;
+        joinedRun = null;
+        claimed = false;
+        published = false;
+        stopHeartbeat();
+        try {
+            if (!lock()) {
+                log.warn("Could not lock {} within {} ms, test run will be finished by this fork",
+                        FILE, LOCK_TIMEOUT_MILLIS);
+                return true;
+            }
+
+            SharedRun run = read();
+            if (run == null || (runId != null && !runId.equals(run.getRunId()))) {
+                return true;
+            }
+            run.getOwners().removeIf(owner -> owner.isSameProcess(SELF) || !isAlive(owner));
+            if (!run.getOwners().isEmpty()) {
+                write(run);
+                log.info("Left test run {}, it will be finished by the last of {} remaining forks",
+                        run.getRunId(), run.getOwners().size());
+                return false;
+            }
+            Files.deleteIfExists(FILE);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not leave test run shared via {}, test run will be finished by this fork", FILE, e);
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    private static void startHeartbeat() {
+        if (heartbeat == null) {
+            heartbeat = HeartbeatExecutorHolder.EXECUTOR.scheduleWithFixedDelay(
+                    ForkCoordinator::beat, HEARTBEAT_INTERVAL_MILLIS, HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    private static void stopHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+            heartbeat = null;
+        }
+    }
+
+    private static synchronized void beat() {
+        try {
+            if (lock()) {
+                SharedRun run = read();
+                if (run != null && isOwner(run)) {
+                    run.getOwners().removeIf(owner -> owner.isSameProcess(SELF));
+                    run.getOwners().add(SELF.withHeartbeat());
+                    write(run);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not refresh heartbeat in {}", FILE, e);
+        } finally {
+            unlock();
+        }
+    }
+
+    private static boolean isOwner(SharedRun run) {
+        return run.getOwners() != null && run.getOwners().stream().anyMatch(owner -> owner.isSameProcess(SELF));
+    }
+
+    private static boolean isAlive(Owner owner) {
+        if (System.currentTimeMillis() - owner.getHeartbeatAt() > OWNER_TTL_MILLIS) {
+            return false;
+        }
+        // liveness of processes of other hosts (or with unknown id) can be judged only by their heartbeats
+        return owner.getPid() < 0 || !Objects.equals(owner.getHost(), SELF.getHost())
+                || isProcessAlive(owner.getPid());
+    }
+
+    /**
+     * @return {@code false} only if the process certainly does not exist
+     */
+    private static boolean isProcessAlive(long pid) {
+        try {
+            // ProcessHandle is available since Java 9
+            Class<?> processHandleClass = Class.forName("java.lang.ProcessHandle");
+            Method of = processHandleClass.getMethod("of", long.class);
+            Optional<?> processHandle = (Optional<?>) of.invoke(null, pid);
+            return processHandle.isPresent()
+                    && (Boolean) processHandleClass.getMethod("isAlive").invoke(processHandle.get());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Path processes = Paths.get("/proc");
+            return !Files.isDirectory(processes) || Files.exists(processes.resolve(String.valueOf(pid)));
+        }
+    }
+
+    private static boolean lock() throws IOException {
+        Path lockFile = FILE.resolveSibling(FILE.getFileName() + ".lock");
+        Files.createDirectories(lockFile.getParent());
+        lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        long deadline = System.currentTimeMillis() + LOCK_TIMEOUT_MILLIS;
+        while ((lock = lockChannel.tryLock()) == null) {
+            if (System.currentTimeMillis() > deadline) {
+                unlock();
+                return false;
+            }
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                unlock();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void unlock() {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            log.debug("Could not release lock of {}", FILE, e);
+        } finally {
+            lock = null;
+            lockChannel = null;
+        }
+    }
+
+    private static SharedRun read() throws IOException {
+        if (!Files.isRegularFile(FILE)) {
+            return null;
+        }
+        String json = new String(Files.readAllBytes(FILE), StandardCharsets.UTF_8);
+        return OBJECT_MAPPER.readValue(json, SharedRun.class);
+    }
+
+    private static void write(SharedRun run) throws IOException {
+        // the file is replaced atomically, so that it is never seen partially written
+        Path temporaryFile = Files.createTempFile(FILE.getParent(), FILE.getFileName().toString(), ".tmp");
+        Files.write(temporaryFile, OBJECT_MAPPER.writeValue(run).getBytes(StandardCharsets.UTF_8));
+        Files.move(temporaryFile, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Test run registered by one of the forks.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class SharedRun {
+
+        private String build;
+        // null until the run is registered by the fork which claimed the file
+        private Long runId;
+        private String authToken;
+        private List<TestDTO> rerunPlan;
+        private List<Owner> owners;
+
+    }
+
+    /**
+     * Fork sharing the run.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Owner {
+
+        private long pid;
+        private String host;
+        private long heartbeatAt;
+
+        /**
+         * @return owner describing this JVM
+         */
+        static Owner current() {
+            // the name is "<pid>@<host>" in all known JVMs
+            String name = ManagementFactory.getRuntimeMXBean().getName();
+            int separator = name.indexOf('@');
+            try {
+                return new Owner(Long.parseLong(name.substring(0, separator)), name.substring(separator + 1), 0);
+            } catch (RuntimeException e) {
+                return new Owner(-1, name, 0);
+            }
+        }
+
+        Owner withHeartbeat() {
+            return new Owner(pid, host, System.currentTimeMillis());
+        }
+
+        boolean isSameProcess(Owner owner) {
+            return pid == owner.getPid() && Objects.equals(host, owner.getHost());
+        }
+
+    }
+
+    private static class HeartbeatExecutorHolder {
+
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "zebrunner-fork-heartbeat");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+    }
+
+}
@@ -0,0 +1,360 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.exception.TestAgentException;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import kong.unirest.GenericType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Local daemon reporting to Zebrunner on behalf of all test JVMs of the host. Test JVMs configured with
+ * the same forwarding port forward their calls to the daemon ({@link ForwardingZebrunnerApiClient}), so that
+ * authentication, http connections, logs batching and artifact uploads are shared by all of them.
+ * <p>Fire-and-forget calls (logs, screenshots, artifacts and labels) are accepted immediately. Logs of all the
+ * JVMs are merged per test run and are flushed with configured logs flush interval, and failed deliveries
+ * are retried with exponential backoff. Other calls are made right away and their results are sent back.
+ * <p>On start the daemon writes a random secret to a file readable only by its user
+ * (see {@link ForwardingProtocol#getSecretFile(int)}), and accepts only connections presenting the secret.
+ * So only test JVMs run by the same user can report through the daemon. The file is deleted on stop.
+ * <p>The daemon is configured the same way as the agent (i.e. via {@code agent.yaml}, environment variables etc.),
+ * and must use the same Zebrunner host and project as the test JVMs. To start it, run the following:
+ * <pre>
+ *     java -cp &lt;agent classpath&gt; com.zebrunner.agent.core.registrar.ForwardingDaemon
+ * </pre>
+ */
+@Slf4j
+public final class ForwardingDaemon {
+
+    private static final int MAX_LOGS_BATCH_SIZE = 1_000;
+    private static final int DELIVERY_RETRIES = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 500;
+
+    private static final GenericType<List<Log>> LOGS_TYPE = new GenericType<List<Log>>() {
+    };
+    private static final GenericType<List<LabelDTO>> LABELS_TYPE = new GenericType<List<LabelDTO>>() {
+    };
+
+    private final HttpZebrunnerApiClient client = new HttpZebrunnerApiClient(null);
+    private final ObjectMapperImpl objectMapper = new ObjectMapperImpl();
+    private final ServerSocket serverSocket;
+    private final int port;
+    private final byte[] secret;
+    private final AtomicInteger workerCount = new AtomicInteger();
+    private final ExecutorService workers = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "zebrunner-forwarding-worker-" + workerCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService logsFlusher = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "zebrunner-forwarding-logs-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, Queue<Log>> logs = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws IOException {
+        int port = ConfigurationHolder.getForwardingPort();
+        if (!ConfigurationHolder.isReportingEnabled() || port <= 0) {
+            throw new TestAgentException("Reporting must be enabled and forwarding port must be set to start daemon");
+        }
+
+        ForwardingDaemon daemon = new ForwardingDaemon(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::stop));
+        daemon.serve();
+    }
+
+    private ForwardingDaemon(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.port = port;
+        this.secret = ForwardingProtocol.createSecret(port);
+
+        long flushIntervalMillis = ConfigurationHolder.getPerformanceSettings().getLogsFlushIntervalMillis();
+        logsFlusher.scheduleWithFixedDelay(
+                this::flushLogs, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS
+        );
+        log.info("Forwarding daemon is listening on port {}", port);
+    }
+
+    private void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread connection = new Thread(() -> handle(socket), "zebrunner-forwarding-connection");
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("Could not accept connection of a test JVM", e);
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket connection = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            boolean accepted = ForwardingProtocol.readHandshake(in, secret);
+            out.writeBoolean(accepted);
+            out.flush();
+            if (!accepted) {
+                log.warn("Connection with invalid secret is rejected");
+                return;
+            }
+            while (true) {
+                ForwardingProtocol.Request request = ForwardingProtocol.readRequest(in);
+                if (request.getOperation() == null) {
+                    log.warn("Request with unknown operation is skipped, test JVM may use a newer agent");
+                    if (request.getId() != ForwardingProtocol.NO_REPLY) {
+                        writeReply(out, new ForwardingProtocol.Reply(request.getId(), false, "Unknown operation"));
+                    }
+                } else if (request.getId() == ForwardingProtocol.NO_REPLY) {
+                    try {
+                        accept(request);
+                    } catch (RuntimeException e) {
+                        // e.g. malformed arguments, other requests of the connection are not affected
+                        log.error("Could not accept forwarded {}, it is dropped", request.getOperation(), e);
+                    }
+                } else {
+                    workers.execute(() -> reply(out, request));
+                }
+            }
+        } catch (EOFException e) {
+            log.debug("Test JVM disconnected");
+        } catch (IOException e) {
+            log.warn("Connection of a test JVM is lost", e);
+        }
+    }
+
+    private void reply(DataOutputStream out, ForwardingProtocol.Request request) {
+        ForwardingProtocol.Reply reply;
+        try {
+            Object result = invoke(request);
+            reply = new ForwardingProtocol.Reply(request.getId(), true, objectMapper.writeValue(result));
+        } catch (RuntimeException e) {
+            reply = new ForwardingProtocol.Reply(request.getId(), false, e.getMessage());
+        }
+
+        writeReply(out, reply);
+    }
+
+    private void writeReply(DataOutputStream out, ForwardingProtocol.Reply reply) {
+        try {
+            synchronized (out) {
+                ForwardingProtocol.writeReply(out, reply);
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Could not reply to a test JVM", e);
+        }
+    }
+
+    private void accept(ForwardingProtocol.Request request) {
+        if (request.getOperation() == ForwardingProtocol.Operation.SEND_LOGS) {
+            Long testRunId = argument(request, 1, Long.class);
+            List<Log> runLogs = objectMapper.readValue(request.getArguments().get(0), LOGS_TYPE);
+            // atomic with removal of drained queues in flushLogs(), so that no logs are added to a removed queue
+            logs.compute(testRunId, (id, queue) -> {
+                Queue<Log> runQueue = queue != null ? queue : new ConcurrentLinkedQueue<>();
+                runQueue.addAll(runLogs);
+                return runQueue;
+            });
+        } else {
+            workers.execute(() -> deliver(request.getOperation().name(), () -> Boolean.TRUE.equals(invoke(request))));
+        }
+    }
+
+    private void flushLogs() {
+        for (Map.Entry<Long, Queue<Log>> runLogs : logs.entrySet()) {
+            Queue<Log> queue = runLogs.getValue();
+            while (!queue.isEmpty()) {
+                List<Log> batch = new ArrayList<>();
+                Log logEntry;
+                while (batch.size() < MAX_LOGS_BATCH_SIZE && (logEntry = queue.poll()) != null) {
+                    batch.add(logEntry);
+                }
+                workers.execute(() -> deliver("logs batch", () -> client.sendLogs(batch, runLogs.getKey())));
+            }
+            // queues of finished runs are not kept forever, the queue is created again if more logs come
+            logs.computeIfPresent(runLogs.getKey(), (id, runQueue) -> runQueue.isEmpty() ? null : runQueue);
+        }
+    }
+
+    /**
+     * Retries failed delivery with exponential backoff. A delivery fails if it returns {@code false}
+     * or throws an exception (e.g. if Zebrunner is not reachable).
+     */
+    private void deliver(String description, BooleanSupplier delivery) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                if (delivery.getAsBoolean()) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.debug("Attempt {} to deliver {} failed", attempt + 1, description, e);
+            }
+            if (attempt >= DELIVERY_RETRIES) {
+                log.error("Could not deliver {} after {} attempts, it is dropped", description, attempt + 1);
+                return;
+            }
+            try {
+                Thread.sleep(RETRY_BACKOFF_MILLIS << attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Object invoke(ForwardingProtocol.Request request) {
+        switch (request.getOperation()) {
+            case REGISTER_TEST_RUN_START:
+                return client.registerTestRunStart(argument(request, 0, TestRunDTO.class));
+            case REGISTER_TEST_RUN_FINISH:
+                client.registerTestRunFinish(argument(request, 0, TestRunDTO.class));
+                return null;
+            case REGISTER_TEST_START:
+                return client.registerTestStart(
+                        argument(request, 0, Long.class),
+                        argument(request, 1, TestDTO.class),
+                        argument(request, 2, Boolean.class),
+                        argument(request, 3, Boolean.class)
+                );
+            case REGISTER_HEADLESS_TEST_UPDATE:
+                return client.registerHeadlessTestUpdate(
+                        argument(request, 0, Long.class), argument(request, 1, TestDTO.class)
+                );
+            case REVERT_TEST_REGISTRATION:
+                client.revertTestRegistration(argument(request, 0, Long.class), argument(request, 1, Long.class));
+                return null;
+            case REGISTER_TEST_FINISH:
+                client.registerTestFinish(argument(request, 0, Long.class), argument(request, 1, TestDTO.class));
+                return null;
+            case SEND_LOGS:
+                return client.sendLogs(
+                        objectMapper.readValue(request.getArguments().get(0), LOGS_TYPE),
+                        argument(request, 1, Long.class)
+                );
+            case UPLOAD_SCREENSHOT:
+                return client.uploadScreenshot(
+                        request.getPayload(),
+                        argument(request, 0, Long.class),
+                        argument(request, 1, Long.class),
+                        argument(request, 2, Long.class)
+                );
+            case UPLOAD_TEST_RUN_ARTIFACT:
+                return client.uploadTestRunArtifact(
+                        new ByteArrayInputStream(request.getPayload()),
+                        argument(request, 0, String.class),
+                        argument(request, 1, Long.class)
+                );
+            case UPLOAD_TEST_ARTIFACT:
+                return client.uploadTestArtifact(
+                        new ByteArrayInputStream(request.getPayload()),
+                        argument(request, 0, String.class),
+                        argument(request, 1, Long.class),
+                        argument(request, 2, Long.class)
+                );
+            case ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN:
+                return client.attachArtifactReferenceToTestRun(
+                        argument(request, 0, Long.class), argument(request, 1, ArtifactReferenceDTO.class)
+                );
+            case ATTACH_ARTIFACT_REFERENCE_TO_TEST:
+                return client.attachArtifactReferenceToTest(
+                        argument(request, 0, Long.class),
+                        argument(request, 1, Long.class),
+                        argument(request, 2, ArtifactReferenceDTO.class)
+                );
+            case ATTACH_LABELS_TO_TEST_RUN:
+                return client.attachLabelsToTestRun(
+                        argument(request, 0, Long.class),
+                        objectMapper.readValue(request.getArguments().get(1), LABELS_TYPE)
+                );
+            case ATTACH_LABELS_TO_TEST:
+                return client.attachLabelsToTest(
+                        argument(request, 0, Long.class),
+                        argument(request, 1, Long.class),
+                        objectMapper.readValue(request.getArguments().get(2), LABELS_TYPE)
+                );
+            case GET_TESTS_BY_CI_RUN_ID:
+                List<TestDTO> tests = new ArrayList<>();
+                RerunPlanCache.Validators validators = client.getTestsByCiRunId(
+                        argument(request, 0, RerunCondition.class),
+                        argument(request, 1, RerunPlanCache.Validators.class),
+                        tests::add
+                ).orElse(null);
+                return new ForwardingProtocol.RerunPlanReply(validators, tests);
+            case START_SESSION:
+                return client.startSession(
+                        argument(request, 0, Long.class), argument(request, 1, TestSessionDTO.class)
+                );
+            case UPDATE_SESSION:
+                client.updateSession(argument(request, 0, Long.class), argument(request, 1, TestSessionDTO.class));
+                return null;
+            default:
+                throw new TestAgentException("Unknown forwarded operation " + request.getOperation());
+        }
+    }
+
+    private <T> T argument(ForwardingProtocol.Request request, int index, Class<T> type) {
+        return objectMapper.readValue(request.getArguments().get(index), type);
+    }
+
+    private void stop() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Could not close forwarding daemon socket", e);
+        }
+        try {
+            Files.deleteIfExists(ForwardingProtocol.getSecretFile(port));
+        } catch (IOException e) {
+            log.debug("Could not delete forwarding daemon secret", e);
+        }
+
+        logsFlusher.shutdown();
+        try {
+            logsFlusher.awaitTermination(10, TimeUnit.SECONDS);
+            flushLogs();
+            workers.shutdown();
+            if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            log.error(e.getMessage(), e);
+        }
+        log.info(AgentMetrics.getInstance().getSummary());
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Framing of the calls forwarded by {@link ForwardingZebrunnerApiClient} to {@link ForwardingDaemon} over
+ * a loopback connection. A request consists of its id ({@link #NO_REPLY} if the call is fire-and-forget),
+ * operation, json-encoded arguments and optional binary payload (a screenshot or an artifact). A reply consists
+ * of the id of the request, its outcome and json-encoded result or error message.
+ * <p>A connection starts with a handshake: the test JVM sends the secret generated by the daemon on start, and
+ * the daemon answers whether the secret is accepted. The secret is stored in a file readable only by the user
+ * who started the daemon ({@link #getSecretFile(int)}), so that other users of the host can not report via
+ * the daemon (and its access token).
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ForwardingProtocol {
+
+    static final int NO_REPLY = 0;
+
+    private static final int NULL_LENGTH = -1;
+    private static final int SECRET_LENGTH = 32;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    enum Operation {
+
+        REGISTER_TEST_RUN_START,
+        REGISTER_TEST_RUN_FINISH,
+        REGISTER_TEST_START,
+        REGISTER_HEADLESS_TEST_UPDATE,
+        REVERT_TEST_REGISTRATION,
+        REGISTER_TEST_FINISH,
+        SEND_LOGS,
+        UPLOAD_SCREENSHOT,
+        UPLOAD_TEST_RUN_ARTIFACT,
+        UPLOAD_TEST_ARTIFACT,
+        ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN,
+        ATTACH_ARTIFACT_REFERENCE_TO_TEST,
+        ATTACH_LABELS_TO_TEST_RUN,
+        ATTACH_LABELS_TO_TEST,
+        GET_TESTS_BY_CI_RUN_ID,
+        START_SESSION,
+        UPDATE_SESSION
+
+    }
+
+    /**
+     * @return file storing the secret of the daemon listening on given port
+     */
+    static Path getSecretFile(int port) {
+        return Paths.get(System.getProperty("java.io.tmpdir"), "zebrunner", "forwarding-" + port + ".secret");
+    }
+
+    /**
+     * Generates a new secret and stores it in the file of the daemon listening on given port.
+     *
+     * @return generated secret
+     */
+    static byte[] createSecret(int port) throws IOException {
+        byte[] secret = new byte[SECRET_LENGTH];
+        new SecureRandom().nextBytes(secret);
+
+        Path secretFile = getSecretFile(port);
+        Files.createDirectories(secretFile.getParent());
+        Files.deleteIfExists(secretFile);
+        if (secretFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(secretFile, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString("rw-------")
+            ));
+        } else {
+            // e.g. on Windows, the file inherits permissions of the user's temporary directory
+            Files.createFile(secretFile);
+        }
+        Files.write(secretFile, secret);
+        return secret;
+    }
+
+    static byte[] readSecret(int port) throws IOException {
+        return Files.readAllBytes(getSecretFile(port));
+    }
+
+    static void writeHandshake(DataOutputStream out, byte[] secret) throws IOException {
+        writeBytes(out, secret);
+    }
+
+    /**
+     * @return {@code true} if the secret sent by the test JVM matches given one
+     */
+    static boolean readHandshake(DataInputStream in, byte[] secret) throws IOException {
+        int length = in.readInt();
+        if (length != secret.length) {
+            return false;
+        }
+        byte[] sentSecret = new byte[length];
+        in.readFully(sentSecret);
+        return MessageDigest.isEqual(secret, sentSecret);
+    }
+
+    static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        out.writeInt(request.getId());
+        out.writeByte(request.getOperation().ordinal());
+        out.writeShort(request.getArguments().size());
+        for (String argument : request.getArguments()) {
+            writeBytes(out, argument.getBytes(StandardCharsets.UTF_8));
+        }
+        writeBytes(out, request.getPayload());
+    }
+
+    /**
+     * Reads a whole request, even if its operation is unknown (e.g. it is sent by a newer agent),
+     * so that the following requests can be read.
+     *
+     * @return read request, its operation is {@code null} if it is unknown
+     * @throws IOException if the connection is lost or the frame is malformed
+     */
+    static Request readRequest(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        int ordinal = in.readUnsignedByte();
+        Operation operation = ordinal < OPERATIONS.length ? OPERATIONS[ordinal] : null;
+        int argumentsCount = in.readUnsignedShort();
+        List<String> arguments = new ArrayList<>(argumentsCount);
+        for (int i = 0; i < argumentsCount; i++) {
+            arguments.add(new String(readBytes(in), StandardCharsets.UTF_8));
+        }
+        return new Request(id, operation, arguments, readBytes(in));
+    }
+
+    static void writeReply(DataOutputStream out, Reply reply) throws IOException {
+        out.writeInt(reply.getId());
+        out.writeBoolean(reply.isSuccess());
+        writeBytes(out, reply.getBody() != null ? reply.getBody().getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    static Reply readReply(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        boolean success = in.readBoolean();
+        byte[] body = readBytes(in);
+        return new Reply(id, success, body != null ? new String(body, StandardCharsets.UTF_8) : null);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Malformed frame, length of bytes is " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    @Value
+    static class Request {
+
+        int id;
+        Operation operation;
+        List<String> arguments;
+        byte[] payload;
+
+    }
+
+    @Value
+    static class Reply {
+
+        int id;
+        boolean success;
+        String body;
+
+    }
+
+    /**
+     * Result of {@link Operation#GET_TESTS_BY_CI_RUN_ID}. Validators are {@code null} if the plan is not modified.
+     */
+    @Value
+    static class RerunPlanReply {
+
+        RerunPlanCache.Validators validators;
+        List<TestDTO> tests;
+
+    }
+
+}
@@ -0,0 +1,437 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.exception.ServerException;
+import com.zebrunner.agent.core.exception.TestAgentException;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Forwards calls to {@link ForwardingDaemon} over a single loopback connection. Calls whose results are needed
+ * by the test JVM (e.g. ids of registered tests) wait for the reply of the daemon, while logs, screenshots,
+ * artifacts and labels are fire-and-forget: each of them is a single write to the connection, and the daemon
+ * batches, retries and uploads them on its own.
+ * <p>Replies are read by a dedicated thread and are matched with the waiting calls by request id, so that
+ * concurrent test threads do not wait for each other.
+ * <p>Artifacts are forwarded as a single request, so only artifacts up to {@link #MAX_FORWARDED_ARTIFACT_BYTES}
+ * are forwarded. Larger ones are streamed to Zebrunner directly, by a client created on the first such upload.
+ * <p>If the connection to the daemon is lost, or the daemon does not reply within {@link #REPLY_TIMEOUT_SECONDS},
+ * the calls waiting for replies fail, and all the following calls are made directly by the same client.
+ */
+@Slf4j
+final class ForwardingZebrunnerApiClient extends ZebrunnerApiClient {
+
+    private static final int MAX_FORWARDED_ARTIFACT_BYTES = 8 * 1024 * 1024;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5_000;
+    // daemon replies once it gets response of Zebrunner, which is not waited for longer than a minute
+    private static final long REPLY_TIMEOUT_SECONDS = 120;
+
+    private final ObjectMapperImpl objectMapper = new ObjectMapperImpl();
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<ForwardingProtocol.Reply>> pendingReplies = new ConcurrentHashMap<>();
+    // null while connection to the daemon is alive, written under the lock of this
+    private volatile IOException connectionFailure;
+    // guarded by this
+    private HttpZebrunnerApiClient directClient;
+
+    /**
+     * @throws IOException if the daemon can not be reached or does not accept the secret read from its secret file
+     */
+    ForwardingZebrunnerApiClient(int port) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        DataInputStream in;
+        try {
+            this.socket.setTcpNoDelay(true);
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            handshake(port, in);
+        } catch (IOException e) {
+            closeSocket();
+            throw e;
+        }
+
+        Thread reader = new Thread(() -> readReplies(in), "zebrunner-forwarding-reader");
+        reader.setDaemon(true);
+        reader.start();
+        log.info("Zebrunner calls are forwarded to daemon on port {}", port);
+    }
+
+    private void handshake(int port, DataInputStream in) throws IOException {
+        ForwardingProtocol.writeHandshake(out, ForwardingProtocol.readSecret(port));
+        out.flush();
+
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        boolean accepted = in.readBoolean();
+        socket.setSoTimeout(0);
+        if (!accepted) {
+            throw new IOException("Forwarding daemon on port " + port + " did not accept the secret");
+        }
+    }
+
+    private void readReplies(DataInputStream in) {
+        try {
+            while (true) {
+                ForwardingProtocol.Reply reply = ForwardingProtocol.readReply(in);
+                CompletableFuture<ForwardingProtocol.Reply> pendingReply = pendingReplies.remove(reply.getId());
+                if (pendingReply != null) {
+                    pendingReply.complete(reply);
+                }
+            }
+        } catch (IOException e) {
+            disconnect(e);
+        }
+    }
+
+    /**
+     * Closes the connection, so that the pending calls fail (they will never get a reply) and the following calls
+     * are made directly. Subsequent invocations have no effect.
+     */
+    private synchronized void disconnect(IOException cause) {
+        if (connectionFailure != null) {
+            return;
+        }
+        connectionFailure = cause;
+        log.warn("Connection to forwarding daemon is lost, Zebrunner will be called directly", cause);
+        closeSocket();
+        for (CompletableFuture<ForwardingProtocol.Reply> pendingReply : pendingReplies.values()) {
+            pendingReply.completeExceptionally(cause);
+        }
+    }
+
+    private boolean isDisconnected() {
+        return connectionFailure != null;
+    }
+
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.debug("Could not close connection to forwarding daemon", e);
+        }
+    }
+
+    /**
+     * Forwards the call and waits for its result. If the connection is lost (or the daemon does not reply in time)
+     * while the call is forwarded, the call fails, since it is not known whether it was made by the daemon.
+     *
+     * @return json-encoded result of the call
+     * @throws ServerException if the call failed
+     */
+    private String call(ForwardingProtocol.Operation operation, Object... arguments) {
+        int id = nextRequestId();
+        CompletableFuture<ForwardingProtocol.Reply> pendingReply = new CompletableFuture<>();
+        pendingReplies.put(id, pendingReply);
+        try {
+            if (connectionFailure != null) {
+                throw new TestAgentException("Connection to forwarding daemon is lost", connectionFailure);
+            }
+            write(new ForwardingProtocol.Request(id, operation, encode(arguments), null));
+            ForwardingProtocol.Reply reply = pendingReply.get(REPLY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (!reply.isSuccess()) {
+                throw new ServerException(reply.getBody());
+            }
+            return reply.getBody();
+        } catch (IOException e) {
+            disconnect(e);
+            throw new TestAgentException("Could not forward call to forwarding daemon", e);
+        } catch (ExecutionException e) {
+            throw new TestAgentException("Connection to forwarding daemon is lost", e.getCause());
+        } catch (TimeoutException e) {
+            String message = "Forwarding daemon did not reply within " + REPLY_TIMEOUT_SECONDS + " seconds";
+            disconnect(new IOException(message, e));
+            throw new TestAgentException(message, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestAgentException("Interrupted while waiting for forwarding daemon", e);
+        } finally {
+            pendingReplies.remove(id);
+        }
+    }
+
+    /**
+     * Forwards the call without waiting for its result, or makes it directly if the connection to the daemon
+     * is lost (including the case when it is lost while the call is forwarded).
+     *
+     * @param directCall makes the call by given client
+     * @return {@code true} if the call was handed over to the daemon or was accepted by Zebrunner
+     */
+    private boolean send(ForwardingProtocol.Operation operation, byte[] payload, Object[] arguments,
+                         Predicate<HttpZebrunnerApiClient> directCall) {
+        if (!isDisconnected()) {
+            try {
+                write(new ForwardingProtocol.Request(
+                        ForwardingProtocol.NO_REPLY, operation, encode(arguments), payload
+                ));
+                return true;
+            } catch (IOException e) {
+                disconnect(e);
+            }
+        }
+        return directCall.test(getDirectClient());
+    }
+
+    private void write(ForwardingProtocol.Request request) throws IOException {
+        synchronized (out) {
+            ForwardingProtocol.writeRequest(out, request);
+            out.flush();
+        }
+    }
+
+    private int nextRequestId() {
+        int id;
+        do {
+            id = requestIds.incrementAndGet();
+        } while (id == ForwardingProtocol.NO_REPLY);
+        return id;
+    }
+
+    private List<String> encode(Object[] arguments) {
+        List<String> encodedArguments = new ArrayList<>(arguments.length);
+        for (Object argument : arguments) {
+            encodedArguments.add(objectMapper.writeValue(argument));
+        }
+        return encodedArguments;
+    }
+
+    /**
+     * Forwards the artifact if it is not larger than {@link #MAX_FORWARDED_ARTIFACT_BYTES}, otherwise uploads it
+     * directly. The artifact is read only once and is closed afterwards.
+     *
+     * @param forward        forwards content of the artifact (or uploads it directly if the connection is lost)
+     * @param uploadDirectly uploads the artifact by given client
+     * @return {@code true} if the artifact was forwarded or accepted by Zebrunner
+     */
+    private boolean uploadArtifact(InputStream artifact, String name, Predicate<byte[]> forward,
+                                   BiPredicate<HttpZebrunnerApiClient, InputStream> uploadDirectly) {
+        try (InputStream in = artifact) {
+            if (isDisconnected()) {
+                return uploadDirectly.test(getDirectClient(), in);
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                bytes.write(buffer, 0, read);
+                if (bytes.size() > MAX_FORWARDED_ARTIFACT_BYTES) {
+                    InputStream whole = new SequenceInputStream(new ByteArrayInputStream(bytes.toByteArray()), in);
+                    return uploadDirectly.test(getDirectClient(), whole);
+                }
+            }
+            return forward.test(bytes.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not upload artifact with name {}", name, e);
+            return false;
+        }
+    }
+
+    private synchronized HttpZebrunnerApiClient getDirectClient() {
+        if (directClient == null) {
+            directClient = new HttpZebrunnerApiClient(null);
+        }
+        return directClient;
+    }
+
+    @Override
+    String getAuthToken() {
+        return null;
+    }
+
+    @Override
+    TestRunDTO registerTestRunStart(TestRunDTO testRun) {
+        if (isDisconnected()) {
+            return getDirectClient().registerTestRunStart(testRun);
+        }
+        String testRunJson = call(ForwardingProtocol.Operation.REGISTER_TEST_RUN_START, testRun);
+        return objectMapper.readValue(testRunJson, TestRunDTO.class);
+    }
+
+    @Override
+    void registerTestRunFinish(TestRunDTO testRun) {
+        if (isDisconnected()) {
+            getDirectClient().registerTestRunFinish(testRun);
+            return;
+        }
+        call(ForwardingProtocol.Operation.REGISTER_TEST_RUN_FINISH, testRun);
+    }
+
+    @Override
+    TestDTO registerTestStart(Long testRunId, TestDTO test, boolean headless) {
+        if (isDisconnected()) {
+            return getDirectClient().registerTestStart(testRunId, test, headless);
+        }
+        boolean rerun = RerunContextHolder.isRerun();
+        String testJson = call(ForwardingProtocol.Operation.REGISTER_TEST_START, testRunId, test, headless, rerun);
+        return objectMapper.readValue(testJson, TestDTO.class);
+    }
+
+    @Override
+    TestDTO registerHeadlessTestUpdate(Long testRunId, TestDTO test) {
+        if (isDisconnected()) {
+            return getDirectClient().registerHeadlessTestUpdate(testRunId, test);
+        }
+        String testJson = call(ForwardingProtocol.Operation.REGISTER_HEADLESS_TEST_UPDATE, testRunId, test);
+        return objectMapper.readValue(testJson, TestDTO.class);
+    }
+
+    @Override
+    void revertTestRegistration(Long testRunId, Long testId) {
+        if (isDisconnected()) {
+            getDirectClient().revertTestRegistration(testRunId, testId);
+            return;
+        }
+        call(ForwardingProtocol.Operation.REVERT_TEST_REGISTRATION, testRunId, testId);
+    }
+
+    @Override
+    void registerTestFinish(Long testRunId, TestDTO test) {
+        if (isDisconnected()) {
+            getDirectClient().registerTestFinish(testRunId, test);
+            return;
+        }
+        call(ForwardingProtocol.Operation.REGISTER_TEST_FINISH, testRunId, test);
+    }
+
+    @Override
+    boolean sendLogs(Collection<Log> logs, Long testRunId) {
+        return send(
+                ForwardingProtocol.Operation.SEND_LOGS, null, new Object[]{logs, testRunId},
+                client -> client.sendLogs(logs, testRunId)
+        );
+    }
+
+    @Override
+    boolean uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt) {
+        return send(
+                ForwardingProtocol.Operation.UPLOAD_SCREENSHOT, screenshot, new Object[]{testRunId, testId, capturedAt},
+                client -> client.uploadScreenshot(screenshot, testRunId, testId, capturedAt)
+        );
+    }
+
+    @Override
+    boolean uploadTestRunArtifact(InputStream artifact, String name, Long testRunId) {
+        return uploadArtifact(
+                artifact, name,
+                bytes -> send(
+                        ForwardingProtocol.Operation.UPLOAD_TEST_RUN_ARTIFACT, bytes, new Object[]{name, testRunId},
+                        client -> client.uploadTestRunArtifact(new ByteArrayInputStream(bytes), name, testRunId)
+                ),
+                (client, in) -> client.uploadTestRunArtifact(in, name, testRunId)
+        );
+    }
+
+    @Override
+    boolean uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId) {
+        return uploadArtifact(
+                artifact, name,
+                bytes -> send(
+                        ForwardingProtocol.Operation.UPLOAD_TEST_ARTIFACT, bytes, new Object[]{name, testRunId, testId},
+                        client -> client.uploadTestArtifact(new ByteArrayInputStream(bytes), name, testRunId, testId)
+                ),
+                (client, in) -> client.uploadTestArtifact(in, name, testRunId, testId)
+        );
+    }
+
+    @Override
+    boolean attachArtifactReferenceToTestRun(Long testRunId, ArtifactReferenceDTO artifactReference) {
+        return send(
+                ForwardingProtocol.Operation.ATTACH_ARTIFACT_REFERENCE_TO_TEST_RUN, null,
+                new Object[]{testRunId, artifactReference},
+                client -> client.attachArtifactReferenceToTestRun(testRunId, artifactReference)
+        );
+    }
+
+    @Override
+    boolean attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference) {
+        return send(
+                ForwardingProtocol.Operation.ATTACH_ARTIFACT_REFERENCE_TO_TEST, null,
+                new Object[]{testRunId, testId, artifactReference},
+                client -> client.attachArtifactReferenceToTest(testRunId, testId, artifactReference)
+        );
+    }
+
+    @Override
+    boolean attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels) {
+        return send(
+                ForwardingProtocol.Operation.ATTACH_LABELS_TO_TEST_RUN, null, new Object[]{testRunId, labels},
+                client -> client.attachLabelsToTestRun(testRunId, labels)
+        );
+    }
+
+    @Override
+    boolean attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels) {
+        return send(
+                ForwardingProtocol.Operation.ATTACH_LABELS_TO_TEST, null, new Object[]{testRunId, testId, labels},
+                client -> client.attachLabelsToTest(testRunId, testId, labels)
+        );
+    }
+
+    @Override
+    Optional<RerunPlanCache.Validators> getTestsByCiRunId(RerunCondition rerunCondition,
+                                                          RerunPlanCache.Validators validators,
+                                                          Consumer<TestDTO> testConsumer) {
+        if (isDisconnected()) {
+            return getDirectClient().getTestsByCiRunId(rerunCondition, validators, testConsumer);
+        }
+        String replyJson = call(ForwardingProtocol.Operation.GET_TESTS_BY_CI_RUN_ID, rerunCondition, validators);
+        ForwardingProtocol.RerunPlanReply reply = objectMapper.readValue(
+                replyJson, ForwardingProtocol.RerunPlanReply.class
+        );
+        if (reply.getValidators() == null) {
+            return Optional.empty();
+        }
+        reply.getTests().forEach(testConsumer);
+        return Optional.of(reply.getValidators());
+    }
+
+    @Override
+    TestSessionDTO startSession(Long testRunId, TestSessionDTO testSession) {
+        if (isDisconnected()) {
+            return getDirectClient().startSession(testRunId, testSession);
+        }
+        String testSessionJson = call(ForwardingProtocol.Operation.START_SESSION, testRunId, testSession);
+        return objectMapper.readValue(testSessionJson, TestSessionDTO.class);
+    }
+
+    @Override
+    void updateSession(Long testRunId, TestSessionDTO testSession) {
+        if (isDisconnected()) {
+            getDirectClient().updateSession(testRunId, testSession);
+            return;
+        }
+        call(ForwardingProtocol.Operation.UPDATE_SESSION, testRunId, testSession);
+    }
+
+}
@@ -0,0 +1,638 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.exception.ServerException;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.descriptor.Status;
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.AuthDataDTO;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import com.zebrunner.agent.core.registrar.domain.TestRunDTO;
+import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import com.zebrunner.agent.core.telemetry.AgentTracer;
+import com.zebrunner.agent.core.telemetry.TelemetryBridgeHolder;
+import kong.unirest.Body;
+import kong.unirest.BodyPart;
+import kong.unirest.Config;
+import kong.unirest.ContentType;
+import kong.unirest.GetRequest;
+import kong.unirest.HeaderNames;
+import kong.unirest.HttpRequest;
+import kong.unirest.HttpResponse;
+import kong.unirest.Unirest;
+import kong.unirest.UnirestInstance;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Calls Zebrunner directly over http.
+ */
+@Slf4j
+final class HttpZebrunnerApiClient extends ZebrunnerApiClient {
+
+    private static final String SERVER_ERROR_MSG_FORMAT = "%s\nResponse status code: %d.\nRaw response body: \n%s";
+
+    private final static String REPORTING_ENDPOINT_FORMAT = "%s/api/reporting/v1/%s";
+    private final static String IAM_ENDPOINT_FORMAT = "%s/api/iam/%s";
+    private final static int HTTP_NOT_MODIFIED = 304;
+    private final static int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+
+    private static final AgentMetrics METRICS = AgentMetrics.getInstance();
+
+    private String apiHost;
+    private String authToken;
+    private ObjectMapperImpl objectMapper;
+    private volatile UnirestInstance client;
+    private volatile LogsBatchFormat logsBatchFormat = LogsBatchFormat.of(ConfigurationHolder.getLogsTransport());
+
+    /**
+     * @param sharedAuthToken access token of the run shared by forked test JVMs, {@code null} if the client
+     *                        must authenticate on its own
+     */
+    HttpZebrunnerApiClient(String sharedAuthToken) {
+        if (ConfigurationHolder.isReportingEnabled()) {
+            this.apiHost = ConfigurationHolder.getHost();
+            this.objectMapper = new ObjectMapperImpl();
+            this.client = initClient();
+
+            if (sharedAuthToken != null) {
+                // the run is registered by another fork, so its access token is reused
+                authToken = sharedAuthToken;
+            } else {
+                AuthDataDTO authData = authenticateClient();
+                authToken = authData.getAuthTokenType() + " " + authData.getAuthToken();
+            }
+
+            Config config = client.config();
+            config.addDefaultHeader(HeaderNames.AUTHORIZATION, authToken);
+        }
+    }
+
+    @Override
+    String getAuthToken() {
+        return authToken;
+    }
+
+    private AuthDataDTO authenticateClient() {
+        String refreshToken = ConfigurationHolder.getToken();
+        HttpRequest<?> request = client.post(iam("v1/auth/refresh"))
+                                       .body(Collections.singletonMap("refreshToken", refreshToken));
+        HttpResponse<String> response = send(AgentMetrics.Endpoint.AUTH_REFRESH, request);
+
+        if (!response.isSuccess()) {
+            // null out the api client since it we cannot use it anymore
+            client = null;
+
+            throw new ServerException(formatErrorMessage("Not able to refresh access token.", response));
+        }
+        return objectMapper.readValue(response.getBody(), AuthDataDTO.class);
+    }
+
+    private String formatErrorMessage(String message, HttpResponse<String> response) {
+        return String.format(SERVER_ERROR_MSG_FORMAT, message, response.getStatus(), response.getBody());
+    }
+
+    /**
+     * Sends the request and records its latency, size and outcome. Connection failures are recorded as errors
+     * and are rethrown.
+     */
+    private HttpResponse<String> send(AgentMetrics.Endpoint endpoint, HttpRequest<?> request) {
+        long startedAt = System.nanoTime();
+        boolean success = false;
+        AgentTracer.Span span = TelemetryBridgeHolder.getTracer().startSpan(endpoint.getDisplayName());
+        try {
+            HttpResponse<String> response = request.asString();
+            success = response.isSuccess();
+            if (!success) {
+                span.setError("Response status code: " + response.getStatus(), null);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            span.setError(e.getMessage(), e);
+            throw e;
+        } finally {
+            span.end();
+            METRICS.recordCall(endpoint, System.nanoTime() - startedAt, getBodySize(request), success);
+        }
+    }
+
+    /**
+     * Body of a json request is already serialized, so its size is known. Size of a multipart request is the number
+     * of bytes read from the uploaded streams.
+     */
+    private static long getBodySize(HttpRequest<?> request) {
+        Body body = request.getBody().orElse(null);
+        if (body == null) {
+            return 0;
+        }
+        if (body.isMultiPart()) {
+            long size = 0;
+            for (BodyPart<?> part : body.multiParts()) {
+                size += getBodyPartSize(part);
+            }
+            return size;
+        }
+        return body.uniPart() != null ? getBodyPartSize(body.uniPart()) : 0;
+    }
+
+    private static long getBodyPartSize(BodyPart<?> part) {
+        Object value = part.getValue();
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof String) {
+            return getUtf8Length((String) value);
+        }
+        if (value instanceof CountingInputStream) {
+            return ((CountingInputStream) value).getCount();
+        }
+        return 0;
+    }
+
+    private static long getUtf8Length(String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // surrogate pair is encoded with 4 bytes
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private String reporting(String endpointPath) {
+        return String.format(REPORTING_ENDPOINT_FORMAT, apiHost, endpointPath);
+    }
+
+    private String iam(String endpointPath) {
+        return String.format(IAM_ENDPOINT_FORMAT, apiHost, endpointPath);
+    }
+
+    private UnirestInstance initClient() {
+        Config config = new Config();
+        config.addDefaultHeader("Content-Type", "application/json");
+        config.addDefaultHeader("Accept", "application/json");
+        config.setObjectMapper(new ObjectMapperImpl());
+        return new UnirestInstance(config);
+    }
+
+    @Override
+    TestRunDTO registerTestRunStart(TestRunDTO testRun) {
+        if (client != null) {
+            HttpRequest<?> request = client.post(reporting("test-runs"))
+                                           .body(testRun)
+                                           .queryString("projectKey", ConfigurationHolder.getProjectKey());
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_RUN_START, request);
+
+            if (!response.isSuccess()) {
+                // null out the api client since it we cannot use it anymore
+                client = null;
+
+                throw new ServerException(formatErrorMessage("Could not register start of the test run.", response));
+            }
+            return objectMapper.readValue(response.getBody(), TestRunDTO.class);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    void registerTestRunFinish(TestRunDTO testRun) {
+        if (client != null) {
+            HttpRequest<?> request = client.put(reporting("test-runs/{testRunId}"))
+                                           .body(testRun)
+                                           .routeParam("testRunId", testRun.getId().toString());
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_RUN_FINISH, request);
+
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not register finish of the test run.", response));
+            }
+        }
+    }
+
+    @Override
+    TestDTO registerTestStart(Long testRunId, TestDTO test, boolean headless) {
+        return registerTestStart(testRunId, test, headless, RerunContextHolder.isRerun());
+    }
+
+    /**
+     * @param rerun whether the run is a rerun. Forwarding daemon passes the flag of the test JVM the call comes from
+     */
+    TestDTO registerTestStart(Long testRunId, TestDTO test, boolean headless, boolean rerun) {
+        if (client != null) {
+            HttpRequest<?> request = client.post(reporting("test-runs/{testRunId}/tests"))
+                                           .body(test)
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .queryString("headless", headless)
+                                           .queryString("rerun", rerun);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_START, request);
+
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not register start of the test.", response));
+            }
+            return objectMapper.readValue(response.getBody(), TestDTO.class);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    TestDTO registerHeadlessTestUpdate(Long testRunId, TestDTO test) {
+        if (client != null) {
+            HttpRequest<?> request = client.put(reporting("test-runs/{testRunId}/tests/{testId}"))
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .routeParam("testId", test.getId().toString())
+                                           .queryString("headless", true)
+                                           .body(test);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.HEADLESS_TEST_UPDATE, request);
+
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not register start of the test.", response));
+            }
+            return objectMapper.readValue(response.getBody(), TestDTO.class);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    void revertTestRegistration(Long testRunId, Long testId) {
+        if (client != null) {
+            HttpRequest<?> request = client.delete(reporting("test-runs/{testRunId}/tests/{testId}"))
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .routeParam("testId", testId.toString());
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_REVERT, request);
+
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not revert test registration.", response));
+            }
+        }
+    }
+
+    @Override
+    void registerTestFinish(Long testRunId, TestDTO test) {
+        if (client != null) {
+            HttpRequest<?> request = client.put(reporting("test-runs/{testRunId}/tests/{testId}"))
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .routeParam("testId", test.getId().toString())
+                                           .queryString("headless", false)
+                                           .body(test);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_FINISH, request);
+
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not register finish of the test.", response));
+            }
+        }
+    }
+
+    /**
+     * Sends the logs in configured format. If Zebrunner does not support the format, the batch is resent as json array,
+     * and all the following batches are sent as json arrays too.
+     *
+     * @return {@code true} if the logs were accepted by Zebrunner
+     */
+    @Override
+    boolean sendLogs(Collection<Log> logs, Long testRunId) {
+        if (client != null) {
+            LogsBatchFormat format = logsBatchFormat;
+            HttpResponse<String> response = sendLogs(logs, testRunId, format);
+
+            if (response.getStatus() == HTTP_UNSUPPORTED_MEDIA_TYPE && format != LogsBatchFormat.JSON) {
+                log.info("Zebrunner does not accept {} logs batches, falling back to json", format.getConfigValue());
+                logsBatchFormat = LogsBatchFormat.JSON;
+                response = sendLogs(logs, testRunId, LogsBatchFormat.JSON);
+            }
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage("Could not send a batch of test logs.", response));
+            }
+            return response.isSuccess();
+        } else {
+            return false;
+        }
+    }
+
+    private HttpResponse<String> sendLogs(Collection<Log> logs, Long testRunId, LogsBatchFormat format) {
+        HttpRequest<?> request = client.post(reporting("test-runs/{testRunId}/logs"))
+                                       .headerReplace("Content-Type", format.getContentType())
+                                       .routeParam("testRunId", testRunId.toString())
+                                       .body(format.encode(logs, objectMapper));
+        return send(AgentMetrics.Endpoint.LOGS, request);
+    }
+
+    @Override
+    boolean uploadScreenshot(byte[] screenshot, Long testRunId, Long testId, Long capturedAt) {
+        if (client != null) {
+            HttpRequest<?> request = client.post(reporting("test-runs/{testRunId}/tests/{testId}/screenshots"))
+                                           .headerReplace("Content-Type", ContentType.IMAGE_PNG.getMimeType())
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .routeParam("testId", testId.toString())
+                                           .header("x-zbr-screenshot-captured-at", capturedAt.toString())
+                                           .body(screenshot);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.SCREENSHOT, request);
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage("Could not upload a screenshot.", response));
+            }
+            return response.isSuccess();
+        }
+        return false;
+    }
+
+    @Override
+    boolean uploadTestRunArtifact(InputStream artifact, String name, Long testRunId) {
+        if (client != null) {
+            HttpRequest<?> request = Unirest.post(reporting("test-runs/{testRunId}/artifacts"))
+                                            .header(HeaderNames.AUTHORIZATION, authToken)
+                                            .routeParam("testRunId", testRunId.toString())
+                                            .field("file", new CountingInputStream(artifact), name);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_RUN_ARTIFACT, request);
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage("Could not attach test run artifact with name " + name, response));
+            }
+            return response.isSuccess();
+        }
+        return false;
+    }
+
+    @Override
+    boolean uploadTestArtifact(InputStream artifact, String name, Long testRunId, Long testId) {
+        if (client != null) {
+            HttpRequest<?> request = Unirest.post(reporting("test-runs/{testRunId}/tests/{testId}/artifacts"))
+                                            .header(HeaderNames.AUTHORIZATION, authToken)
+                                            .routeParam("testRunId", testRunId.toString())
+                                            .routeParam("testId", testId.toString())
+                                            .field("file", new CountingInputStream(artifact), name);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_ARTIFACT, request);
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage("Could not attach test artifact with name " + name, response));
+            }
+            return response.isSuccess();
+        }
+        return false;
+    }
+
+    @Override
+    boolean attachArtifactReferenceToTestRun(Long testRunId, ArtifactReferenceDTO artifactReference) {
+        if (client != null) {
+            List<ArtifactReferenceDTO> artifactReferences = Collections.singletonList(artifactReference);
+            HttpRequest<?> request = client.put(reporting("test-runs/{testRunId}/artifact-references"))
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .body(Collections.singletonMap("items", artifactReferences));
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_RUN_ARTIFACT_REFERENCE, request);
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage(
+                        "Could not attach the following test run artifact reference: " + artifactReference,
+                        response
+                ));
+            }
+            return response.isSuccess();
+        }
+        return false;
+    }
+
+    @Override
+    boolean attachArtifactReferenceToTest(Long testRunId, Long testId, ArtifactReferenceDTO artifactReference) {
+        if (client != null) {
+            List<ArtifactReferenceDTO> artifactReferences = Collections.singletonList(artifactReference);
+            HttpRequest<?> request = client
+                    .put(reporting("test-runs/{testRunId}/tests/{testId}/artifact-references"))
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", testId.toString())
+                    .body(Collections.singletonMap("items", artifactReferences));
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_ARTIFACT_REFERENCE, request);
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage(
+                        "Could not attach the following test artifact reference: " + artifactReference,
+                        response
+                ));
+            }
+            return response.isSuccess();
+        }
+        return false;
+    }
+
+    @Override
+    boolean attachLabelsToTestRun(Long testRunId, Collection<LabelDTO> labels) {
+        if (client != null) {
+            HttpRequest<?> request = client.put(reporting("test-runs/{testRunId}/labels"))
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .body(Collections.singletonMap("items", labels));
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_RUN_LABELS, request);
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage("Could not attach the following labels to test run: " + labels, response));
+            }
+            return response.isSuccess();
+        }
+        return false;
+    }
+
+    @Override
+    boolean attachLabelsToTest(Long testRunId, Long testId, Collection<LabelDTO> labels) {
+        if (client != null) {
+            HttpRequest<?> request = client
+                    .put(reporting("test-runs/{testRunId}/tests/{testId}/labels"))
+                    .routeParam("testRunId", testRunId.toString())
+                    .routeParam("testId", testId.toString())
+                    .body(Collections.singletonMap("items", labels));
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.TEST_LABELS, request);
+
+            if (!response.isSuccess()) {
+                log.error(formatErrorMessage("Could not attach the following labels to test: " + labels, response));
+            }
+            return response.isSuccess();
+        }
+        return false;
+    }
+
+    /**
+     * Streams tests matching given rerun condition to the consumer. Response body is parsed test by test,
+     * so that neither the whole body nor its json tree are kept in memory. If validators of a previously fetched plan
+     * are given, the request is conditional, and nothing is streamed if the plan is not modified since then.
+     *
+     * @param validators validators of previously fetched plan, {@code null} if there is no such plan
+     * @return validators of the fetched plan, empty if the plan is not modified
+     */
+    @Override
+    Optional<RerunPlanCache.Validators> getTestsByCiRunId(RerunCondition rerunCondition,
+                                                          RerunPlanCache.Validators validators,
+                                                          Consumer<TestDTO> testConsumer) {
+        if (client != null) {
+            GetRequest request = client.get(reporting("test-runs/{ciRunId}/tests"))
+                                       .routeParam("ciRunId", rerunCondition.getRunId());
+
+            setTestIds(request, rerunCondition.getTestIds());
+            setStatuses(request, rerunCondition.getStatuses());
+            if (validators != null && validators.getEtag() != null) {
+                request.header(HeaderNames.IF_NONE_MATCH, validators.getEtag());
+            }
+            if (validators != null && validators.getLastModified() != null) {
+                request.header(HeaderNames.IF_MODIFIED_SINCE, validators.getLastModified());
+            }
+
+            // body is read as a string only if the request failed
+            long startedAt = System.nanoTime();
+            boolean success = false;
+            String spanName = AgentMetrics.Endpoint.TESTS_BY_CI_RUN_ID.getDisplayName();
+            AgentTracer.Span span = TelemetryBridgeHolder.getTracer().startSpan(spanName);
+            HttpResponse<String> response;
+            try {
+                response = request.asObject(rawResponse -> {
+                    if (rawResponse.getStatus() >= 200 && rawResponse.getStatus() < 300) {
+                        objectMapper.readValues(rawResponse.getContent(), TestDTO.class, testConsumer);
+                        return null;
+                    }
+                    return rawResponse.getStatus() != HTTP_NOT_MODIFIED ? rawResponse.getContentAsString() : null;
+                });
+                success = response.isSuccess() || response.getStatus() == HTTP_NOT_MODIFIED;
+                if (!success) {
+                    span.setError("Response status code: " + response.getStatus(), null);
+                }
+            } catch (RuntimeException e) {
+                span.setError(e.getMessage(), e);
+                throw e;
+            } finally {
+                span.end();
+                long durationNanos = System.nanoTime() - startedAt;
+                METRICS.recordCall(AgentMetrics.Endpoint.TESTS_BY_CI_RUN_ID, durationNanos, 0, success);
+            }
+
+            if (response.getStatus() == HTTP_NOT_MODIFIED) {
+                return Optional.empty();
+            }
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not get tests by ci run id.", response));
+            }
+            return Optional.of(new RerunPlanCache.Validators(
+                    getHeader(response, HeaderNames.ETAG),
+                    getHeader(response, HeaderNames.LAST_MODIFIED)
+            ));
+        } else {
+            return Optional.of(RerunPlanCache.Validators.NONE);
+        }
+    }
+
+    private String getHeader(HttpResponse<?> response, String name) {
+        String value = response.getHeaders().getFirst(name);
+        return value != null && !value.isEmpty() ? value : null;
+    }
+
+    private void setTestIds(GetRequest request, Set<Long> testIds) {
+        if (!testIds.isEmpty()) {
+            String tests = testIds.stream()
+                                  .map(Object::toString)
+                                  .collect(Collectors.joining(","));
+            request.queryString("tests", tests);
+        }
+    }
+
+    private void setStatuses(GetRequest request, Set<Status> testStatuses) {
+        if (!testStatuses.isEmpty()) {
+            String statuses = testStatuses.stream()
+                                          .map(Enum::name)
+                                          .collect(Collectors.joining(","));
+            request.queryString("statuses", statuses);
+        }
+    }
+
+    @Override
+    TestSessionDTO startSession(Long testRunId, TestSessionDTO testSession) {
+        if (client != null) {
+            HttpRequest<?> request = client.post(reporting("test-runs/{testRunId}/test-sessions"))
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .body(testSession);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.SESSION_START, request);
+
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not register start of the test session.", response));
+            }
+
+            return objectMapper.readValue(response.getBody(), TestSessionDTO.class);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    void updateSession(Long testRunId, TestSessionDTO testSession) {
+        if (client != null) {
+            HttpRequest<?> request = client.put(reporting("test-runs/{testRunId}/test-sessions/{testSessionId}"))
+                                           .routeParam("testRunId", testRunId.toString())
+                                           .routeParam("testSessionId", testSession.getId().toString())
+                                           .body(testSession);
+            HttpResponse<String> response = send(AgentMetrics.Endpoint.SESSION_UPDATE, request);
+
+            if (!response.isSuccess()) {
+                throw new ServerException(formatErrorMessage("Could not update test session.", response));
+            }
+        }
+    }
+
+    /**
+     * Counts bytes of an artifact actually read (i.e. sent) by http client.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.zebrunner.agent.core.registrar;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (similar to HdrHistogram): values are recorded in microseconds,
+ * every power of two range is split into {@value #SUB_BUCKET_COUNT} linear sub-buckets, which keeps relative error
+ * of reported percentiles under 12.5% with a fixed memory footprint.
+ * <p>Recording is wait-free and is safe to be invoked concurrently from any number of threads.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // values below this threshold are recorded with exact precision
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    private static final int LINEAR_LIMIT_EXPONENT = Long.numberOfTrailingZeros(LINEAR_LIMIT);
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (Long.SIZE - LINEAR_LIMIT_EXPONENT) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    void record(long duration, TimeUnit unit) {
+        long micros = Math.max(0, unit.toMicros(duration));
+
+        buckets.incrementAndGet(indexOf(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Returns (approximate) value at given percentile. Since recording is not blocked while the value is computed,
+     * the result reflects some state of the histogram in between of the concurrent updates.
+     *
+     * @param percentile percentile in range from 0 to 100
+     * @return upper bound of the bucket containing value at given percentile in microseconds
+     */
+    long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return LINEAR_LIMIT + (exponent - LINEAR_LIMIT_EXPONENT) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + LINEAR_LIMIT_EXPONENT;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT;
+        long lowerBound = (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.google.gson.stream.JsonWriter;
+import com.zebrunner.agent.core.logging.Log;
+import com.zebrunner.agent.core.registrar.domain.ObjectMapperImpl;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formats of the test logs batches sent to Zebrunner. Every format is sent with its own content type,
+ * so that Zebrunner not supporting a format responds with {@code 415 Unsupported Media Type}.
+ */
+@Getter
+@RequiredArgsConstructor
+enum LogsBatchFormat {
+
+    /**
+     * Array of log objects.
+     */
+    JSON("json", "application/json") {
+        @Override
+        String encode(Collection<Log> logs, ObjectMapperImpl objectMapper) {
+            return objectMapper.writeValue(logs);
+        }
+    },
+
+    /**
+     * Log objects delimited by new lines, i.e. the body can be processed line by line without parsing the whole batch.
+     */
+    NDJSON("ndjson", "application/x-ndjson") {
+        @Override
+        String encode(Collection<Log> logs, ObjectMapperImpl objectMapper) {
+            StringBuilder body = new StringBuilder();
+            for (Log log : logs) {
+                // json produced by gson never contains raw line breaks
+                body.append(objectMapper.writeValue(log)).append('\n');
+            }
+            return body.toString();
+        }
+    },
+
+    /**
+     * Logs grouped by test id. Every level is written once in the {@code levels} dictionary, and entries refer to
+     * the levels by their indexes. The first timestamp of a test is absolute, the following ones are deltas
+     * to the previous timestamp of the test:
+     * <pre>
+     * {"levels":["INFO","ERROR"],"tests":[{"testId":"42","timestamps":[1609459200000,12,3],"levels":[0,0,1],
+     * "messages":["Opening page","Clicking on button","Element is not visible"]}]}
+     * </pre>
+     * {@code testId} is omitted for logs not bound to a test.
+     */
+    COLUMNAR("columnar", "application/vnd.zebrunner.logs.columnar+json") {
+        @Override
+        String encode(Collection<Log> logs, ObjectMapperImpl objectMapper) {
+            Map<String, Integer> levels = new LinkedHashMap<>();
+            Map<String, List<Log>> testLogs = new LinkedHashMap<>();
+            for (Log log : logs) {
+                levels.putIfAbsent(log.getLevel(), levels.size());
+                testLogs.computeIfAbsent(log.getTestId(), testId -> new ArrayList<>()).add(log);
+            }
+
+            StringWriter body = new StringWriter();
+            try (JsonWriter writer = new JsonWriter(body)) {
+                writer.beginObject();
+                writer.name("levels").beginArray();
+                for (String level : levels.keySet()) {
+                    writer.value(level);
+                }
+                writer.endArray();
+
+                writer.name("tests").beginArray();
+                for (Map.Entry<String, List<Log>> entry : testLogs.entrySet()) {
+                    writeTestLogs(writer, entry.getKey(), entry.getValue(), levels);
+                }
+                writer.endArray();
+                writer.endObject();
+            } catch (IOException e) {
+                // StringWriter does not throw
+                throw new UncheckedIOException(e);
+            }
+            return body.toString();
+        }
+
+        private void writeTestLogs(JsonWriter writer, String testId, List<Log> logs, Map<String, Integer> levels)
+                throws IOException {
+            writer.beginObject();
+            if (testId != null) {
+                writer.name("testId").value(testId);
+            }
+
+            writer.name("timestamps").beginArray();
+            long previousTimestamp = 0;
+            for (Log log : logs) {
+                writer.value(log.getTimestamp() - previousTimestamp);
+                previousTimestamp = log.getTimestamp();
+            }
+            writer.endArray();
+
+            writer.name("levels").beginArray();
+            for (Log log : logs) {
+                writer.value(levels.get(log.getLevel()));
+            }
+            writer.endArray();
+
+            writer.name("messages").beginArray();
+            for (Log log : logs) {
+                writer.value(log.getMessage());
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+    };
+
+    private final String configValue;
+    private final String contentType;
+
+    abstract String encode(Collection<Log> logs, ObjectMapperImpl objectMapper);
+
+    static LogsBatchFormat of(String configValue) {
+        for (LogsBatchFormat format : values()) {
+            if (format.configValue.equalsIgnoreCase(configValue)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+
+}
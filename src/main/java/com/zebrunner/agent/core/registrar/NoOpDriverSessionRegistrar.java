@@ -26,8 +26,16 @@ class NoOpDriverSessionRegistrar implements DriverSessionRegistrar {
     public void linkAllCurrentToTest(Long zebrunnerTestId) {
     }
 
+    @Override
+    public void releaseTestSessions(Long zebrunnerTestId) {
+    }
+
     @Override
     public void linkToCurrentTest(String sessionId) {
     }
 
+    @Override
+    public void registerCommand(String sessionId, String command, long durationNanos) {
+    }
+
 }
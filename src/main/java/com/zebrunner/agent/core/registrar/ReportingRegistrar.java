@@ -18,18 +18,10 @@ import java.util.Optional;
 @Slf4j
 class ReportingRegistrar implements TestRunRegistrar {
 
-    static {
-        RerunResolver.resolve();
-    }
-
     private static final String CI_RUN_ID = System.getProperty("ci_run_id");
-    private static volatile ReportingRegistrar instance;
 
     public static ReportingRegistrar getInstance() {
-        if (instance == null) {
-            instance = new ReportingRegistrar();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
 
     private final ZebrunnerApiClient apiClient = ZebrunnerApiClient.getInstance();
@@ -37,9 +29,34 @@ class ReportingRegistrar implements TestRunRegistrar {
     private final DriverSessionRegistrar driverSessionRegistrar = DriverSessionRegistrar.getInstance();
     private final ChainedMaintainerResolver maintainerResolver = new ChainedMaintainerResolver();
 
+    private ReportingRegistrar() {
+        AgentMetrics.getInstance().start();
+        // rerun plan and test durations are fetched while test framework is initializing and are awaited on run start
+        RerunResolver.start();
+        TestDurationHistory.start();
+    }
+
     @Override
     public void registerStart(TestRunStartDescriptor tr) {
         log.info("Ci run id = '{}'", CI_RUN_ID);
+        try {
+            registerRunStart(tr);
+        } finally {
+            // lets other forks register the run if this one failed to
+            ForkCoordinator.abandon();
+        }
+    }
+
+    private void registerRunStart(TestRunStartDescriptor tr) {
+        RerunResolver.await();
+        TestDurationHistory.publish();
+
+        ForkCoordinator.SharedRun sharedRun = ForkCoordinator.getJoinedRun();
+        if (sharedRun != null) {
+            RunContext.setRun(TestRunDescriptor.create(sharedRun.getRunId(), tr));
+            return;
+        }
+
         TestRunDTO testRun = TestRunDTO.builder()
                                        .uuid(Optional.ofNullable(RerunResolver.getRunId()).orElse(CI_RUN_ID))
                                        .name(ConfigurationHolder.getRunDisplayNameOr(tr.getName()))
@@ -57,21 +74,25 @@ class ReportingRegistrar implements TestRunRegistrar {
         if (testRun != null) {
             TestRunDescriptor testRunDescriptor = TestRunDescriptor.create(testRun.getId(), tr);
             RunContext.setRun(testRunDescriptor);
+            ForkCoordinator.publish(testRun.getId(), apiClient.getAuthToken(), RerunResolver.getPlan());
         }
     }
 
     @Override
     public void registerFinish(TestRunFinishDescriptor finishDescriptor) {
-        TestRunDTO testRun = TestRunDTO.builder()
-                                       .id(RunContext.getZebrunnerRunId())
-                                       .endedAt(finishDescriptor.getEndedAt())
-                                       .build();
-        apiClient.registerTestRunFinish(testRun);
-
-        TestRunDescriptor run = RunContext.getRun();
-        if (run != null) {
-            run.complete(finishDescriptor);
+        // the run shared by forks is finished by the last of them
+        if (ForkCoordinator.leave()) {
+            TestRunDTO testRun = TestRunDTO.builder()
+                                           .id(RunContext.getZebrunnerRunId())
+                                           .endedAt(finishDescriptor.getEndedAt())
+                                           .build();
+            apiClient.registerTestRunFinish(testRun);
         }
+
+        RunContext.completeRun(finishDescriptor);
+
+        // logs and artifacts still being sent are reported as queued and pending
+        log.info(AgentMetrics.getInstance().getSummary());
     }
 
     @Override
@@ -140,7 +161,18 @@ class ReportingRegistrar implements TestRunRegistrar {
             apiClient.registerTestFinish(RunContext.getZebrunnerRunId(), result);
 
             RunContext.completeTest(id, tf);
+            driverSessionRegistrar.releaseTestSessions(test.getZebrunnerId());
         }
     }
 
+    /**
+     * Registrar is created lazily (it starts rerun planning), exactly once and is safely published to all threads
+     * by class initialization.
+     */
+    private static class InstanceHolder {
+
+        private static final ReportingRegistrar INSTANCE = new ReportingRegistrar();
+
+    }
+
 }
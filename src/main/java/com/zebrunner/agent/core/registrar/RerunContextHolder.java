@@ -3,41 +3,76 @@ package com.zebrunner.agent.core.registrar;
 import com.zebrunner.agent.core.config.ConfigurationHolder;
 import com.zebrunner.agent.core.registrar.domain.TestDTO;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Immutable (for client code outside registrar package) rerun context that is populated if this test run is actually a rerun.
- * Holds information on tests that are mean to be executed on rerun
+ * Holds information on tests that are mean to be executed on rerun. Tests are indexed, so that
+ * framework adapters can check whether a test is to be rerun in constant time.
  */
 public final class RerunContextHolder {
 
-    private static boolean rerun;
-    private static List<TestDTO> tests;
-
     public static List<TestDTO> getTests() {
-        return tests;
+        // does not wait for the plan
+        RerunResolver.Outcome outcome = RerunResolver.getOutcome();
+        RerunPlan plan = outcome != null ? outcome.getPlan() : null;
+        return plan != null ? plan.getTests() : null;
     }
 
     public static boolean isRerun() {
-        boolean result = false;
-        // if already checked
-        if (rerun) {
-            result = true;
-            // check if enabled
-        } else if (ConfigurationHolder.isReportingEnabled()) {
-            result = RerunResolver.isRerun();
-        }
-        return result;
+        return getPlan() != null;
+    }
+
+    /**
+     * Checks whether test with given uuid (correlation data provided by framework adapter) is meant to be executed on rerun
+     *
+     * @param uuid uuid of the test
+     * @return {@code true} if this run is a rerun and the test is meant to be executed
+     */
+    public static boolean shouldRerun(String uuid) {
+        return getTest(uuid).isPresent();
     }
 
     /**
-     * Puts tests that are eligible for rerun to context. Automatically sets isRerun value to true.
+     * Checks whether at least one invocation of given test method is meant to be executed on rerun
      *
-     * @param tests tests
+     * @param className  fully qualified name of the test class
+     * @param methodName name of the test method
+     * @return {@code true} if this run is a rerun and the test method is meant to be executed
+     */
+    public static boolean shouldRerun(String className, String methodName) {
+        return !getTests(className, methodName).isEmpty();
+    }
+
+    public static Optional<TestDTO> getTest(String uuid) {
+        return Optional.ofNullable(getPlan())
+                       .map(plan -> plan.getTestByUuid(uuid));
+    }
+
+    public static Optional<TestDTO> getTest(Long zebrunnerId) {
+        return Optional.ofNullable(getPlan())
+                       .map(plan -> plan.getTestById(zebrunnerId));
+    }
+
+    /**
+     * Returns all invocations of given test method that are meant to be executed on rerun
+     *
+     * @param className  fully qualified name of the test class
+     * @param methodName name of the test method
+     * @return tests meant to be executed, empty list if this run is not a rerun
+     */
+    public static List<TestDTO> getTests(String className, String methodName) {
+        RerunPlan plan = getPlan();
+        return plan != null ? plan.getTestsByMethod(className, methodName) : Collections.emptyList();
+    }
+
+    /**
+     * Waits for the rerun planning only once, the outcome is read without locking afterwards.
      */
-    static void setTests(List<TestDTO> tests) {
-        RerunContextHolder.tests = tests;
-        rerun = true;
+    private static RerunPlan getPlan() {
+        return ConfigurationHolder.isReportingEnabled() ? RerunResolver.awaitPlan() : null;
     }
 
 }
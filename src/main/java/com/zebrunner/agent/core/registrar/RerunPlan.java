@@ -0,0 +1,69 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests that are meant to be executed on rerun, indexed by uuid, Zebrunner id and test method
+ * for constant time lookups.
+ */
+final class RerunPlan {
+
+    private final List<TestDTO> tests;
+    private final Map<String, TestDTO> uuidToTest;
+    private final Map<Long, TestDTO> idToTest;
+    // data-driven tests may have several invocations of the same test method
+    private final Map<String, List<TestDTO>> methodToTests;
+
+    RerunPlan(List<TestDTO> tests) {
+        int capacity = tests.size() * 4 / 3 + 1;
+        Map<String, TestDTO> uuidToTest = new HashMap<>(capacity);
+        Map<Long, TestDTO> idToTest = new HashMap<>(capacity);
+        Map<String, List<TestDTO>> methodToTests = new HashMap<>(capacity);
+
+        for (TestDTO test : tests) {
+            if (test.getUuid() != null) {
+                uuidToTest.put(test.getUuid(), test);
+            }
+            if (test.getId() != null) {
+                idToTest.put(test.getId(), test);
+            }
+            if (test.getClassName() != null && test.getMethodName() != null) {
+                methodToTests.computeIfAbsent(methodKey(test.getClassName(), test.getMethodName()), key -> new ArrayList<>(1))
+                             .add(test);
+            }
+        }
+
+        this.tests = tests;
+        this.uuidToTest = uuidToTest;
+        this.idToTest = idToTest;
+        this.methodToTests = methodToTests;
+    }
+
+    List<TestDTO> getTests() {
+        return tests;
+    }
+
+    TestDTO getTestByUuid(String uuid) {
+        return uuidToTest.get(uuid);
+    }
+
+    TestDTO getTestById(Long id) {
+        return idToTest.get(id);
+    }
+
+    List<TestDTO> getTestsByMethod(String className, String methodName) {
+        List<TestDTO> tests = methodToTests.get(methodKey(className, methodName));
+        return tests != null ? Collections.unmodifiableList(tests) : Collections.emptyList();
+    }
+
+    private static String methodKey(String className, String methodName) {
+        return className + '#' + methodName;
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Stores the last fetched rerun plan per rerun condition (run id, statuses and test ids) in {@link RerunPlanFormat}.
+ * Stored plans are revalidated against Zebrunner with their validators, so that unchanged plans are not
+ * downloaded and parsed again on repeated reruns, and are used as-is if Zebrunner can not be reached.
+ */
+@Slf4j
+final class RerunPlanCache {
+
+    private final Path directory;
+
+    RerunPlanCache(Path directory) {
+        this.directory = directory;
+    }
+
+    void save(RerunCondition rerunCondition, Validators validators, List<TestDTO> tests) {
+        String key = keyOf(rerunCondition);
+        try {
+            Files.createDirectories(directory);
+            Path file = fileOf(key);
+            // the plan is written to a temporary file first, so that concurrent readers never see a partial plan
+            Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+                RerunPlanFormat.write(outputStream, key, validators, tests);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not store rerun plan of '{}' in {}", key, directory, e);
+        }
+    }
+
+    /**
+     * @return stored plan, {@code null} if there is no stored plan for the condition or it can not be read
+     */
+    StoredPlan load(RerunCondition rerunCondition) {
+        String key = keyOf(rerunCondition);
+        Path file = fileOf(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            List<TestDTO> tests = new ArrayList<>();
+            Validators validators = RerunPlanFormat.read(in, key, tests::add);
+            return new StoredPlan(validators, tests);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read stored rerun plan {}", file, e);
+            return null;
+        }
+    }
+
+    private static String keyOf(RerunCondition rerunCondition) {
+        // statuses and test ids are sorted, so that equivalent conditions (e.g. 'fallen' and '[failed, skipped]') share the plan
+        return rerunCondition.getRunId()
+                + ":statuses=" + new TreeSet<>(rerunCondition.getStatuses())
+                + ":tests=" + new TreeSet<>(rerunCondition.getTestIds());
+    }
+
+    private Path fileOf(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder fileName = new StringBuilder();
+            for (byte b : digest) {
+                fileName.append(String.format("%02x", b));
+            }
+            return directory.resolve(fileName.append(".plan").toString());
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Validators of a fetched plan, either of which may be {@code null} if not provided by Zebrunner.
+     */
+    @Value
+    static class Validators {
+
+        static final Validators NONE = new Validators(null, null);
+
+        String etag;
+        String lastModified;
+
+    }
+
+    @Value
+    static class StoredPlan {
+
+        Validators validators;
+        List<TestDTO> tests;
+
+    }
+
+}
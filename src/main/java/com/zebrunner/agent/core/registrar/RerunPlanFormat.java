@@ -0,0 +1,249 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.domain.ArtifactReferenceDTO;
+import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary format of stored rerun plans:
+ * <pre>
+ * plan    := MAGIC VERSION key etag lastModified stringCount string* testCount test*
+ * test    := id uuid name className methodName startedAt endedAt maintainer testCase result reason
+ *            labelCount (key value)* artifactReferenceCount (name value)*
+ * </pre>
+ * All strings are stored once in the string table (class names, label keys and values repeat a lot)
+ * and are referenced by their index. Counts and string references are unsigned varints, where string
+ * reference {@code 0} stands for {@code null}. Timestamps are stored as epoch seconds, nanos and zone offset.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class RerunPlanFormat {
+
+    private static final int MAGIC = 0x5A425250;
+    private static final int VERSION = 1;
+
+    static void write(OutputStream outputStream,
+                      String key,
+                      RerunPlanCache.Validators validators,
+                      List<TestDTO> tests) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream testsBytes = new ByteArrayOutputStream(tests.size() * 32);
+        DataOutputStream testsOut = new DataOutputStream(testsBytes);
+        writeVarInt(testsOut, tests.size());
+        for (TestDTO test : tests) {
+            writeTest(testsOut, strings, test);
+        }
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, key);
+        writeString(out, validators.getEtag());
+        writeString(out, validators.getLastModified());
+        writeVarInt(out, strings.values.size());
+        for (String value : strings.values) {
+            writeString(out, value);
+        }
+        testsBytes.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Reads the plan stored under given key.
+     *
+     * @return validators of the plan
+     * @throws IOException if the stream can not be read, contains unsupported version of the format
+     *                     or a plan stored under another key
+     */
+    static RerunPlanCache.Validators read(DataInputStream in, String key, Consumer<TestDTO> testConsumer) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a rerun plan");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported rerun plan version " + version);
+        }
+        if (!key.equals(readString(in))) {
+            throw new IOException("Rerun plan is stored under another key");
+        }
+        RerunPlanCache.Validators validators = new RerunPlanCache.Validators(readString(in), readString(in));
+
+        String[] strings = new String[readVarInt(in) + 1];
+        for (int i = 1; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+
+        int testCount = readVarInt(in);
+        for (int i = 0; i < testCount; i++) {
+            testConsumer.accept(readTest(in, strings));
+        }
+        return validators;
+    }
+
+    private static void writeTest(DataOutputStream out, StringTable strings, TestDTO test) throws IOException {
+        out.writeBoolean(test.getId() != null);
+        if (test.getId() != null) {
+            out.writeLong(test.getId());
+        }
+        writeVarInt(out, strings.indexOf(test.getUuid()));
+        writeVarInt(out, strings.indexOf(test.getName()));
+        writeVarInt(out, strings.indexOf(test.getClassName()));
+        writeVarInt(out, strings.indexOf(test.getMethodName()));
+        writeDateTime(out, test.getStartedAt());
+        writeDateTime(out, test.getEndedAt());
+        writeVarInt(out, strings.indexOf(test.getMaintainer()));
+        writeVarInt(out, strings.indexOf(test.getTestCase()));
+        writeVarInt(out, strings.indexOf(test.getResult()));
+        writeVarInt(out, strings.indexOf(test.getReason()));
+
+        List<LabelDTO> labels = test.getLabels();
+        writeVarInt(out, labels != null ? labels.size() + 1 : 0);
+        if (labels != null) {
+            for (LabelDTO label : labels) {
+                writeVarInt(out, strings.indexOf(label.getKey()));
+                writeVarInt(out, strings.indexOf(label.getValue()));
+            }
+        }
+
+        List<ArtifactReferenceDTO> artifactReferences = test.getArtifactReferences();
+        writeVarInt(out, artifactReferences != null ? artifactReferences.size() + 1 : 0);
+        if (artifactReferences != null) {
+            for (ArtifactReferenceDTO artifactReference : artifactReferences) {
+                writeVarInt(out, strings.indexOf(artifactReference.getName()));
+                writeVarInt(out, strings.indexOf(artifactReference.getValue()));
+            }
+        }
+    }
+
+    private static TestDTO readTest(DataInputStream in, String[] strings) throws IOException {
+        TestDTO test = new TestDTO();
+        test.setId(in.readBoolean() ? in.readLong() : null);
+        test.setUuid(strings[readVarInt(in)]);
+        test.setName(strings[readVarInt(in)]);
+        test.setClassName(strings[readVarInt(in)]);
+        test.setMethodName(strings[readVarInt(in)]);
+        test.setStartedAt(readDateTime(in));
+        test.setEndedAt(readDateTime(in));
+        test.setMaintainer(strings[readVarInt(in)]);
+        test.setTestCase(strings[readVarInt(in)]);
+        test.setResult(strings[readVarInt(in)]);
+        test.setReason(strings[readVarInt(in)]);
+
+        // list sizes are shifted by one, so that null lists can be told apart from empty ones
+        int labelCount = readVarInt(in) - 1;
+        if (labelCount >= 0) {
+            List<LabelDTO> labels = new ArrayList<>(labelCount);
+            for (int i = 0; i < labelCount; i++) {
+                labels.add(new LabelDTO(strings[readVarInt(in)], strings[readVarInt(in)]));
+            }
+            test.setLabels(labels);
+        }
+
+        int artifactReferenceCount = readVarInt(in) - 1;
+        if (artifactReferenceCount >= 0) {
+            List<ArtifactReferenceDTO> artifactReferences = new ArrayList<>(artifactReferenceCount);
+            for (int i = 0; i < artifactReferenceCount; i++) {
+                artifactReferences.add(new ArtifactReferenceDTO(strings[readVarInt(in)], strings[readVarInt(in)]));
+            }
+            test.setArtifactReferences(artifactReferences);
+        }
+        return test;
+    }
+
+    private static void writeDateTime(DataOutputStream out, OffsetDateTime dateTime) throws IOException {
+        out.writeBoolean(dateTime != null);
+        if (dateTime != null) {
+            out.writeLong(dateTime.toEpochSecond());
+            out.writeInt(dateTime.getNano());
+            out.writeInt(dateTime.getOffset().getTotalSeconds());
+        }
+    }
+
+    private static OffsetDateTime readDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(in.readInt()));
+    }
+
+    // unlike DataOutput.writeUTF(), values are not limited to 64 KiB (e.g. failure reasons with long stack traces)
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length + 1);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Unexpected end of rerun plan");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed rerun plan");
+    }
+
+    private static class StringTable {
+
+        private final Map<String, Integer> valueToIndex = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        // index 0 is reserved for null
+        int indexOf(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return valueToIndex.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size();
+            });
+        }
+
+    }
+
+}
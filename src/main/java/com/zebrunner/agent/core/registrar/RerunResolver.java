@@ -1,72 +1,251 @@
 package com.zebrunner.agent.core.registrar;
 
 import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.exception.TestAgentException;
 import com.zebrunner.agent.core.listener.AgentListenerHolder;
 import com.zebrunner.agent.core.listener.RerunListener;
 import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+/**
+ * Builds rerun plan. Planning is an explicit phase of test run start: it is started by {@link #start()}
+ * (so that the plan is fetched while test framework is initializing) and is awaited by {@link #await()}
+ * within configured deadline. Failed fetches are retried, and if the plan still can not be fetched,
+ * the plan stored at last successful fetch is used. If there is no such plan, the run either fails or runs
+ * all tests, depending on configured failure mode.
+ */
+@Slf4j
 final class RerunResolver {
 
-    private static CompletableFuture<List<TestDTO>> testToRerunFuture;
-    private static String runId;
+    private static final long RETRY_BACKOFF_MILLIS = 1_000;
 
-    synchronized static void resolve() {
-        String runPattern = ConfigurationHolder.getRerunRunId(); // can be null when first run, if not null - rerun
-        if (runPattern != null) {
-            processRerun(runPattern);
-        } else {
-            testToRerunFuture = CompletableFuture.completedFuture(null);
+    private static final RerunPlanCache PLAN_CACHE = new RerunPlanCache(ConfigurationHolder.getRerunCacheDirectory());
+    private static final RerunShard SHARD = new RerunShard(
+            ConfigurationHolder.getRerunShardIndex(),
+            ConfigurationHolder.getRerunShardCount(),
+            ConfigurationHolder.isRerunShardDurationBalanced()
+    );
+
+    // guarded by the class lock
+    private static String runPattern;
+    private static RerunCondition rerunCondition;
+    private static CompletableFuture<List<TestDTO>> planFuture;
+
+    /**
+     * Starts building of rerun plan in background. Does nothing if planning is already started.
+     * Never fails: an invalid rerun run id is reported by {@link #await()} according to configured failure mode.
+     */
+    static synchronized void start() {
+        if (planFuture == null) {
+            runPattern = ConfigurationHolder.getRerunRunId(); // can be null when first run, if not null - rerun
+            ForkCoordinator.SharedRun sharedRun = ForkCoordinator.getJoinedRun();
+            if (sharedRun != null) {
+                // the plan is resolved by the fork which registered the run
+                planFuture = CompletableFuture.completedFuture(sharedRun.getRerunPlan());
+            } else if (runPattern != null && ConfigurationHolder.isReportingEnabled()) {
+                try {
+                    rerunCondition = RerunConditionResolver.resolve(runPattern);
+                    RerunCondition condition = rerunCondition;
+                    planFuture = CompletableFuture.supplyAsync(() -> fetchPlan(condition));
+                } catch (RuntimeException e) {
+                    planFuture = new CompletableFuture<>();
+                    planFuture.completeExceptionally(e);
+                }
+            } else {
+                planFuture = CompletableFuture.completedFuture(null);
+            }
         }
     }
 
+    /**
+     * @return id of the rerun run, {@code null} if this run is not a rerun or planning is not finished yet
+     */
     static String getRunId() {
-        return runId;
+        Outcome outcome = getOutcome();
+        return outcome != null ? outcome.getRunId() : null;
     }
 
-    static boolean isRerun() {
-        if (testToRerunFuture == null) {
-            resolve();
-        }
+    /**
+     * @return outcome of rerun planning, {@code null} if planning is not finished yet
+     */
+    static Outcome getOutcome() {
+        return RunContext.getState().getRerunOutcome();
+    }
 
-        List<TestDTO> tests = getFutureResult(testToRerunFuture);
-        return tests != null;
+    /**
+     * @return whole (not sharded) rerun plan, {@code null} if this run is not a rerun or the plan is not resolved yet
+     */
+    static List<TestDTO> getPlan() {
+        Outcome outcome = getOutcome();
+        return outcome != null ? outcome.getWholePlan() : null;
     }
 
     /**
-     * Build test run plan according to rerun condition, initializes rerun context and loads available rerun listeners.
+     * Waits for the rerun plan (starting the planning if needed). Once the plan is available, rerun listeners
+     * are notified. Outcome of the planning is memoized, so only the first invocation may block, and the
+     * subsequent ones do not lock at all.
      *
-     * @param runPattern pattern to be used to build rerun plan
+     * @return {@code true} if this run is a rerun
+     * @throws TestAgentException if rerun plan is not available and failure mode is fatal
+     */
+    static boolean await() {
+        return awaitPlan() != null;
+    }
+
+    /**
+     * Same as {@link #await()}, but returns tests of this shard meant to be executed on rerun.
+     *
+     * @return tests to be rerun, {@code null} if this run is not a rerun
+     */
+    static RerunPlan awaitPlan() {
+        Outcome outcome = getOutcome();
+        if (outcome == null) {
+            outcome = resolveOnce();
+        }
+        if (outcome.getFailure() != null) {
+            throw outcome.getFailure();
+        }
+        return outcome.getPlan();
+    }
+
+    private static synchronized Outcome resolveOnce() {
+        Outcome outcome = getOutcome();
+        if (outcome == null) {
+            try {
+                outcome = resolvePlan();
+            } catch (RuntimeException e) {
+                outcome = new Outcome(null, null, null, e);
+            }
+            // the outcome is published as a part of run state, so that it is read without locking from now on
+            RunContext.setRerunOutcome(outcome);
+            if (outcome.getPlan() != null) {
+                for (RerunListener listener : AgentListenerHolder.getRerunListeners()) {
+                    listener.onRerun(outcome.getPlan().getTests());
+                }
+            }
+        }
+        return outcome;
+    }
+
+    private static Outcome resolvePlan() {
+        start();
+        int timeoutSeconds = ConfigurationHolder.getRerunTimeoutSeconds();
+        try {
+            List<TestDTO> tests = planFuture.get(timeoutSeconds, TimeUnit.SECONDS);
+            if (tests == null) {
+                return Outcome.NOT_RERUN;
+            }
+            return toOutcome(tests);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onPlanUnavailable(e);
+        } catch (ExecutionException e) {
+            return onPlanUnavailable(e.getCause());
+        } catch (TimeoutException e) {
+            return onPlanUnavailable(new TimeoutException("Rerun plan was not fetched within " + timeoutSeconds + " seconds"));
+        }
+    }
+
+    private static Outcome onPlanUnavailable(Throwable cause) {
+        // the condition is missing if the rerun run id is invalid
+        RerunPlanCache.StoredPlan storedPlan = rerunCondition != null ? PLAN_CACHE.load(rerunCondition) : null;
+        if (storedPlan != null) {
+            log.warn("Could not fetch rerun plan of '{}'. The plan stored at last successful fetch will be used", runPattern, cause);
+            return toOutcome(storedPlan.getTests());
+        }
+
+        if (ConfigurationHolder.isRerunFailureFatal()) {
+            throw new TestAgentException(
+                    "Could not resolve rerun plan of '" + runPattern + "'. Use 'run-all' rerun failure mode to run all tests instead",
+                    cause
+            );
+        }
+        log.error("Could not resolve rerun plan of '{}'. All tests will be run", runPattern, cause);
+        return new Outcome(getConditionRunId(), null, null, null);
+    }
+
+    /**
+     * Selects tests of this shard. The whole plan is kept as well (and is stored by
+     * {@link #fetchPlan(RerunCondition)}), so that it can be reused by any shard.
      */
-    private static void processRerun(String runPattern) {
-        ZebrunnerApiClient apiClient = ZebrunnerApiClient.getInstance();
-        testToRerunFuture = CompletableFuture.supplyAsync(() -> {
-            RerunCondition rerunCondition = RerunConditionResolver.resolve(runPattern);
-            runId = rerunCondition.getRunId();
-            List<TestDTO> tests = apiClient.getTestsByCiRunId(rerunCondition);
+    private static Outcome toOutcome(List<TestDTO> plan) {
+        List<TestDTO> tests = SHARD.select(plan);
+        if (SHARD.isSharded()) {
+            log.info("Rerun shard {} will execute {} of {} tests", SHARD, tests.size(), plan.size());
+        }
+        return new Outcome(getConditionRunId(), new RerunPlan(tests), plan, null);
+    }
 
-            RerunContextHolder.setTests(tests);
+    private static String getConditionRunId() {
+        return rerunCondition != null ? rerunCondition.getRunId() : null;
+    }
+
+    /**
+     * Fetches tests matching the rerun condition, retrying failed attempts with exponential backoff while
+     * there is time left until the deadline. If the plan was fetched before, it is only revalidated
+     * and is not downloaded again unless it is modified. Fetched plan is stored for subsequent reruns.
+     */
+    private static List<TestDTO> fetchPlan(RerunCondition rerunCondition) {
+        int retries = ConfigurationHolder.getRerunRetries();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(ConfigurationHolder.getRerunTimeoutSeconds());
+        RerunPlanCache.StoredPlan storedPlan = PLAN_CACHE.load(rerunCondition);
 
-            for (RerunListener listener : AgentListenerHolder.getRerunListeners()) {
-                listener.onRerun(tests);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                List<TestDTO> tests = new ArrayList<>();
+                Optional<RerunPlanCache.Validators> validators = ZebrunnerApiClient.getInstance().getTestsByCiRunId(
+                        rerunCondition, storedPlan != null ? storedPlan.getValidators() : null, tests::add
+                );
+
+                if (!validators.isPresent()) {
+                    log.debug("Rerun plan is not modified since it was fetched last time");
+                    return storedPlan.getTests();
+                }
+                PLAN_CACHE.save(rerunCondition, validators.get(), tests);
+                return tests;
+            } catch (RuntimeException e) {
+                long backoffMillis = RETRY_BACKOFF_MILLIS << attempt;
+                if (attempt >= retries || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis) > deadline) {
+                    throw e;
+                }
+                log.warn("Attempt {} of {} to fetch rerun plan failed, retrying in {} ms", attempt + 1, retries + 1, backoffMillis, e);
+                sleep(backoffMillis, e);
             }
-            return tests;
-        });
+        }
     }
 
-    private static <F> F getFutureResult(CompletableFuture<F> completableFuture) {
-        F result = null;
+    private static void sleep(long millis, RuntimeException failure) {
         try {
-            result = completableFuture.get(15, TimeUnit.SECONDS);
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            e.printStackTrace();
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
         }
-        return result;
+    }
+
+    /**
+     * Memoized outcome of rerun planning.
+     */
+    @Value
+    static class Outcome {
+
+        static final Outcome NOT_RERUN = new Outcome(null, null, null, null);
+
+        String runId;
+        // tests of this shard, null if this run is not a rerun
+        RerunPlan plan;
+        List<TestDTO> wholePlan;
+        RuntimeException failure;
+
     }
 
 }
@@ -0,0 +1,159 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects tests of rerun plan executed by one of several nodes (shards) the rerun is split across.
+ * <p>Every node receives the same plan and computes the same assignment independently, so the assignment
+ * depends only on the plan. Invocations of the same test method are always assigned to the same shard,
+ * so that framework adapters can keep deciding whether to run a test method by its class and method names.
+ * <p>Tests are assigned either by stable (FNV-1a) hash of the test method, or, if shards are balanced by duration,
+ * by the longest processing time first rule using durations of the tests in the previous run.
+ */
+final class RerunShard {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int index;
+    private final int count;
+    private final boolean durationBalanced;
+
+    RerunShard(int index, int count, boolean durationBalanced) {
+        this.index = index;
+        this.count = count;
+        this.durationBalanced = durationBalanced;
+    }
+
+    boolean isSharded() {
+        return count > 1;
+    }
+
+    /**
+     * @param tests all tests of rerun plan
+     * @return tests of this shard in the order of the plan
+     */
+    List<TestDTO> select(List<TestDTO> tests) {
+        if (!isSharded()) {
+            return tests;
+        }
+
+        Map<String, List<TestDTO>> keyToTests = new LinkedHashMap<>();
+        for (TestDTO test : tests) {
+            keyToTests.computeIfAbsent(keyOf(test), key -> new ArrayList<>(1))
+                      .add(test);
+        }
+
+        Set<String> shardKeys = durationBalanced
+                ? balanceByDuration(keyToTests)
+                : keyToTests.keySet()
+                            .stream()
+                            .filter(key -> Long.remainderUnsigned(hash(key), count) == index)
+                            .collect(Collectors.toSet());
+
+        List<TestDTO> shardTests = new ArrayList<>(tests.size() / count + 1);
+        keyToTests.forEach((key, keyTests) -> {
+            if (shardKeys.contains(key)) {
+                shardTests.addAll(keyTests);
+            }
+        });
+        return shardTests;
+    }
+
+    /**
+     * Assigns the longest test methods first, each one to the least loaded shard. Tests without known duration
+     * are considered to last as long as an average test with known duration.
+     */
+    private Set<String> balanceByDuration(Map<String, List<TestDTO>> keyToTests) {
+        Map<String, Long> keyToMillis = new LinkedHashMap<>(keyToTests.size() * 4 / 3 + 1);
+        long knownMillis = 0;
+        int knownCount = 0;
+        for (List<TestDTO> keyTests : keyToTests.values()) {
+            for (TestDTO test : keyTests) {
+                long millis = durationMillisOf(test);
+                if (millis >= 0) {
+                    knownMillis += millis;
+                    knownCount++;
+                }
+            }
+        }
+        long defaultMillis = knownCount != 0 ? knownMillis / knownCount : 1;
+
+        keyToTests.forEach((key, keyTests) -> {
+            long millis = 0;
+            for (TestDTO test : keyTests) {
+                long testMillis = durationMillisOf(test);
+                millis += testMillis >= 0 ? testMillis : defaultMillis;
+            }
+            keyToMillis.put(key, millis);
+        });
+
+        List<String> keys = new ArrayList<>(keyToMillis.keySet());
+        keys.sort(Comparator.<String, Long>comparing(keyToMillis::get, Comparator.reverseOrder())
+                            .thenComparing(Comparator.naturalOrder()));
+
+        // shard load and shard index, least loaded shard with the lowest index goes first
+        PriorityQueue<long[]> shards = new PriorityQueue<>(
+                count, Comparator.<long[]>comparingLong(shard -> shard[0]).thenComparingLong(shard -> shard[1])
+        );
+        for (int i = 0; i < count; i++) {
+            shards.add(new long[]{0, i});
+        }
+
+        Set<String> shardKeys = new HashSet<>();
+        for (String key : keys) {
+            long[] shard = shards.poll();
+            if (shard[1] == index) {
+                shardKeys.add(key);
+            }
+            shard[0] += keyToMillis.get(key);
+            shards.add(shard);
+        }
+        return shardKeys;
+    }
+
+    private static long durationMillisOf(TestDTO test) {
+        if (test.getStartedAt() == null || test.getEndedAt() == null) {
+            return -1;
+        }
+        long millis = Duration.between(test.getStartedAt(), test.getEndedAt()).toMillis();
+        return millis >= 0 ? millis : -1;
+    }
+
+    private static String keyOf(TestDTO test) {
+        if (test.getClassName() != null && test.getMethodName() != null) {
+            return test.getClassName() + '#' + test.getMethodName();
+        }
+        if (test.getUuid() != null) {
+            return test.getUuid();
+        }
+        return test.getId() != null ? String.valueOf(test.getId()) : String.valueOf(test.getName());
+    }
+
+    private static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + index + " of " + count;
+    }
+
+}
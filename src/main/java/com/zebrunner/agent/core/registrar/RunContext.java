@@ -1,38 +1,75 @@
 package com.zebrunner.agent.core.registrar;
 
+import com.zebrunner.agent.core.config.ConfigurationHolder;
 import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.TestFinishDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.TestRunDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Thread-safe test run context holder. It is used to keep track between atomic independent test run events
  * occurring in scope of test run: e.g. to match event describing test finish with event describing test start and
  * keep track on test run itself.
+ * <p>Current test is inherited by child threads by default. Since inheritance costs a copy on every thread creation
+ * and does not play well with thread pools and virtual threads, it can be switched off in favor of explicit
+ * propagation via {@link TestContextSnapshot}.
+ * <p>In order to keep memory bounded on very large runs, only the configured number of the most recently
+ * completed tests is retained, older ones are evicted.
+ * <p>Run-level state (test run and outcome of rerun planning) is written by a few threads and is read by all test
+ * threads. It is kept in a single immutable {@link RunState} replaced atomically on every change, so that every thread
+ * sees either the state before a change or the state after it, and never a mix of them.
  */
 class RunContext {
 
-    private static TestRunDescriptor testRun;
+    private static final AtomicReference<RunState> STATE = new AtomicReference<>(RunState.EMPTY);
     private static final Map<String, TestDescriptor> TESTS = new ConcurrentHashMap<>();
-    private static final ThreadLocal<TestDescriptor> THREAD_LOCAL_TEST = new InheritableThreadLocal<>();
+    // reverse index allowing to remove test by its descriptor in constant time.
+    // descriptors do not override equals and hashcode, so the index is identity-based
+    private static final Map<TestDescriptor, String> TEST_IDS = new ConcurrentHashMap<>();
+    private static final int COMPLETED_TESTS_RETENTION = ConfigurationHolder.getContextCompletedTestsRetention();
+    private static final Queue<TestDescriptor> COMPLETED_TESTS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger COMPLETED_TESTS_COUNT = new AtomicInteger();
+    private static final ThreadLocal<TestDescriptor> THREAD_LOCAL_TEST = ConfigurationHolder.isContextInheritable()
+            ? new InheritableThreadLocal<>()
+            : new ThreadLocal<>();
+
+    /**
+     * @return current run-level state. Values read from the same state are always consistent with each other
+     */
+    static RunState getState() {
+        return STATE.get();
+    }
 
     static void setRun(TestRunDescriptor testRunDescriptor) {
-        RunContext.testRun = testRunDescriptor;
+        STATE.updateAndGet(state -> state.withRun(testRunDescriptor));
+    }
+
+    static void completeRun(TestRunFinishDescriptor finishDescriptor) {
+        STATE.updateAndGet(state -> state.withRunFinish(finishDescriptor));
     }
 
-    static TestRunDescriptor getRun() {
-        return testRun;
+    static void setRerunOutcome(RerunResolver.Outcome rerunOutcome) {
+        STATE.updateAndGet(state -> state.withRerunOutcome(rerunOutcome));
     }
 
     static Long getZebrunnerRunId() {
-        return testRun != null ? testRun.getZebrunnerId() : null;
+        return STATE.get().getZebrunnerRunId();
     }
 
     static void addTest(String id, TestDescriptor testDescriptor) {
-        TESTS.put(id, testDescriptor);
+        TestDescriptor previousTest = TESTS.put(id, testDescriptor);
+        if (previousTest != null && previousTest != testDescriptor) {
+            TEST_IDS.remove(previousTest, id);
+        }
+        TEST_IDS.put(testDescriptor, id);
         THREAD_LOCAL_TEST.set(testDescriptor);
     }
 
@@ -44,10 +81,26 @@ class RunContext {
         return Optional.ofNullable(THREAD_LOCAL_TEST.get());
     }
 
+    /**
+     * Binds given test to the current thread.
+     *
+     * @param test test to be bound, {@code null} unbinds current test
+     * @return test that was bound to the current thread before the call (if any)
+     */
+    static TestDescriptor bindCurrentTest(TestDescriptor test) {
+        TestDescriptor previousTest = THREAD_LOCAL_TEST.get();
+        if (test != null) {
+            THREAD_LOCAL_TEST.set(test);
+        } else {
+            THREAD_LOCAL_TEST.remove();
+        }
+        return previousTest;
+    }
+
     static Optional<TestDescriptor> removeCurrentTest() {
         Optional<TestDescriptor> maybeCurrentTest = getCurrentTest();
         maybeCurrentTest.ifPresent(currentTest -> {
-            TESTS.values().removeIf(test -> test == currentTest);
+            remove(currentTest);
             THREAD_LOCAL_TEST.remove();
         });
 
@@ -59,6 +112,7 @@ class RunContext {
 
         if (testToComplete != null) {
             testToComplete.complete(tf);
+            retainCompleted(testToComplete);
 
             TestDescriptor threadLocalTest = THREAD_LOCAL_TEST.get();
             if (threadLocalTest == testToComplete) {
@@ -67,4 +121,30 @@ class RunContext {
         }
     }
 
+    /**
+     * Adds completed test to the retention queue and evicts the oldest completed test if retention is exceeded.
+     */
+    private static void retainCompleted(TestDescriptor completedTest) {
+        if (COMPLETED_TESTS_RETENTION < 0) {
+            return;
+        }
+
+        COMPLETED_TESTS.add(completedTest);
+        if (COMPLETED_TESTS_COUNT.incrementAndGet() > COMPLETED_TESTS_RETENTION) {
+            TestDescriptor evictedTest = COMPLETED_TESTS.poll();
+            if (evictedTest != null) {
+                COMPLETED_TESTS_COUNT.decrementAndGet();
+                remove(evictedTest);
+            }
+        }
+    }
+
+    private static void remove(TestDescriptor test) {
+        String id = TEST_IDS.remove(test);
+        if (id != null) {
+            // the id may already be reused by another test
+            TESTS.remove(id, test);
+        }
+    }
+
 }
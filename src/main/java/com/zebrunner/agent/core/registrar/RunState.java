@@ -0,0 +1,45 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.TestRunDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Immutable snapshot of run-level state shared by all test threads: the registered test run (including its finish)
+ * and the outcome of rerun planning. The snapshot is never modified, every change produces a new one, which is
+ * published by {@link RunContext} through a single reference. So a thread reading the snapshot once always sees
+ * a consistent combination of the values, either all of them before a change or all of them after it.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class RunState {
+
+    static final RunState EMPTY = new RunState(null, null);
+
+    // null until the run is registered
+    TestRunDescriptor run;
+    // null until rerun planning is finished
+    RerunResolver.Outcome rerunOutcome;
+
+    RunState withRun(TestRunDescriptor run) {
+        return new RunState(run, rerunOutcome);
+    }
+
+    /**
+     * @return state with completed run, or this state if there is no registered run
+     */
+    RunState withRunFinish(TestRunFinishDescriptor finishDescriptor) {
+        return run != null ? new RunState(run.complete(finishDescriptor), rerunOutcome) : this;
+    }
+
+    RunState withRerunOutcome(RerunResolver.Outcome rerunOutcome) {
+        return new RunState(run, rerunOutcome);
+    }
+
+    Long getZebrunnerRunId() {
+        return run != null ? run.getZebrunnerId() : null;
+    }
+
+}
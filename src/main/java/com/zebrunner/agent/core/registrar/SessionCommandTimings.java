@@ -0,0 +1,65 @@
+package com.zebrunner.agent.core.registrar;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of latencies of commands issued in scope of a single driver session.
+ * One {@link LatencyHistogram} is maintained per command (driver method) name.
+ */
+final class SessionCommandTimings {
+
+    private static final String SUMMARY_HEADER_FORMAT = "%-32s %8s %12s %10s %10s %10s %10s%n";
+    private static final String SUMMARY_ROW_FORMAT = "%-32s %8d %12.1f %10.1f %10.1f %10.1f %10.1f%n";
+
+    private final String sessionId;
+    private final Map<String, LatencyHistogram> commandToHistogram = new ConcurrentHashMap<>();
+
+    SessionCommandTimings(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    void record(String command, long durationNanos) {
+        commandToHistogram.computeIfAbsent(command, name -> new LatencyHistogram())
+                          .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    boolean isEmpty() {
+        return commandToHistogram.isEmpty();
+    }
+
+    /**
+     * Renders human-readable table with count, total, average, 50th/95th percentiles and max latency per command.
+     * Commands are sorted by name. All durations are in milliseconds.
+     *
+     * @return rendered summary
+     */
+    String toSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("WebDriver commands issued in scope of session ").append(sessionId).append(System.lineSeparator())
+               .append(String.format(SUMMARY_HEADER_FORMAT, "command", "count", "total, ms", "avg, ms", "p50, ms", "p95, ms", "max, ms"));
+
+        new TreeMap<>(commandToHistogram).forEach((command, histogram) -> {
+            long count = histogram.getCount();
+            double total = toMillis(histogram.getTotalMicros());
+            summary.append(String.format(
+                    SUMMARY_ROW_FORMAT,
+                    command,
+                    count,
+                    total,
+                    count != 0 ? total / count : 0,
+                    toMillis(histogram.getValueAtPercentile(50)),
+                    toMillis(histogram.getValueAtPercentile(95)),
+                    toMillis(histogram.getMaxMicros())
+            ));
+        });
+        return summary.toString();
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+}
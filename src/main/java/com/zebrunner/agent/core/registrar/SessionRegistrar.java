@@ -4,14 +4,26 @@ import com.zebrunner.agent.core.registrar.descriptor.SessionCloseDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
 import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
 import com.zebrunner.agent.core.registrar.domain.TestSessionDTO;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Keeps track of driver sessions and links them to tests. Tracking is lock-free and is keyed by test scope: a session
+ * started by a test is owned by that test (by its Zebrunner id), and a session started outside of any test
+ * (e.g. in a before-class method) is owned by the thread it was started in until a test starts in that thread.
+ * Test scopes are dropped when their tests finish, so sessions are neither shared with child threads nor leaked
+ * to other tests via reused pool threads - sessions used by a test other than the owner one are linked to that test
+ * on the first driver command anyway.
+ */
 @Slf4j
 class SessionRegistrar implements DriverSessionRegistrar {
 
@@ -23,8 +35,9 @@ class SessionRegistrar implements DriverSessionRegistrar {
 
     private final ZebrunnerApiClient apiClient = ZebrunnerApiClient.getInstance();
 
-    private final Map<String, TestSessionDTO> sessionIdToSession = new ConcurrentHashMap<>();
-    private final ThreadLocal<Set<String>> threadSessionIds = InheritableThreadLocal.withInitial(HashSet::new);
+    private final Map<String, TrackedSession> sessionIdToSession = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> ownerTestIdToSessionIds = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> ownerThreadIdToSessionIds = new ConcurrentHashMap<>();
 
     @Override
     public void registerStart(SessionStartDescriptor context) {
@@ -33,20 +46,32 @@ class SessionRegistrar implements DriverSessionRegistrar {
         TestSessionDTO testSession = TestSessionDTO.builder()
                                                    .sessionId(sessionId)
                                                    .startedAt(Instant.now())
-                                                   .capabilities(context.getCapabilities().asMap())
-                                                   .desiredCapabilities(context.getDesiredCapabilities().asMap())
+                                                   .capabilities(CapabilitiesSnapshot.of(context.getCapabilities()))
+                                                   .desiredCapabilities(CapabilitiesSnapshot.of(context.getDesiredCapabilities()))
                                                    .build();
 
-        RunContext.getCurrentTest()
-                  .map(TestDescriptor::getZebrunnerId)
-                  .ifPresent(testSession.getTestIds()::add);
+        Long ownerTestId = RunContext.getCurrentTest()
+                                     .map(TestDescriptor::getZebrunnerId)
+                                     .orElse(null);
+        if (ownerTestId != null) {
+            testSession.getTestIds().add(ownerTestId);
+        }
 
-        testSession = apiClient.startSession(RunContext.getZebrunnerRunId(), testSession);
+        TestSessionDTO startedSession = apiClient.startSession(RunContext.getZebrunnerRunId(), testSession);
 
         // if reporting is enabled and test run was actually registered
-        if (testSession != null) {
-            sessionIdToSession.put(testSession.getSessionId(), testSession);
-            threadSessionIds.get().add(testSession.getSessionId());
+        if (startedSession != null) {
+            long ownerThreadId = Thread.currentThread().getId();
+            // the captured state is taken from the request, since the response is not required to echo it
+            TrackedSession trackedSession = new TrackedSession(
+                    startedSession.getId(), testSession, ownerThreadId, ownerTestId
+            );
+            sessionIdToSession.put(startedSession.getSessionId(), trackedSession);
+            if (ownerTestId != null) {
+                own(ownerTestIdToSessionIds, ownerTestId, sessionId);
+            } else {
+                own(ownerThreadIdToSessionIds, ownerThreadId, sessionId);
+            }
         }
 
         log.debug("Registration of test session start completed. {}", context);
@@ -55,14 +80,31 @@ class SessionRegistrar implements DriverSessionRegistrar {
     @Override
     public void registerClose(SessionCloseDescriptor context) {
         log.debug("Registering test session close. {}", context);
-        TestSessionDTO testSession = sessionIdToSession.get(context.getSessionId());
-        if (testSession != null) {
-            testSession.setEndedAt(Instant.now());
+        String sessionId = context.getSessionId();
+        TrackedSession trackedSession = sessionIdToSession.remove(sessionId);
+        if (trackedSession != null) {
+            // session may be closed by a thread or a test other than the owner one
+            Long ownerTestId = trackedSession.getOwnerTestId();
+            if (ownerTestId != null) {
+                disown(ownerTestIdToSessionIds, ownerTestId, sessionId);
+            } else {
+                disown(ownerThreadIdToSessionIds, trackedSession.getOwnerThreadId(), sessionId);
+            }
+
+            apiClient.updateSession(RunContext.getZebrunnerRunId(), trackedSession.toUpdate(Instant.now()));
 
-            apiClient.updateSession(RunContext.getZebrunnerRunId(), testSession);
+            SessionCommandTimings commandTimings = trackedSession.getCommandTimings();
+            if (!commandTimings.isEmpty()) {
+                String summary = commandTimings.toSummary();
+                log.debug(summary);
 
-            sessionIdToSession.remove(context.getSessionId());
-            threadSessionIds.get().remove(context.getSessionId());
+                byte[] artifact = summary.getBytes(StandardCharsets.UTF_8);
+                String artifactName = "webdriver-session-" + sessionId + "-commands.txt";
+                // session of no test is not worth a test run artifact, its summary is only logged
+                for (Long testId : getSummaryTestIds(trackedSession)) {
+                    Artifact.attachToTest(testId, artifactName, artifact);
+                }
+            }
         }
 
         log.debug("Registration of test session close completed. {}", context);
@@ -70,7 +112,25 @@ class SessionRegistrar implements DriverSessionRegistrar {
 
     @Override
     public void linkAllCurrentToTest(Long zebrunnerTestId) {
-        threadSessionIds.get().forEach(sessionId -> link(sessionId, zebrunnerTestId));
+        // sessions started in the thread before the test are handed over to the test
+        Set<String> threadSessionIds = ownerThreadIdToSessionIds.remove(Thread.currentThread().getId());
+        if (threadSessionIds != null) {
+            for (String sessionId : threadSessionIds) {
+                TrackedSession trackedSession = sessionIdToSession.get(sessionId);
+                if (trackedSession != null) {
+                    trackedSession.setOwnerTestId(zebrunnerTestId);
+                    own(ownerTestIdToSessionIds, zebrunnerTestId, sessionId);
+                }
+            }
+        }
+        // headless test and the test it is turned into share the id, so the sessions may already be owned
+        ownerTestIdToSessionIds.getOrDefault(zebrunnerTestId, Collections.emptySet())
+                               .forEach(sessionId -> link(sessionId, zebrunnerTestId));
+    }
+
+    @Override
+    public void releaseTestSessions(Long zebrunnerTestId) {
+        ownerTestIdToSessionIds.remove(zebrunnerTestId);
     }
 
     @Override
@@ -80,16 +140,99 @@ class SessionRegistrar implements DriverSessionRegistrar {
                   .ifPresent(currentTestId -> link(sessionId, currentTestId));
     }
 
+    @Override
+    public void registerCommand(String sessionId, String command, long durationNanos) {
+        TrackedSession trackedSession = sessionIdToSession.get(sessionId);
+        if (trackedSession != null) {
+            trackedSession.getCommandTimings().record(command, durationNanos);
+        }
+    }
+
+    /**
+     * @return owner test of the session, or all the tests linked to it if the session is not owned by a test
+     */
+    private static Collection<Long> getSummaryTestIds(TrackedSession trackedSession) {
+        Long ownerTestId = trackedSession.getOwnerTestId();
+        return ownerTestId != null ? Collections.singleton(ownerTestId) : trackedSession.getTestIds();
+    }
+
+    private static void own(Map<Long, Set<String>> ownerIdToSessionIds, Long ownerId, String sessionId) {
+        ownerIdToSessionIds.compute(ownerId, (id, sessionIds) -> {
+            Set<String> ownedSessionIds = sessionIds != null ? sessionIds : ConcurrentHashMap.newKeySet();
+            ownedSessionIds.add(sessionId);
+            return ownedSessionIds;
+        });
+    }
+
+    private static void disown(Map<Long, Set<String>> ownerIdToSessionIds, Long ownerId, String sessionId) {
+        ownerIdToSessionIds.computeIfPresent(ownerId, (id, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
     private void link(String sessionId, Long zebrunnerId) {
-        TestSessionDTO testSession = sessionIdToSession.get(sessionId);
-        if (testSession != null) {
-            Set<Long> testIds = testSession.getTestIds();
+        TrackedSession trackedSession = sessionIdToSession.get(sessionId);
+        if (trackedSession != null && trackedSession.getTestIds().add(zebrunnerId)) {
+            log.debug("Linking test '{}' to session '{}'", zebrunnerId, sessionId);
+            apiClient.updateSession(RunContext.getZebrunnerRunId(), trackedSession.toUpdate(null));
+        }
+    }
 
-            if (testIds.add(zebrunnerId)) {
-                log.debug("Linking test '{}' to session '{}'", zebrunnerId, sessionId);
-                apiClient.updateSession(RunContext.getZebrunnerRunId(), testSession);
+    /**
+     * Session state required after its start. Session update replaces the session on Zebrunner side, so start time
+     * and capabilities snapshots taken on session start are retained and are sent along with every update.
+     * The snapshots are already filtered and trimmed, so they are neither captured nor trimmed again.
+     */
+    @Getter
+    private static class TrackedSession {
+
+        private final Long id;
+        private final String sessionId;
+        private final Instant startedAt;
+        private final Object capabilities;
+        private final Object desiredCapabilities;
+        private final long ownerThreadId;
+        // set once the session started outside of any test is handed over to a test
+        @Setter
+        private volatile Long ownerTestId;
+        private final Set<Long> testIds;
+        private final SessionCommandTimings commandTimings;
+
+        TrackedSession(Long id, TestSessionDTO session, long ownerThreadId, Long ownerTestId) {
+            this.id = id;
+            this.sessionId = session.getSessionId();
+            this.startedAt = session.getStartedAt();
+            this.capabilities = session.getCapabilities();
+            this.desiredCapabilities = session.getDesiredCapabilities();
+            this.ownerThreadId = ownerThreadId;
+            this.ownerTestId = ownerTestId;
+            // links may be added concurrently while the session is being serialized for update
+            this.testIds = ConcurrentHashMap.newKeySet();
+            if (session.getTestIds() != null) {
+                this.testIds.addAll(session.getTestIds());
             }
+            this.commandTimings = new SessionCommandTimings(sessionId);
         }
+
+        /**
+         * Creates session update carrying captured session state, linked tests and (optionally) session end time.
+         *
+         * @param endedAt session end time, {@code null} if session is still active
+         * @return session update
+         */
+        TestSessionDTO toUpdate(Instant endedAt) {
+            return TestSessionDTO.builder()
+                                 .id(id)
+                                 .sessionId(sessionId)
+                                 .startedAt(startedAt)
+                                 .endedAt(endedAt)
+                                 .capabilities(capabilities)
+                                 .desiredCapabilities(desiredCapabilities)
+                                 .testIds(testIds)
+                                 .build();
+        }
+
     }
 
 }
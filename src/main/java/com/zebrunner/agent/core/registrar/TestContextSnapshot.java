@@ -0,0 +1,80 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.TestDescriptor;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Snapshot of the test context (currently running test) captured in some thread, that can be restored in another one.
+ * Allows logs, screenshots, artifacts and driver sessions produced by asynchronous tasks (executors,
+ * {@code CompletableFuture} stages, virtual threads) to be attributed to the test that spawned them
+ * without relying on inheritable thread locals.
+ * <p>The captured context is bound only for the duration of the wrapped task, and the context of the executing thread
+ * is restored afterwards, so pooled threads never retain a context of the previous task.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TestContextSnapshot {
+
+    private final TestDescriptor test;
+
+    /**
+     * Captures context of the current thread
+     *
+     * @return captured context
+     */
+    public static TestContextSnapshot capture() {
+        return new TestContextSnapshot(RunContext.getCurrentTest().orElse(null));
+    }
+
+    /**
+     * Wraps given executor, so that context of the thread submitting a task is propagated to that task
+     *
+     * @param executor executor to wrap
+     * @return context propagating executor
+     */
+    public static Executor propagating(Executor executor) {
+        return task -> executor.execute(capture().wrap(task));
+    }
+
+    public void run(Runnable task) {
+        TestDescriptor previousTest = RunContext.bindCurrentTest(test);
+        try {
+            task.run();
+        } finally {
+            RunContext.bindCurrentTest(previousTest);
+        }
+    }
+
+    public <V> V call(Callable<V> task) throws Exception {
+        TestDescriptor previousTest = RunContext.bindCurrentTest(test);
+        try {
+            return task.call();
+        } finally {
+            RunContext.bindCurrentTest(previousTest);
+        }
+    }
+
+    public Runnable wrap(Runnable task) {
+        return () -> run(task);
+    }
+
+    public <V> Callable<V> wrap(Callable<V> task) {
+        return () -> call(task);
+    }
+
+    public <V> Supplier<V> wrap(Supplier<V> task) {
+        return () -> {
+            TestDescriptor previousTest = RunContext.bindCurrentTest(test);
+            try {
+                return task.get();
+            } finally {
+                RunContext.bindCurrentTest(previousTest);
+            }
+        };
+    }
+
+}
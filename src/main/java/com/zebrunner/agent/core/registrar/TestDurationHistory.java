@@ -0,0 +1,124 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.config.ConfigurationHolder;
+import com.zebrunner.agent.core.listener.AgentListenerHolder;
+import com.zebrunner.agent.core.listener.TestDurationListener;
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Provides {@link TestDurationListener}s with durations of tests in a previous run. Tests of the run configured by
+ * {@link ConfigurationHolder#getRunHistoryRunId()} are fetched in background: the history is stored next to rerun
+ * plans, and subsequent runs only revalidate it, the same way rerun plans are revalidated. If there is no configured
+ * run, durations are taken from rerun plan. Durations are optional, so failures are logged and do not fail the run.
+ */
+@Slf4j
+final class TestDurationHistory {
+
+    private static final RerunPlanCache HISTORY_CACHE = new RerunPlanCache(ConfigurationHolder.getRerunCacheDirectory());
+
+    // guarded by the class lock
+    private static CompletableFuture<List<TestDTO>> historyFuture;
+    private static boolean published;
+
+    /**
+     * Starts fetching of test durations in background. Does nothing if there are no listeners to be notified.
+     */
+    static synchronized void start() {
+        if (historyFuture == null) {
+            String historyRunId = ConfigurationHolder.getRunHistoryRunId();
+            if (historyRunId != null
+                    && ConfigurationHolder.isReportingEnabled()
+                    && !AgentListenerHolder.getTestDurationListeners().isEmpty()) {
+                RerunCondition condition = new RerunCondition(historyRunId, Collections.emptySet(), Collections.emptySet());
+                historyFuture = CompletableFuture.supplyAsync(() -> fetchHistory(condition));
+            } else {
+                historyFuture = CompletableFuture.completedFuture(null);
+            }
+        }
+    }
+
+    /**
+     * Waits for the durations within rerun timeout and notifies listeners. Listeners are notified only once.
+     */
+    static synchronized void publish() {
+        if (published) {
+            return;
+        }
+        published = true;
+        if (AgentListenerHolder.getTestDurationListeners().isEmpty()) {
+            return;
+        }
+
+        start();
+        List<TestDTO> tests = awaitHistory();
+        if (tests == null && RerunContextHolder.isRerun()) {
+            tests = RerunContextHolder.getTests();
+        }
+        if (tests == null) {
+            return;
+        }
+
+        TestDurations durations = new TestDurations(tests);
+        if (!durations.isEmpty()) {
+            for (TestDurationListener listener : AgentListenerHolder.getTestDurationListeners()) {
+                listener.onTestDurations(durations);
+            }
+        }
+    }
+
+    private static List<TestDTO> awaitHistory() {
+        int timeoutSeconds = ConfigurationHolder.getRerunTimeoutSeconds();
+        try {
+            return historyFuture.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while fetching test durations of '{}'", ConfigurationHolder.getRunHistoryRunId());
+        } catch (ExecutionException e) {
+            log.warn("Could not fetch test durations of '{}'", ConfigurationHolder.getRunHistoryRunId(), e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("Test durations of '{}' were not fetched within {} seconds", ConfigurationHolder.getRunHistoryRunId(), timeoutSeconds);
+        }
+        return null;
+    }
+
+    /**
+     * Fetches the history, or only revalidates it if it was fetched before: reruns report into the same run,
+     * so the stored history is downloaded again once it is modified. If revalidation fails, the stored history
+     * is used as is, since durations of a slightly outdated run are still good estimates.
+     */
+    private static List<TestDTO> fetchHistory(RerunCondition condition) {
+        RerunPlanCache.StoredPlan storedHistory = HISTORY_CACHE.load(condition);
+
+        List<TestDTO> tests = new ArrayList<>();
+        Optional<RerunPlanCache.Validators> validators;
+        try {
+            validators = ZebrunnerApiClient.getInstance().getTestsByCiRunId(
+                    condition, storedHistory != null ? storedHistory.getValidators() : null, tests::add
+            );
+        } catch (RuntimeException e) {
+            if (storedHistory == null) {
+                throw e;
+            }
+            log.warn("Could not revalidate test durations of '{}', stored ones are used", condition.getRunId(), e);
+            return storedHistory.getTests();
+        }
+
+        if (!validators.isPresent()) {
+            log.debug("Test durations of '{}' are not modified since they were fetched", condition.getRunId());
+            return storedHistory.getTests();
+        }
+        HISTORY_CACHE.save(condition, validators.get(), tests);
+        return tests;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.domain.TestDTO;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Immutable durations of tests in a previous run. Durations are indexed by test method (a data-driven test method
+ * has the total duration of all its invocations) and by uuid of a single invocation.
+ */
+public final class TestDurations {
+
+    private final Map<String, Long> methodToMillis;
+    private final Map<String, Long> uuidToMillis;
+    private final long averageMillis;
+
+    TestDurations(List<TestDTO> tests) {
+        Map<String, Long> methodToMillis = new HashMap<>(tests.size() * 4 / 3 + 1);
+        Map<String, Long> uuidToMillis = new HashMap<>(tests.size() * 4 / 3 + 1);
+        long totalMethodMillis = 0;
+
+        for (TestDTO test : tests) {
+            if (test.getStartedAt() == null || test.getEndedAt() == null) {
+                continue;
+            }
+            long millis = Duration.between(test.getStartedAt(), test.getEndedAt()).toMillis();
+            if (millis < 0) {
+                continue;
+            }
+
+            if (test.getClassName() != null && test.getMethodName() != null) {
+                methodToMillis.merge(methodKey(test.getClassName(), test.getMethodName()), millis, Long::sum);
+                totalMethodMillis += millis;
+            }
+            if (test.getUuid() != null) {
+                uuidToMillis.put(test.getUuid(), millis);
+            }
+        }
+
+        this.methodToMillis = methodToMillis;
+        this.uuidToMillis = uuidToMillis;
+        this.averageMillis = methodToMillis.isEmpty() ? 0 : totalMethodMillis / methodToMillis.size();
+    }
+
+    public boolean isEmpty() {
+        return methodToMillis.isEmpty() && uuidToMillis.isEmpty();
+    }
+
+    /**
+     * @param className  fully qualified name of the test class
+     * @param methodName name of the test method
+     * @return total duration of all invocations of the test method, empty if the method was not executed
+     */
+    public Optional<Duration> getDuration(String className, String methodName) {
+        return Optional.ofNullable(methodToMillis.get(methodKey(className, methodName)))
+                       .map(Duration::ofMillis);
+    }
+
+    /**
+     * @param uuid uuid of the test (correlation data provided by framework adapter)
+     * @return duration of the test invocation, empty if the test was not executed
+     */
+    public Optional<Duration> getDuration(String uuid) {
+        return Optional.ofNullable(uuidToMillis.get(uuid))
+                       .map(Duration::ofMillis);
+    }
+
+    /**
+     * Creates comparator ordering test methods from the longest to the shortest one, so that the slowest tests
+     * are started first. Test methods without known duration are considered to be average ones.
+     *
+     * @param classNameExtractor  function extracting fully qualified name of the test class
+     * @param methodNameExtractor function extracting name of the test method
+     * @param <T>                 type of test representation used by test framework
+     * @return longest first comparator
+     */
+    public <T> Comparator<T> longestFirst(Function<? super T, String> classNameExtractor,
+                                          Function<? super T, String> methodNameExtractor) {
+        Comparator<T> shortestFirst = Comparator.comparingLong(test -> methodToMillis.getOrDefault(
+                methodKey(classNameExtractor.apply(test), methodNameExtractor.apply(test)), averageMillis
+        ));
+        return shortestFirst.reversed();
+    }
+
+    private static String methodKey(String className, String methodName) {
+        return className + '#' + methodName;
+    }
+
+}
@@ -22,7 +22,7 @@ public interface TestRunRegistrar {
      */
     static TestRunRegistrar getInstance() {
         if (ConfigurationHolder.isReportingEnabled()) {
-            return ReportingRegistrar.getInstance();
+            return TracingTestRunRegistrar.getInstance();
         } else {
             LOGGER.warn("Reporting disabled: using no op test run registrar");
             return NoOpTestRunRegistrar.getInstance();
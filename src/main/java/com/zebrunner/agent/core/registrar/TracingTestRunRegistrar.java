@@ -0,0 +1,79 @@
+package com.zebrunner.agent.core.registrar;
+
+import com.zebrunner.agent.core.registrar.descriptor.TestFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunFinishDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestRunStartDescriptor;
+import com.zebrunner.agent.core.registrar.descriptor.TestStartDescriptor;
+import com.zebrunner.agent.core.telemetry.AgentTracer;
+import com.zebrunner.agent.core.telemetry.TelemetryBridgeHolder;
+
+import java.util.function.Consumer;
+
+/**
+ * Wraps every registration made by {@link ReportingRegistrar} into a trace span, so that spans of Zebrunner calls
+ * made in scope of the registration become its children. The decorator is used only if OpenTelemetry is bound
+ * to the agent, otherwise {@link ReportingRegistrar} is used directly.
+ */
+final class TracingTestRunRegistrar implements TestRunRegistrar {
+
+    static TestRunRegistrar getInstance() {
+        return TelemetryBridgeHolder.isTracingEnabled() ? InstanceHolder.INSTANCE : ReportingRegistrar.getInstance();
+    }
+
+    private final TestRunRegistrar registrar;
+
+    private TracingTestRunRegistrar(TestRunRegistrar registrar) {
+        this.registrar = registrar;
+    }
+
+    @Override
+    public void registerStart(TestRunStartDescriptor testRunStartDescriptor) {
+        traced("register test run start", testRunStartDescriptor, registrar::registerStart);
+    }
+
+    @Override
+    public void registerFinish(TestRunFinishDescriptor testRunFinishDescriptor) {
+        traced("register test run finish", testRunFinishDescriptor, registrar::registerFinish);
+    }
+
+    @Override
+    public void registerHeadlessTestStart(String id, TestStartDescriptor testStartDescriptor) {
+        traced("register headless test start", testStartDescriptor, ts -> registrar.registerHeadlessTestStart(id, ts));
+    }
+
+    @Override
+    public void registerTestStart(String id, TestStartDescriptor testStartDescriptor) {
+        traced("register test start", testStartDescriptor, ts -> registrar.registerTestStart(id, ts));
+    }
+
+    @Override
+    public boolean isTestStarted(String id) {
+        return registrar.isTestStarted(id);
+    }
+
+    @Override
+    public void registerTestFinish(String id, TestFinishDescriptor testFinishDescriptor) {
+        traced("register test finish", testFinishDescriptor, tf -> registrar.registerTestFinish(id, tf));
+    }
+
+    private static <D> void traced(String name, D descriptor, Consumer<D> registration) {
+        AgentTracer.Span span = TelemetryBridgeHolder.getTracer().startSpan(name);
+        try {
+            registration.accept(descriptor);
+        } catch (RuntimeException e) {
+            span.setError(e.getMessage(), e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static class InstanceHolder {
+
+        private static final TracingTestRunRegistrar INSTANCE = new TracingTestRunRegistrar(
+                ReportingRegistrar.getInstance()
+        );
+
+    }
+
+}
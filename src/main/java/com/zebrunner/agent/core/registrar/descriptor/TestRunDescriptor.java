@@ -1,25 +1,32 @@
 package com.zebrunner.agent.core.registrar.descriptor;
 
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 import java.time.OffsetDateTime;
 
+/**
+ * Immutable descriptor of registered test run. Completion produces a new descriptor, so that the descriptor
+ * can be shared with other threads without any synchronization.
+ */
 @Getter
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class TestRunDescriptor {
 
     private final Long zebrunnerId;
     private final TestRunStartDescriptor startDescriptor;
-    private TestRunFinishDescriptor finishDescriptor;
+    private final TestRunFinishDescriptor finishDescriptor;
 
     public static TestRunDescriptor create(Long zebrunnerId, TestRunStartDescriptor startDescriptor) {
-        return new TestRunDescriptor(zebrunnerId, startDescriptor);
+        return new TestRunDescriptor(zebrunnerId, startDescriptor, null);
     }
 
-    public void complete(TestRunFinishDescriptor finishDescriptor) {
-        this.finishDescriptor = finishDescriptor;
+    /**
+     * @return completed copy of this descriptor
+     */
+    public TestRunDescriptor complete(TestRunFinishDescriptor finishDescriptor) {
+        return new TestRunDescriptor(zebrunnerId, startDescriptor, finishDescriptor);
     }
 
     boolean hasFinished() {
@@ -0,0 +1,258 @@
+package com.zebrunner.agent.core.registrar.domain;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.zebrunner.agent.core.logging.Log;
+
+import java.io.IOException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+
+/**
+ * Creates adapters writing the payloads sent to Zebrunner directly to {@link JsonWriter}: neither reflection
+ * nor adapter lookups are involved in serialization of a field, and timestamps are written as plain strings.
+ * The output is the same as the one of reflective serialization: fields are written in declaration order
+ * and {@code null} fields are omitted.
+ * <p>Responses are read rarely, so they are still read by the reflective adapters.
+ */
+final class DomainTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Log.class) {
+            return (TypeAdapter<T>) new LogAdapter(gson.getDelegateAdapter(this, TypeToken.get(Log.class)));
+        }
+        if (rawType == LabelDTO.class) {
+            return (TypeAdapter<T>) new LabelAdapter(gson.getDelegateAdapter(this, TypeToken.get(LabelDTO.class)));
+        }
+        if (rawType == ArtifactReferenceDTO.class) {
+            return (TypeAdapter<T>) new ArtifactReferenceAdapter(
+                    gson.getDelegateAdapter(this, TypeToken.get(ArtifactReferenceDTO.class))
+            );
+        }
+        if (rawType == TestDTO.class) {
+            return (TypeAdapter<T>) new TestAdapter(gson.getDelegateAdapter(this, TypeToken.get(TestDTO.class)));
+        }
+        if (rawType == TestRunDTO.class) {
+            return (TypeAdapter<T>) new TestRunAdapter(gson.getDelegateAdapter(this, TypeToken.get(TestRunDTO.class)));
+        }
+        if (rawType == TestSessionDTO.class) {
+            return (TypeAdapter<T>) new TestSessionAdapter(
+                    gson.getDelegateAdapter(this, TypeToken.get(TestSessionDTO.class)), gson.getAdapter(Object.class)
+            );
+        }
+        return null;
+    }
+
+    /**
+     * Writes all the fields in {@link #writeFields(JsonWriter, Object)}, reads the value by the reflective adapter.
+     */
+    private abstract static class DomainAdapter<T> extends TypeAdapter<T> {
+
+        private final TypeAdapter<T> readAdapter;
+
+        DomainAdapter(TypeAdapter<T> readAdapter) {
+            this.readAdapter = readAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.beginObject();
+                writeFields(out, value);
+                out.endObject();
+            }
+        }
+
+        abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            return readAdapter.read(in);
+        }
+
+    }
+
+    private static class LogAdapter extends DomainAdapter<Log> {
+
+        LogAdapter(TypeAdapter<Log> readAdapter) {
+            super(readAdapter);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, Log log) throws IOException {
+            writeString(out, "testId", log.getTestId());
+            writeString(out, "message", log.getMessage());
+            writeString(out, "level", log.getLevel());
+            out.name("timestamp").value(log.getTimestamp());
+        }
+
+    }
+
+    private static class LabelAdapter extends DomainAdapter<LabelDTO> {
+
+        LabelAdapter(TypeAdapter<LabelDTO> readAdapter) {
+            super(readAdapter);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, LabelDTO label) throws IOException {
+            writeString(out, "key", label.getKey());
+            writeString(out, "value", label.getValue());
+        }
+
+    }
+
+    private static class ArtifactReferenceAdapter extends DomainAdapter<ArtifactReferenceDTO> {
+
+        ArtifactReferenceAdapter(TypeAdapter<ArtifactReferenceDTO> readAdapter) {
+            super(readAdapter);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, ArtifactReferenceDTO artifactReference) throws IOException {
+            writeString(out, "name", artifactReference.getName());
+            writeString(out, "value", artifactReference.getValue());
+        }
+
+    }
+
+    private static class TestAdapter extends DomainAdapter<TestDTO> {
+
+        private final LabelAdapter labelAdapter = new LabelAdapter(null);
+        private final ArtifactReferenceAdapter artifactReferenceAdapter = new ArtifactReferenceAdapter(null);
+
+        TestAdapter(TypeAdapter<TestDTO> readAdapter) {
+            super(readAdapter);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TestDTO test) throws IOException {
+            writeLong(out, "id", test.getId());
+            writeString(out, "uuid", test.getUuid());
+            writeString(out, "name", test.getName());
+            writeString(out, "className", test.getClassName());
+            writeString(out, "methodName", test.getMethodName());
+            writeTemporal(out, "startedAt", test.getStartedAt());
+            writeTemporal(out, "endedAt", test.getEndedAt());
+            writeString(out, "maintainer", test.getMaintainer());
+            writeString(out, "testCase", test.getTestCase());
+            writeArray(out, "labels", test.getLabels(), labelAdapter);
+            writeArray(out, "artifactReferences", test.getArtifactReferences(), artifactReferenceAdapter);
+            writeString(out, "result", test.getResult());
+            writeString(out, "reason", test.getReason());
+        }
+
+    }
+
+    private static class TestRunAdapter extends DomainAdapter<TestRunDTO> {
+
+        TestRunAdapter(TypeAdapter<TestRunDTO> readAdapter) {
+            super(readAdapter);
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TestRunDTO testRun) throws IOException {
+            writeLong(out, "id", testRun.getId());
+            writeString(out, "uuid", testRun.getUuid());
+            writeString(out, "name", testRun.getName());
+            writeTemporal(out, "startedAt", testRun.getStartedAt());
+            writeTemporal(out, "endedAt", testRun.getEndedAt());
+            writeString(out, "framework", testRun.getFramework());
+
+            TestRunDTO.Config config = testRun.getConfig();
+            if (config != null) {
+                out.name("config").beginObject();
+                writeString(out, "environment", config.getEnvironment());
+                writeString(out, "build", config.getBuild());
+                out.endObject();
+            }
+
+            TestRunDTO.LaunchContextDTO launchContext = testRun.getLaunchContext();
+            if (launchContext != null) {
+                out.name("launchContext").beginObject();
+                writeString(out, "jobNumber", launchContext.getJobNumber());
+                writeString(out, "upstreamJobNumber", launchContext.getUpstreamJobNumber());
+                out.endObject();
+            }
+        }
+
+    }
+
+    private static class TestSessionAdapter extends DomainAdapter<TestSessionDTO> {
+
+        // capabilities are arbitrary (nested) maps, lists and primitives
+        private final TypeAdapter<Object> capabilitiesAdapter;
+
+        TestSessionAdapter(TypeAdapter<TestSessionDTO> readAdapter, TypeAdapter<Object> capabilitiesAdapter) {
+            super(readAdapter);
+            this.capabilitiesAdapter = capabilitiesAdapter;
+        }
+
+        @Override
+        void writeFields(JsonWriter out, TestSessionDTO testSession) throws IOException {
+            writeLong(out, "id", testSession.getId());
+            writeString(out, "sessionId", testSession.getSessionId());
+            writeTemporal(out, "startedAt", testSession.getStartedAt());
+            writeTemporal(out, "endedAt", testSession.getEndedAt());
+            if (testSession.getDesiredCapabilities() != null) {
+                capabilitiesAdapter.write(out.name("desiredCapabilities"), testSession.getDesiredCapabilities());
+            }
+            if (testSession.getCapabilities() != null) {
+                capabilitiesAdapter.write(out.name("capabilities"), testSession.getCapabilities());
+            }
+            if (testSession.getTestIds() != null) {
+                out.name("testIds").beginArray();
+                for (Long testId : testSession.getTestIds()) {
+                    out.value(testId);
+                }
+                out.endArray();
+            }
+        }
+
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeLong(JsonWriter out, String name, Long value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.longValue());
+        }
+    }
+
+    /**
+     * ISO-8601 representation of both {@code Instant} and {@code OffsetDateTime} is returned by their
+     * {@code toString} method.
+     */
+    private static void writeTemporal(JsonWriter out, String name, TemporalAccessor value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.toString());
+        }
+    }
+
+    private static <E> void writeArray(JsonWriter out,
+                                       String name,
+                                       Collection<E> values,
+                                       TypeAdapter<E> elementAdapter) throws IOException {
+        if (values != null) {
+            out.name(name).beginArray();
+            for (E value : values) {
+                elementAdapter.write(out, value);
+            }
+            out.endArray();
+        }
+    }
+
+}
@@ -2,13 +2,20 @@ package com.zebrunner.agent.core.registrar.domain;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonSerializer;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import kong.unirest.GenericType;
 import kong.unirest.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.function.Consumer;
 
 public final class ObjectMapperImpl implements ObjectMapper {
 
@@ -16,27 +23,42 @@ public final class ObjectMapperImpl implements ObjectMapper {
 
     public ObjectMapperImpl() {
         gson = new GsonBuilder()
-                .registerTypeAdapter(Instant.class, instantSerializer())
-                .registerTypeAdapter(Instant.class, instantDeserializer())
-                .registerTypeAdapter(OffsetDateTime.class, offsetDateTimeSerializer())
-                .registerTypeAdapter(OffsetDateTime.class, offsetDateTimeDeserializer())
+                .registerTypeAdapter(Instant.class, instantAdapter().nullSafe())
+                .registerTypeAdapter(OffsetDateTime.class, offsetDateTimeAdapter().nullSafe())
+                .registerTypeAdapterFactory(new DomainTypeAdapterFactory())
                 .create();
     }
 
-    private JsonSerializer<Instant> instantSerializer() {
-        return (src, typeOfSrc, context) -> context.serialize(src.toString());
-    }
+    private TypeAdapter<Instant> instantAdapter() {
+        return new TypeAdapter<Instant>() {
 
-    private JsonDeserializer<Instant> instantDeserializer() {
-        return (json, typeOfT, context) -> Instant.parse(json.getAsString());
-    }
+            @Override
+            public void write(JsonWriter out, Instant value) throws IOException {
+                out.value(value.toString());
+            }
 
-    private JsonSerializer<OffsetDateTime> offsetDateTimeSerializer() {
-        return (src, typeOfSrc, context) -> context.serialize(src.toString());
+            @Override
+            public Instant read(JsonReader in) throws IOException {
+                return Instant.parse(in.nextString());
+            }
+
+        };
     }
 
-    private JsonDeserializer<OffsetDateTime> offsetDateTimeDeserializer() {
-        return (json, typeOfT, context) -> OffsetDateTime.parse(json.getAsString());
+    private TypeAdapter<OffsetDateTime> offsetDateTimeAdapter() {
+        return new TypeAdapter<OffsetDateTime>() {
+
+            @Override
+            public void write(JsonWriter out, OffsetDateTime value) throws IOException {
+                out.value(value.toString());
+            }
+
+            @Override
+            public OffsetDateTime read(JsonReader in) throws IOException {
+                return OffsetDateTime.parse(in.nextString());
+            }
+
+        };
     }
 
     @Override
@@ -49,6 +71,26 @@ public final class ObjectMapperImpl implements ObjectMapper {
         return gson.fromJson(value, genericType.getType());
     }
 
+    /**
+     * Reads json array from given stream element by element, so that neither the whole document
+     * nor its json tree are kept in memory.
+     *
+     * @param inputStream   stream containing json array
+     * @param valueType     type of array elements
+     * @param valueConsumer consumer of read elements
+     */
+    public <T> void readValues(InputStream inputStream, Class<T> valueType, Consumer<T> valueConsumer) {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                valueConsumer.accept(gson.fromJson(reader, valueType));
+            }
+            reader.endArray();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
     @Override
     public String writeValue(Object value) {
         return gson.toJson(value);
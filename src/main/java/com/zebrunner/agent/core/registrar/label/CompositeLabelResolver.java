@@ -1,18 +1,41 @@
 package com.zebrunner.agent.core.registrar.label;
 
+import com.zebrunner.agent.core.registrar.TestContextSnapshot;
 import com.zebrunner.agent.core.registrar.domain.LabelDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Method;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
+/**
+ * Merges labels of the built-in resolvers, resolvers discovered via {@link ServiceLoader} and resolvers registered
+ * with {@link #addResolver(LabelResolver)}. Labels are always merged in order of resolvers
+ * (see {@link LabelResolver#getOrder()}), so the result does not depend on whether resolvers are evaluated in parallel.
+ */
+@Slf4j
 public final class CompositeLabelResolver implements LabelResolver {
 
-    private static final Set<LabelResolver> RESOLVERS = new HashSet<>();
+    // in order of registration. guarded by the class lock
+    private static final List<LabelResolver> REGISTERED_RESOLVERS = new ArrayList<>();
+
+    // resolvers and the cache are replaced altogether every time a new resolver is registered
+    private static volatile ResolverChain chain = new ResolverChain(Collections.emptyList());
 
     static {
         addResolver(new TestLabelResolver());
@@ -21,22 +44,184 @@ public final class CompositeLabelResolver implements LabelResolver {
         addResolver(new XRayReferenceLabelResolver());
         addResolver(new QTestReferenceLabelResolver());
         addResolver(new TestRailReferenceLabelResolver());
+
+        Iterator<LabelResolver> discoveredResolvers = ServiceLoader.load(LabelResolver.class).iterator();
+        while (discoveredResolvers.hasNext()) {
+            try {
+                addResolver(discoveredResolvers.next());
+            } catch (ServiceConfigurationError e) {
+                log.warn("Could not load label resolver", e);
+            }
+        }
     }
 
-    public static void addResolver(LabelResolver labelResolver) {
-        if (!(labelResolver instanceof CompositeLabelResolver)) {
-            RESOLVERS.add(labelResolver);
+    public static synchronized void addResolver(LabelResolver labelResolver) {
+        if (!(labelResolver instanceof CompositeLabelResolver) && !REGISTERED_RESOLVERS.contains(labelResolver)) {
+            REGISTERED_RESOLVERS.add(labelResolver);
+            chain = new ResolverChain(REGISTERED_RESOLVERS);
         }
     }
 
+    /**
+     * Resolves labels of given test method. Labels of cacheable resolvers are cached per (class, method) pair,
+     * so the returned list is immutable.
+     */
     @Override
     public List<LabelDTO> resolve(Class<?> clazz, Method method) {
-        return RESOLVERS.stream()
-                        .map(labelResolver -> labelResolver.resolve(clazz, method))
-                        .filter(Objects::nonNull)
-                        .flatMap(Collection::stream)
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList());
+        return chain.resolve(clazz, method);
+    }
+
+    private static class ResolverChain {
+
+        private final List<LabelResolver> resolvers;
+        private final boolean cacheable;
+
+        // labels are the same for every invocation of a (data-driven) test method
+        private final ClassValue<Map<Method, MethodLabels>> cache = new ClassValue<Map<Method, MethodLabels>>() {
+            @Override
+            protected Map<Method, MethodLabels> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
+        ResolverChain(List<LabelResolver> resolvers) {
+            List<LabelResolver> sortedResolvers = new ArrayList<>(resolvers);
+            // the sort is stable, so resolvers with the same order retain the order of registration
+            sortedResolvers.sort(Comparator.comparingInt(LabelResolver::getOrder));
+
+            this.resolvers = Collections.unmodifiableList(sortedResolvers);
+            this.cacheable = sortedResolvers.stream().allMatch(LabelResolver::isCacheable);
+        }
+
+        List<LabelDTO> resolve(Class<?> clazz, Method method) {
+            if (clazz == null || method == null) {
+                return merge(evaluate(clazz, method, resolver -> true));
+            }
+
+            Map<Method, MethodLabels> methodToLabels = cache.get(clazz);
+            MethodLabels methodLabels = methodToLabels.get(method);
+            if (methodLabels == null) {
+                // resolvers are invoked outside of the map lock, since they may be relatively slow
+                List<List<LabelDTO>> resolverLabels = evaluate(clazz, method, resolver -> true);
+                methodToLabels.putIfAbsent(method, toMethodLabels(resolverLabels));
+                return merge(resolverLabels);
+            }
+
+            if (cacheable) {
+                return methodLabels.labels;
+            }
+
+            List<List<LabelDTO>> resolverLabels = evaluate(clazz, method, resolver -> !resolver.isCacheable());
+            for (int i = 0; i < resolverLabels.size(); i++) {
+                if (resolverLabels.get(i) == null) {
+                    resolverLabels.set(i, methodLabels.resolverLabels.get(i));
+                }
+            }
+            return merge(resolverLabels);
+        }
+
+        /**
+         * Invokes matching resolvers. Parallel resolvers are invoked in separate threads, while the rest
+         * are invoked in the calling thread in the meantime.
+         *
+         * @return labels per resolver in order of resolvers, {@code null} for resolvers that were not invoked
+         */
+        private List<List<LabelDTO>> evaluate(Class<?> clazz, Method method, Predicate<LabelResolver> filter) {
+            int resolverCount = resolvers.size();
+            List<List<LabelDTO>> resolverLabels = new ArrayList<>(Collections.nCopies(resolverCount, null));
+            List<CompletableFuture<List<LabelDTO>>> futures = new ArrayList<>(Collections.nCopies(resolverCount, null));
+
+            long invokedResolverCount = resolvers.stream().filter(filter).count();
+            for (int i = 0; i < resolverCount; i++) {
+                LabelResolver resolver = resolvers.get(i);
+                if (filter.test(resolver) && resolver.isParallel() && invokedResolverCount > 1) {
+                    futures.set(i, CompletableFuture.supplyAsync(
+                            () -> resolver.resolve(clazz, method), ParallelExecutorHolder.EXECUTOR
+                    ));
+                }
+            }
+            for (int i = 0; i < resolverCount; i++) {
+                LabelResolver resolver = resolvers.get(i);
+                if (filter.test(resolver) && futures.get(i) == null) {
+                    resolverLabels.set(i, nonNullLabels(resolver.resolve(clazz, method)));
+                }
+            }
+            for (int i = 0; i < resolverCount; i++) {
+                if (futures.get(i) != null) {
+                    resolverLabels.set(i, nonNullLabels(join(futures.get(i))));
+                }
+            }
+            return resolverLabels;
+        }
+
+        private MethodLabels toMethodLabels(List<List<LabelDTO>> resolverLabels) {
+            if (cacheable) {
+                return new MethodLabels(null, merge(resolverLabels));
+            }
+
+            List<List<LabelDTO>> cacheableResolverLabels = new ArrayList<>(resolverLabels);
+            for (int i = 0; i < resolvers.size(); i++) {
+                if (!resolvers.get(i).isCacheable()) {
+                    cacheableResolverLabels.set(i, null);
+                }
+            }
+            return new MethodLabels(cacheableResolverLabels, null);
+        }
+
+    }
+
+    private static List<LabelDTO> nonNullLabels(List<LabelDTO> labels) {
+        if (labels == null) {
+            return Collections.emptyList();
+        }
+        List<LabelDTO> nonNullLabels = new ArrayList<>(labels);
+        nonNullLabels.removeIf(Objects::isNull);
+        return nonNullLabels;
+    }
+
+    private static List<LabelDTO> merge(List<List<LabelDTO>> resolverLabels) {
+        List<LabelDTO> labels = new ArrayList<>();
+        resolverLabels.forEach(labels::addAll);
+        return Collections.unmodifiableList(labels);
+    }
+
+    private static List<LabelDTO> join(CompletableFuture<List<LabelDTO>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Labels resolved for a single test method. Either merged labels (if all resolvers are cacheable)
+     * or labels of cacheable resolvers only (in order of resolvers) are retained.
+     */
+    @RequiredArgsConstructor
+    private static class MethodLabels {
+
+        private final List<List<LabelDTO>> resolverLabels;
+        private final List<LabelDTO> labels;
+
+    }
+
+    private static class ParallelExecutorHolder {
+
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        // test context is propagated, so that resolvers can make use of the current test
+        private static final Executor EXECUTOR = TestContextSnapshot.propagating(Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "zebrunner-label-resolver-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+
     }
 
 }
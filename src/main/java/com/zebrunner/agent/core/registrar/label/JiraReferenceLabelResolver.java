@@ -1,11 +1,11 @@
 package com.zebrunner.agent.core.registrar.label;
 
 import com.zebrunner.agent.core.annotation.JiraReference;
+import com.zebrunner.agent.core.annotation.index.AnnotationIndex;
+import com.zebrunner.agent.core.annotation.index.ElementAnnotations;
 import com.zebrunner.agent.core.registrar.domain.LabelDTO;
 
-import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -15,29 +15,18 @@ public class JiraReferenceLabelResolver implements LabelResolver {
 
     @Override
     public List<LabelDTO> resolve(Class<?> clazz, Method method) {
-        JiraReference[] annotations = getAnnotations(method);
+        List<ElementAnnotations.Entry> annotations = AnnotationIndex.getAnnotations(method).get(JiraReference.class);
         if (annotations == null) {
-            annotations = getAnnotations(clazz);
+            annotations = AnnotationIndex.getAnnotations(clazz).get(JiraReference.class);
         }
 
         return Optional.ofNullable(annotations)
-                       .map(Arrays::stream)
+                       .map(List::stream)
                        .orElseGet(Stream::empty)
-                       .map(JiraReference::value)
-                       .flatMap(Arrays::stream)
+                       .map(ElementAnnotations.Entry::getValues)
+                       .flatMap(List::stream)
                        .map(value -> new LabelDTO(Labels.JIRA_REFERENCE, value))
                        .collect(Collectors.toList());
     }
 
-    private JiraReference[] getAnnotations(AnnotatedElement annotatedElement) {
-        return Optional.ofNullable(annotatedElement.getAnnotation(JiraReference.List.class))
-                       .map(JiraReference.List::value)
-                       .orElseGet(() -> wrapIfNonNull(annotatedElement.getAnnotation(JiraReference.class)));
-    }
-
-
-    private JiraReference[] wrapIfNonNull(JiraReference annotation) {
-        return annotation != null ? new JiraReference[]{annotation} : null;
-    }
-
 }
@@ -5,8 +5,46 @@ import com.zebrunner.agent.core.registrar.domain.LabelDTO;
 import java.lang.reflect.Method;
 import java.util.List;
 
+/**
+ * Resolves labels of a test method. Besides the built-in resolvers, implementations are discovered
+ * via {@link java.util.ServiceLoader} (listed in {@code META-INF/services/com.zebrunner.agent.core.registrar.label.LabelResolver})
+ * or can be registered with {@link CompositeLabelResolver#addResolver(LabelResolver)}.
+ */
 public interface LabelResolver {
 
     List<LabelDTO> resolve(Class<?> clazz, Method method);
 
+    /**
+     * Resolvers are invoked in ascending order. Labels of all resolvers are merged in this order as well,
+     * regardless of whether resolvers are evaluated in parallel or not. Resolvers having the same order
+     * are invoked in order of registration. Built-in resolvers have order {@code 0}.
+     *
+     * @return order of the resolver
+     */
+    default int getOrder() {
+        return 0;
+    }
+
+    /**
+     * Labels of cacheable resolvers are resolved once per test method and are reused for subsequent invocations
+     * of the method (e.g. by data-driven tests). Resolvers whose labels depend on anything other than the given
+     * class and method (e.g. test parameters or current time) must not be cacheable.
+     *
+     * @return {@code true} if resolved labels can be cached
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * Expensive resolvers (e.g. the ones reading files or querying external systems) should be evaluated
+     * in parallel with other resolvers. Parallel resolvers are invoked in a separate thread, which has
+     * the test context of the calling thread, so they must be thread-safe.
+     *
+     * @return {@code true} if the resolver should be evaluated in parallel with other resolvers
+     */
+    default boolean isParallel() {
+        return false;
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.zebrunner.agent.core.registrar.label;
 
 import com.zebrunner.agent.core.annotation.Priority;
+import com.zebrunner.agent.core.annotation.index.AnnotationIndex;
 import com.zebrunner.agent.core.registrar.domain.LabelDTO;
 
 import java.lang.reflect.Method;
@@ -12,13 +13,12 @@ public class PriorityLabelResolver implements LabelResolver {
 
     @Override
     public List<LabelDTO> resolve(Class<?> clazz, Method method) {
-        Priority priority = method.getAnnotation(Priority.class);
+        String priority = AnnotationIndex.getAnnotations(method).getValue(Priority.class);
         if (priority == null) {
-            priority = clazz.getAnnotation(Priority.class);
+            priority = AnnotationIndex.getAnnotations(clazz).getValue(Priority.class);
         }
 
         return Optional.ofNullable(priority)
-                       .map(Priority::value)
                        .map(value -> new LabelDTO(Labels.PRIORITY, value))
                        .map(Collections::singletonList)
                        .orElseGet(Collections::emptyList);
@@ -1,15 +1,14 @@
 package com.zebrunner.agent.core.registrar.label;
 
 import com.zebrunner.agent.core.annotation.TestLabel;
+import com.zebrunner.agent.core.annotation.index.AnnotationIndex;
+import com.zebrunner.agent.core.annotation.index.ElementAnnotations;
 import com.zebrunner.agent.core.registrar.domain.LabelDTO;
 
-import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -21,8 +20,8 @@ public class TestLabelResolver implements LabelResolver {
         // method-level labels override class-level labels for the same key.
         // that is why it is much easier to collect labels into map first,
         // and then convert them to dto's
-        Map<String, List<String>> labels = getAnnotations(clazz);
-        labels.putAll(getAnnotations(method));
+        Map<String, List<String>> labels = getAnnotations(AnnotationIndex.getAnnotations(clazz));
+        labels.putAll(getAnnotations(AnnotationIndex.getAnnotations(method)));
 
         return labels.entrySet()
                      .stream()
@@ -31,15 +30,13 @@ public class TestLabelResolver implements LabelResolver {
                      .collect(Collectors.toList());
     }
 
-    private Map<String, List<String>> getAnnotations(AnnotatedElement annotatedElement) {
-        return Optional.ofNullable(annotatedElement.getAnnotation(TestLabel.List.class))
-                       .map(TestLabel.List::value)
-                       .map(Arrays::stream)
-                       .orElseGet(() -> Stream.of(annotatedElement.getAnnotation(TestLabel.class)))
-                       .filter(Objects::nonNull)
+    private Map<String, List<String>> getAnnotations(ElementAnnotations annotations) {
+        return Optional.ofNullable(annotations.get(TestLabel.class))
+                       .map(List::stream)
+                       .orElseGet(Stream::empty)
                        .collect(Collectors.toMap(
-                               TestLabel::name,
-                               testLabel -> new ArrayList<>(Arrays.asList(testLabel.value())),
+                               ElementAnnotations.Entry::getName,
+                               testLabel -> new ArrayList<>(testLabel.getValues()),
                                this::union
                        ));
     }
@@ -1,11 +1,11 @@
 package com.zebrunner.agent.core.registrar.label;
 
 import com.zebrunner.agent.core.annotation.TestRailReference;
+import com.zebrunner.agent.core.annotation.index.AnnotationIndex;
+import com.zebrunner.agent.core.annotation.index.ElementAnnotations;
 import com.zebrunner.agent.core.registrar.domain.LabelDTO;
 
-import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -15,29 +15,18 @@ public class TestRailReferenceLabelResolver implements LabelResolver {
 
     @Override
     public List<LabelDTO> resolve(Class<?> clazz, Method method) {
-        TestRailReference[] annotations = getAnnotations(method);
+        List<ElementAnnotations.Entry> annotations = AnnotationIndex.getAnnotations(method).get(TestRailReference.class);
         if (annotations == null) {
-            annotations = getAnnotations(clazz);
+            annotations = AnnotationIndex.getAnnotations(clazz).get(TestRailReference.class);
         }
 
         return Optional.ofNullable(annotations)
-                       .map(Arrays::stream)
+                       .map(List::stream)
                        .orElseGet(Stream::empty)
-                       .map(TestRailReference::value)
-                       .flatMap(Arrays::stream)
+                       .map(ElementAnnotations.Entry::getValues)
+                       .flatMap(List::stream)
                        .map(value -> new LabelDTO(Labels.TEST_RAIL_REFERENCE, value))
                        .collect(Collectors.toList());
     }
 
-    private TestRailReference[] getAnnotations(AnnotatedElement annotatedElement) {
-        return Optional.ofNullable(annotatedElement.getAnnotation(TestRailReference.List.class))
-                       .map(TestRailReference.List::value)
-                       .orElseGet(() -> wrapIfNonNull(annotatedElement.getAnnotation(TestRailReference.class)));
-    }
-
-
-    private TestRailReference[] wrapIfNonNull(TestRailReference annotation) {
-        return annotation != null ? new TestRailReference[]{annotation} : null;
-    }
-
 }
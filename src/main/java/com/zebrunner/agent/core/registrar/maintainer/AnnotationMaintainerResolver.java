@@ -1,6 +1,7 @@
 package com.zebrunner.agent.core.registrar.maintainer;
 
 import com.zebrunner.agent.core.annotation.Maintainer;
+import com.zebrunner.agent.core.annotation.index.AnnotationIndex;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -11,15 +12,22 @@ public final class AnnotationMaintainerResolver implements MaintainerResolver {
 
     @Override
     public String resolve(Class<?> klass, Method method) {
-        Maintainer maintainer = null;
+        String maintainer = null;
 
-        if (method != null && method.isAnnotationPresent(Maintainer.class)) {
-            maintainer = method.getDeclaredAnnotation(Maintainer.class);
-        } else if (klass != null && klass.isAnnotationPresent(Maintainer.class)) {
-            maintainer = klass.getAnnotation(Maintainer.class);
+        if (method != null) {
+            maintainer = AnnotationIndex.getAnnotations(method).getValue(Maintainer.class);
         }
+        // class-level annotation is @Inherited, so superclasses are looked up as well
+        for (Class<?> superclass = klass; maintainer == null && superclass != null; superclass = superclass.getSuperclass()) {
+            maintainer = AnnotationIndex.getAnnotations(superclass).getValue(Maintainer.class);
+        }
+
+        return maintainer;
+    }
 
-        return maintainer != null ? maintainer.value() : null;
+    @Override
+    public boolean isCacheable() {
+        return true;
     }
 
 }
@@ -3,6 +3,9 @@ package com.zebrunner.agent.core.registrar.maintainer;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class ChainedMaintainerResolver implements MaintainerResolver {
 
@@ -13,11 +16,15 @@ public final class ChainedMaintainerResolver implements MaintainerResolver {
     }
 
     public static void addFirst(MaintainerResolver resolver) {
-        resolvers.add(0, resolver);
+        resolvers.add(0, cachingIfCacheable(resolver));
     }
 
     public static void addLast(MaintainerResolver resolver) {
-        resolvers.add(resolver);
+        resolvers.add(cachingIfCacheable(resolver));
+    }
+
+    private static MaintainerResolver cachingIfCacheable(MaintainerResolver resolver) {
+        return resolver.isCacheable() ? new CachingMaintainerResolver(resolver) : resolver;
     }
 
     @Override
@@ -29,4 +36,43 @@ public final class ChainedMaintainerResolver implements MaintainerResolver {
                         .orElse(null);
     }
 
+    private static final class CachingMaintainerResolver implements MaintainerResolver {
+
+        private final MaintainerResolver resolver;
+
+        // absent maintainer is cached as an empty optional
+        private final ClassValue<Map<Method, Optional<String>>> classToMethodMaintainer =
+                new ClassValue<Map<Method, Optional<String>>>() {
+                    @Override
+                    protected Map<Method, Optional<String>> computeValue(Class<?> type) {
+                        return new ConcurrentHashMap<>();
+                    }
+                };
+
+        private CachingMaintainerResolver(MaintainerResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        @Override
+        public String resolve(Class<?> clazz, Method method) {
+            if (clazz == null || method == null) {
+                return resolver.resolve(clazz, method);
+            }
+
+            Map<Method, Optional<String>> methodToMaintainer = classToMethodMaintainer.get(clazz);
+            Optional<String> maintainer = methodToMaintainer.get(method);
+            if (maintainer == null) {
+                maintainer = Optional.ofNullable(resolver.resolve(clazz, method));
+                methodToMaintainer.putIfAbsent(method, maintainer);
+            }
+            return maintainer.orElse(null);
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+
+    }
+
 }
@@ -6,4 +6,15 @@ public interface MaintainerResolver {
 
     String resolve(Class<?> clazz, Method method);
 
+    /**
+     * Maintainers of cacheable resolvers are resolved once per test method and are reused for subsequent invocations
+     * of the method (e.g. by data-driven tests). Only resolvers whose maintainer depends on nothing but the given
+     * class and method (e.g. annotations) should be cacheable.
+     *
+     * @return {@code true} if resolved maintainers can be cached
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
 }
@@ -0,0 +1,44 @@
+package com.zebrunner.agent.core.telemetry;
+
+/**
+ * Creates trace spans around reporting calls. Unless a tracing library is bound
+ * (see {@link OpenTelemetryBinding}), the no-op tracer is used, which returns the same no-op span every time.
+ */
+public interface AgentTracer {
+
+    AgentTracer NOOP = name -> Span.NOOP;
+
+    /**
+     * Starts a span and makes it current for the calling thread, so that spans started by the thread
+     * before the span is ended become its children.
+     *
+     * @param name span name
+     * @return started span, must be ended by the same thread
+     */
+    Span startSpan(String name);
+
+    interface Span {
+
+        Span NOOP = new Span() {
+
+            @Override
+            public void setError(String description, Throwable cause) {
+            }
+
+            @Override
+            public void end() {
+            }
+
+        };
+
+        /**
+         * @param description error description
+         * @param cause       error cause, may be {@code null}
+         */
+        void setError(String description, Throwable cause);
+
+        void end();
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.zebrunner.agent.core.telemetry;
+
+import com.zebrunner.agent.core.registrar.AgentMetricsMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers meters polling agent metrics. Must be loaded only if Micrometer is present on the classpath.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class MicrometerBridge {
+
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    static void bindGlobal(AgentMetricsMXBean metrics) {
+        bind(Metrics.globalRegistry, metrics);
+    }
+
+    static void bind(MeterRegistry registry, AgentMetricsMXBean metrics) {
+        for (String endpoint : metrics.getEndpointCalls().keySet()) {
+            FunctionTimer.builder(
+                                 "zebrunner.agent.api.calls",
+                                 metrics,
+                                 agentMetrics -> (long) getOrZero(agentMetrics.getEndpointCalls(), endpoint),
+                                 agentMetrics -> getOrZero(agentMetrics.getEndpointTotalMillis(), endpoint),
+                                 TimeUnit.MILLISECONDS
+                         )
+                         .description("Calls to Zebrunner")
+                         .tag(ENDPOINT_TAG, endpoint)
+                         .register(registry);
+            FunctionCounter.builder(
+                                   "zebrunner.agent.api.errors",
+                                   metrics,
+                                   agentMetrics -> getOrZero(agentMetrics.getEndpointErrors(), endpoint)
+                           )
+                           .description("Failed calls to Zebrunner")
+                           .tag(ENDPOINT_TAG, endpoint)
+                           .register(registry);
+        }
+
+        FunctionCounter.builder("zebrunner.agent.api.sent", metrics, AgentMetricsMXBean::getBytesSent)
+                       .description("Bytes sent to Zebrunner")
+                       .baseUnit("bytes")
+                       .register(registry);
+        FunctionCounter.builder("zebrunner.agent.blocked", metrics, AgentMetricsMXBean::getBlockedMillis)
+                       .description("Time test threads spent blocked in reporting calls")
+                       .baseUnit("milliseconds")
+                       .register(registry);
+
+        Gauge.builder("zebrunner.agent.logs.queue.depth", metrics, AgentMetricsMXBean::getLogsQueueDepth)
+             .description("Log events buffered but not yet sent")
+             .register(registry);
+        FunctionCounter.builder("zebrunner.agent.logs.sent", metrics, AgentMetricsMXBean::getLogsSent)
+                       .register(registry);
+        FunctionCounter.builder("zebrunner.agent.logs.dropped", metrics, AgentMetricsMXBean::getLogsDropped)
+                       .description("Log events not accepted by Zebrunner")
+                       .register(registry);
+
+        Gauge.builder("zebrunner.agent.artifacts.pending", metrics, AgentMetricsMXBean::getArtifactUploadsPending)
+             .description("Artifact uploads waiting for an upload thread or being uploaded")
+             .register(registry);
+        Gauge.builder(
+                     "zebrunner.agent.artifacts.throughput", metrics, AgentMetricsMXBean::getArtifactUploadBytesPerSecond
+             )
+             .description("Bytes uploaded per second of upload time")
+             .baseUnit("bytes")
+             .register(registry);
+    }
+
+    private static double getOrZero(Map<String, ? extends Number> values, String endpoint) {
+        Number value = values.get(endpoint);
+        return value != null ? value.doubleValue() : 0;
+    }
+
+}
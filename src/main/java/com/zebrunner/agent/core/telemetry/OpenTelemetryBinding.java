@@ -0,0 +1,35 @@
+package com.zebrunner.agent.core.telemetry;
+
+import io.opentelemetry.api.OpenTelemetry;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Binds the agent to OpenTelemetry. The agent never looks up {@code GlobalOpenTelemetry} on its own (which would
+ * install a no-op instance and prevent the application from registering its own), so spans of registrations
+ * and Zebrunner calls are created, and agent metrics are observed, only after the application binds an instance:
+ * <pre>
+ *     OpenTelemetryBinding.bind(openTelemetrySdk);
+ * </pre>
+ * Registrations are traced only if the instance is bound before the test run is registered.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class OpenTelemetryBinding {
+
+    /**
+     * Binds given instance to the agent. Only the first binding takes effect.
+     *
+     * @param openTelemetry OpenTelemetry instance configured by the application
+     */
+    public static void bind(OpenTelemetry openTelemetry) {
+        try {
+            TelemetryBridgeHolder.bindOpenTelemetry(new OpenTelemetryBridge(openTelemetry));
+        } catch (LinkageError e) {
+            // e.g. incompatible version of the library
+            log.warn("Agent could not be bound to OpenTelemetry, agent calls will not be traced", e);
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.zebrunner.agent.core.telemetry;
+
+import com.zebrunner.agent.core.registrar.AgentMetricsMXBean;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Creates OpenTelemetry spans and registers asynchronous instruments observing agent metrics.
+ * Is loaded only when the application binds an OpenTelemetry instance (see {@link OpenTelemetryBinding}).
+ */
+final class OpenTelemetryBridge implements AgentTracer {
+
+    private static final String INSTRUMENTATION_NAME = "com.zebrunner.agent";
+    private static final String SPAN_NAME_PREFIX = "Zebrunner ";
+    private static final AttributeKey<String> ENDPOINT_ATTRIBUTE = AttributeKey.stringKey("endpoint");
+
+    private final Tracer tracer;
+    private final Meter meter;
+
+    OpenTelemetryBridge(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.meter = openTelemetry.getMeter(INSTRUMENTATION_NAME);
+    }
+
+    @Override
+    public Span startSpan(String name) {
+        io.opentelemetry.api.trace.Span span = tracer.spanBuilder(SPAN_NAME_PREFIX + name).startSpan();
+        return new ScopedSpan(span, span.makeCurrent());
+    }
+
+    void bindMetrics(AgentMetricsMXBean metrics) {
+        meter.counterBuilder("zebrunner.agent.api.calls")
+             .setDescription("Calls to Zebrunner")
+             .buildWithCallback(measurement -> metrics.getEndpointCalls().forEach(
+                     (endpoint, calls) -> measurement.record(calls, Attributes.of(ENDPOINT_ATTRIBUTE, endpoint))
+             ));
+        meter.counterBuilder("zebrunner.agent.api.errors")
+             .setDescription("Failed calls to Zebrunner")
+             .buildWithCallback(measurement -> metrics.getEndpointErrors().forEach(
+                     (endpoint, errors) -> measurement.record(errors, Attributes.of(ENDPOINT_ATTRIBUTE, endpoint))
+             ));
+        meter.counterBuilder("zebrunner.agent.api.duration")
+             .ofDoubles()
+             .setDescription("Total duration of calls to Zebrunner")
+             .setUnit("ms")
+             .buildWithCallback(measurement -> metrics.getEndpointTotalMillis().forEach(
+                     (endpoint, millis) -> measurement.record(millis, Attributes.of(ENDPOINT_ATTRIBUTE, endpoint))
+             ));
+        meter.counterBuilder("zebrunner.agent.api.sent")
+             .setDescription("Bytes sent to Zebrunner")
+             .setUnit("By")
+             .buildWithCallback(measurement -> measurement.record(metrics.getBytesSent()));
+        meter.counterBuilder("zebrunner.agent.blocked")
+             .ofDoubles()
+             .setDescription("Time test threads spent blocked in reporting calls")
+             .setUnit("ms")
+             .buildWithCallback(measurement -> measurement.record(metrics.getBlockedMillis()));
+
+        meter.gaugeBuilder("zebrunner.agent.logs.queue.depth")
+             .ofLongs()
+             .setDescription("Log events buffered but not yet sent")
+             .buildWithCallback(measurement -> measurement.record(metrics.getLogsQueueDepth()));
+        meter.counterBuilder("zebrunner.agent.logs.sent")
+             .buildWithCallback(measurement -> measurement.record(metrics.getLogsSent()));
+        meter.counterBuilder("zebrunner.agent.logs.dropped")
+             .setDescription("Log events not accepted by Zebrunner")
+             .buildWithCallback(measurement -> measurement.record(metrics.getLogsDropped()));
+
+        meter.gaugeBuilder("zebrunner.agent.artifacts.pending")
+             .ofLongs()
+             .setDescription("Artifact uploads waiting for an upload thread or being uploaded")
+             .buildWithCallback(measurement -> measurement.record(metrics.getArtifactUploadsPending()));
+        meter.gaugeBuilder("zebrunner.agent.artifacts.throughput")
+             .setDescription("Bytes uploaded per second of upload time")
+             .setUnit("By/s")
+             .buildWithCallback(measurement -> measurement.record(metrics.getArtifactUploadBytesPerSecond()));
+    }
+
+    private static class ScopedSpan implements Span {
+
+        private final io.opentelemetry.api.trace.Span span;
+        private final Scope scope;
+
+        ScopedSpan(io.opentelemetry.api.trace.Span span, Scope scope) {
+            this.span = span;
+            this.scope = scope;
+        }
+
+        @Override
+        public void setError(String description, Throwable cause) {
+            span.setStatus(StatusCode.ERROR, description);
+            if (cause != null) {
+                span.recordException(cause);
+            }
+        }
+
+        @Override
+        public void end() {
+            scope.close();
+            span.end();
+        }
+
+    }
+
+}
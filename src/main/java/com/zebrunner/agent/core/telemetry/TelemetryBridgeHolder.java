@@ -0,0 +1,81 @@
+package com.zebrunner.agent.core.telemetry;
+
+import com.zebrunner.agent.core.registrar.AgentMetricsMXBean;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bridges agent metrics and traces to Micrometer and OpenTelemetry. Both libraries are optional: the bridges
+ * are loaded only when they are used, so nothing is loaded and no overhead is added otherwise.
+ * <p>If Micrometer is present on the classpath, metrics are bound to {@code Metrics.globalRegistry}. OpenTelemetry
+ * is used only after the application binds an instance via {@link OpenTelemetryBinding}, since looking up
+ * {@code GlobalOpenTelemetry} would prevent the application from registering its own instance afterwards.
+ * Metrics are observed by the libraries on collection and are not recorded twice.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TelemetryBridgeHolder {
+
+    private static final String MICROMETER_CLASS = "io.micrometer.core.instrument.Metrics";
+
+    private static final boolean MICROMETER_PRESENT = isClassPresent(MICROMETER_CLASS);
+
+    private static volatile AgentTracer tracer = AgentTracer.NOOP;
+    // both are guarded by TelemetryBridgeHolder.class
+    private static AgentMetricsMXBean boundMetrics;
+    private static OpenTelemetryBridge openTelemetryBridge;
+
+    /**
+     * @return tracer of the bound OpenTelemetry instance, or no-op tracer if no instance is bound yet
+     */
+    public static AgentTracer getTracer() {
+        return tracer;
+    }
+
+    public static boolean isTracingEnabled() {
+        return tracer != AgentTracer.NOOP;
+    }
+
+    /**
+     * Binds given metrics to the global registry of Micrometer (if it is present on the classpath)
+     * and to bound OpenTelemetry instance, including the one bound later.
+     *
+     * @param metrics agent metrics
+     */
+    public static synchronized void bindMetrics(AgentMetricsMXBean metrics) {
+        boundMetrics = metrics;
+        if (MICROMETER_PRESENT) {
+            try {
+                MicrometerBridge.bindGlobal(metrics);
+            } catch (LinkageError e) {
+                log.warn("Agent metrics could not be bound to Micrometer", e);
+            }
+        }
+        if (openTelemetryBridge != null) {
+            openTelemetryBridge.bindMetrics(metrics);
+        }
+    }
+
+    static synchronized void bindOpenTelemetry(OpenTelemetryBridge bridge) {
+        if (openTelemetryBridge != null) {
+            log.warn("Agent is already bound to OpenTelemetry, subsequent binding is ignored");
+            return;
+        }
+        openTelemetryBridge = bridge;
+        if (boundMetrics != null) {
+            bridge.bindMetrics(boundMetrics);
+        }
+        tracer = bridge;
+    }
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, TelemetryBridgeHolder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.zebrunner.agent.core.webdriver;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tracks depth of intercepted {@code RemoteWebDriver} calls made by the current thread. Public methods of the driver
+ * call each other (e.g. {@code findElement(By)} calls {@code findElementByXPath(String)}), so only the outermost
+ * call is recorded as a command, otherwise nested commands would be counted twice.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CommandNesting {
+
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    public static void enter() {
+        DEPTH.get()[0]++;
+    }
+
+    /**
+     * @return {@code true} if the exited call is the outermost intercepted call of the thread
+     */
+    public static boolean exit() {
+        return --DEPTH.get()[0] == 0;
+    }
+
+}
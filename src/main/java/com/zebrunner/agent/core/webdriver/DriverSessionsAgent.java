@@ -1,28 +1,36 @@
 package com.zebrunner.agent.core.webdriver;
 
 import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.agent.ByteBuddyAgent;
 import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.method.MethodDescription;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.NameMatcher;
 import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.JavaModule;
 
 import java.lang.instrument.Instrumentation;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static net.bytebuddy.implementation.MethodDelegation.to;
+import static net.bytebuddy.matcher.ElementMatchers.isMethod;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
 import static net.bytebuddy.matcher.ElementMatchers.isStatic;
 import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
 import static net.bytebuddy.matcher.ElementMatchers.not;
 
 @Slf4j
 public class DriverSessionsAgent {
 
+    private static final String SELENIUM_PACKAGE_PREFIX = "org.openqa.selenium.";
     private static final String REMOTE_WEB_DRIVER_CLASS_MAME = "org.openqa.selenium.remote.RemoteWebDriver";
 
     private static final String START_SESSION_METHOD_MAME = "startSession";
@@ -42,7 +50,12 @@ public class DriverSessionsAgent {
     // getWindowHandle, executeScript, executeAsyncScript, switchTo, navigate, manage, setLogLevel, perform,
     // resetInputState, getKeyboard, getMouse, getFileDetector, get, close
 
+    private static final AtomicBoolean INSTALLED = new AtomicBoolean();
+
     public static void premain(String args, Instrumentation instrumentation) {
+        if (!INSTALLED.compareAndSet(false, true)) {
+            return;
+        }
         try {
             log.info("Zebrunner driver sessions agent is enabled.");
             new AgentBuilder.Default()
@@ -55,6 +68,50 @@ public class DriverSessionsAgent {
         }
     }
 
+    /**
+     * Entry point for the agent loaded into already running JVM (either via {@link #attach()} or via Attach API).
+     * <p>Unlike {@link #premain(String, Instrumentation)}, class format of {@code RemoteWebDriver} can not be changed
+     * here since the class may already be loaded. Because of that the interceptors are inlined as advices,
+     * and {@code RemoteWebDriver} is retransformed if it was loaded prior to the agent. Only selenium classes
+     * are matched, so the rest of the classes loaded by JVM are not affected by the agent at all.
+     *
+     * @param args            agent arguments
+     * @param instrumentation instrumentation provided by JVM
+     */
+    public static void agentmain(String args, Instrumentation instrumentation) {
+        if (!INSTALLED.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            log.info("Zebrunner driver sessions agent is attached.");
+            new AgentBuilder.Default()
+                    .disableClassFormatChanges()
+                    .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+                    .with(new TransformationErrorListener())
+                    .ignore(not(nameStartsWith(SELENIUM_PACKAGE_PREFIX)))
+                    .type(named(REMOTE_WEB_DRIVER_CLASS_MAME))
+                    .transform((builder, type, classloader, module) -> addAdvices(builder))
+                    .installOn(instrumentation);
+        } catch (Exception e) {
+            log.error("Could not add advices for RemoteWebDriver", e);
+        }
+    }
+
+    /**
+     * Attaches the agent to the current JVM, so no {@code -javaagent} argument is required.
+     * Does nothing if the agent is already installed either statically or dynamically.
+     */
+    public static void attach() {
+        if (INSTALLED.get()) {
+            return;
+        }
+        try {
+            agentmain(null, ByteBuddyAgent.install());
+        } catch (IllegalStateException e) {
+            log.error("Could not attach Zebrunner driver sessions agent to the current JVM", e);
+        }
+    }
+
     public static ElementMatcher<? super MethodDescription> isPublicMethodToIntercept() {
         return isPublic()
                 .and(not(isStatic()))
@@ -71,6 +128,26 @@ public class DriverSessionsAgent {
                       .intercept(to(quitSessionInterceptor()));
     }
 
+    private static DynamicType.Builder<?> addAdvices(DynamicType.Builder<?> builder) {
+        log.info("Zebrunner driver sessions agent is adding advices for RemoteWebDriver.");
+        // advices are described from their class files: reflection on them would load RemoteWebDriver
+        // referenced by their signatures while the class is being transformed (i.e. defined)
+        ClassLoader agentClassLoader = DriverSessionsAgent.class.getClassLoader();
+        ClassFileLocator classFileLocator = ClassFileLocator.ForClassLoader.of(agentClassLoader);
+        TypePool typePool = TypePool.Default.of(classFileLocator);
+        // unlike method interceptors, advices match constructors as well
+        return builder.visit(advice(typePool, classFileLocator, PublicMethodInvocationAdvice.class.getName())
+                                     .on(isMethod().and(isPublicMethodToIntercept())))
+                      .visit(advice(typePool, classFileLocator, StartSessionAdvice.class.getName())
+                                     .on(named(START_SESSION_METHOD_MAME)))
+                      .visit(advice(typePool, classFileLocator, QuitSessionAdvice.class.getName())
+                                     .on(named(QUIT_METHOD_MAME)));
+    }
+
+    private static Advice advice(TypePool typePool, ClassFileLocator classFileLocator, String adviceClassName) {
+        return Advice.to(typePool.describe(adviceClassName).resolve(), classFileLocator);
+    }
+
     private static TypeDescription publicMethodsInterceptor() {
         log.debug("Creating interceptor for public methods.");
         return TypePool.Default.ofSystemLoader()
@@ -92,4 +169,17 @@ public class DriverSessionsAgent {
                                .resolve();
     }
 
+    private static class TransformationErrorListener extends AgentBuilder.Listener.Adapter {
+
+        @Override
+        public void onError(String typeName,
+                            ClassLoader classLoader,
+                            JavaModule module,
+                            boolean loaded,
+                            Throwable throwable) {
+            log.error("Could not add advices for {}", typeName, throwable);
+        }
+
+    }
+
 }
@@ -0,0 +1,37 @@
+package com.zebrunner.agent.core.webdriver;
+
+import com.zebrunner.agent.core.registrar.DriverSessionRegistrar;
+import net.bytebuddy.asm.Advice;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+
+/**
+ * Inlined counterpart of {@link PublicMethodInvocationInterceptor} that is used when the agent is attached at runtime.
+ */
+public class PublicMethodInvocationAdvice {
+
+    @Advice.OnMethodEnter
+    public static long beforePublicMethodInvocation() {
+        CommandNesting.enter();
+        return System.nanoTime();
+    }
+
+    @Advice.OnMethodExit(onThrowable = Throwable.class)
+    public static void onPublicMethodInvocation(@Advice.This final RemoteWebDriver driver,
+                                                @Advice.Origin("#m") final String methodName,
+                                                @Advice.Enter final long startedAt,
+                                                @Advice.Thrown final Throwable thrown) {
+        if (!CommandNesting.exit()) {
+            return;
+        }
+        DriverSessionRegistrar registrar = DriverSessionRegistrar.getInstance();
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId != null) {
+            registrar.registerCommand(sessionId.toString(), methodName, System.nanoTime() - startedAt);
+            if (thrown == null) {
+                registrar.linkToCurrentTest(sessionId.toString());
+            }
+        }
+    }
+
+}
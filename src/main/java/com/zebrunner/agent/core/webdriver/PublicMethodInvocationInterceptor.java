@@ -1,11 +1,14 @@
 package com.zebrunner.agent.core.webdriver;
 
 import com.zebrunner.agent.core.registrar.DriverSessionRegistrar;
+import net.bytebuddy.implementation.bind.annotation.Origin;
 import net.bytebuddy.implementation.bind.annotation.RuntimeType;
 import net.bytebuddy.implementation.bind.annotation.SuperCall;
 import net.bytebuddy.implementation.bind.annotation.This;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
 
 public class PublicMethodInvocationInterceptor {
@@ -14,10 +17,26 @@ public class PublicMethodInvocationInterceptor {
 
     @RuntimeType
     public static Object onPublicMethodInvocation(@This final RemoteWebDriver driver,
+                                                  @Origin final Method method,
                                                   @SuperCall final Callable<Object> proxy) throws Exception {
-        Object returnValue = proxy.call();
-
-        REGISTRAR.linkToCurrentTest(driver.getSessionId().toString());
+        CommandNesting.enter();
+        long startedAt = System.nanoTime();
+        Object returnValue;
+        boolean outermost;
+        try {
+            returnValue = proxy.call();
+        } finally {
+            outermost = CommandNesting.exit();
+            // failed (e.g. timed out) commands are of the most interest, so they are recorded as well
+            SessionId sessionId = driver.getSessionId();
+            if (outermost && sessionId != null) {
+                REGISTRAR.registerCommand(sessionId.toString(), method.getName(), System.nanoTime() - startedAt);
+            }
+        }
+
+        if (outermost) {
+            REGISTRAR.linkToCurrentTest(driver.getSessionId().toString());
+        }
 
         return returnValue;
     }
@@ -0,0 +1,25 @@
+package com.zebrunner.agent.core.webdriver;
+
+import com.zebrunner.agent.core.registrar.DriverSessionRegistrar;
+import com.zebrunner.agent.core.registrar.descriptor.SessionCloseDescriptor;
+import net.bytebuddy.asm.Advice;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Inlined counterpart of {@link QuitSessionInterceptor} that is used when the agent is attached at runtime.
+ * Session id is captured before the actual quit since driver drops it afterwards.
+ */
+public class QuitSessionAdvice {
+
+    @Advice.OnMethodEnter
+    public static SessionCloseDescriptor beforeSessionClose(@Advice.This final RemoteWebDriver driver) {
+        String sessionId = driver.getSessionId().toString();
+        return new SessionCloseDescriptor(sessionId, driver.getCapabilities());
+    }
+
+    @Advice.OnMethodExit
+    public static void onSessionClose(@Advice.Enter final SessionCloseDescriptor context) {
+        DriverSessionRegistrar.getInstance().registerClose(context);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.zebrunner.agent.core.webdriver;
+
+import com.zebrunner.agent.core.registrar.DriverSessionRegistrar;
+import com.zebrunner.agent.core.registrar.descriptor.SessionStartDescriptor;
+import net.bytebuddy.asm.Advice;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Inlined counterpart of {@link StartSessionInterceptor} that is used when the agent is attached at runtime.
+ * Advice does not change class format, so it can be applied to already loaded {@code RemoteWebDriver} class.
+ */
+public class StartSessionAdvice {
+
+    @Advice.OnMethodExit
+    public static void onSessionStart(@Advice.This final RemoteWebDriver driver,
+                                      @Advice.Argument(0) final Capabilities capabilities) {
+        String sessionId = driver.getSessionId().toString();
+        SessionStartDescriptor context = new SessionStartDescriptor(sessionId, driver.getCapabilities(), capabilities);
+        DriverSessionRegistrar.getInstance().registerStart(context);
+    }
+
+}